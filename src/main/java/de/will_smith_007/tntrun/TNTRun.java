@@ -12,6 +12,11 @@ import de.will_smith_007.tntrun.listeners.PlayerConnectionListener;
 import de.will_smith_007.tntrun.listeners.PlayerMoveListener;
 import de.will_smith_007.tntrun.listeners.PlayerSetupDeathHeightListener;
 import de.will_smith_007.tntrun.managers.MapManager;
+import de.will_smith_007.tntrun.managers.MapTemplateManager;
+import de.will_smith_007.tntrun.managers.StatsChangeFeedManager;
+import de.will_smith_007.tntrun.managers.StatsManager;
+import de.will_smith_007.tntrun.managers.StatsRetentionManager;
+import de.will_smith_007.tntrun.managers.StatsTransferManager;
 import de.will_smith_007.tntrun.mysql.MySQL;
 import lombok.NonNull;
 import org.bukkit.Bukkit;
@@ -28,14 +33,32 @@ import java.util.logging.Logger;
 
 public class TNTRun extends JavaPlugin {
 
+    private static final long STATS_DRAIN_TIMEOUT_MILLIS = 5000L;
+
     private final Logger logger = getLogger();
     private MySQL statsSQL;
+    private MapManager mapManager;
+    private StatsManager statsManager;
+    private StatsTransferManager statsTransferManager;
+    private StatsRetentionManager statsRetentionManager;
+    private StatsChangeFeedManager statsChangeFeedManager;
 
     @Override
     public void onEnable() {
         final Injector injector = Guice.createInjector(new InjectionModule(this));
 
         statsSQL = injector.getInstance(MySQL.class);
+        mapManager = injector.getInstance(MapManager.class);
+        statsManager = injector.getInstance(StatsManager.class);
+        statsTransferManager = injector.getInstance(StatsTransferManager.class);
+        statsRetentionManager = injector.getInstance(StatsRetentionManager.class);
+        statsChangeFeedManager = injector.getInstance(StatsChangeFeedManager.class);
+
+        //Instance worlds of games which were running when the server stopped are deleted before any game starts.
+        injector.getInstance(MapTemplateManager.class).deleteLeftoverInstances();
+
+        statsRetentionManager.start();
+        statsChangeFeedManager.start();
 
         //Command registration
         registerCommand("tntrun", injector.getInstance(TNTRunCommand.class));
@@ -55,6 +78,12 @@ public class TNTRun extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        mapManager.flushMapConfiguration();
+        //Statistics of running or just ended games are saved before the connection is closed.
+        statsManager.drainPendingWrites(STATS_DRAIN_TIMEOUT_MILLIS);
+        statsTransferManager.shutdown();
+        statsRetentionManager.shutdown();
+        statsChangeFeedManager.shutdown();
         statsSQL.closeConnection();
         logger.info("TNT-Run was stopped.");
     }
@@ -0,0 +1,99 @@
+package de.will_smith_007.tntrun.arena;
+
+import com.google.inject.Injector;
+import de.will_smith_007.tntrun.dependency_injection.ArenaModule;
+import de.will_smith_007.tntrun.managers.GameManager;
+import de.will_smith_007.tntrun.schedulers.BlockDecayScheduler;
+import de.will_smith_007.tntrun.utilities.GameAssets;
+import lombok.Getter;
+import lombok.NonNull;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.audience.ForwardingAudience;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An {@link Arena} is a single game of TNT-Run with its own players, game state, countdowns and block decay.
+ * Multiple arenas can be played at the same time on one server.
+ * <br> <br>
+ * Every arena has its own child injector of the plugin injector. The {@link GameAssets}, the managers and
+ * all schedulers of a game are bound as singletons in this child injector, which means that they only exist
+ * once per arena.
+ * The arena is also an {@link Audience} which forwards all messages to the players of the arena.
+ */
+public final class Arena implements ForwardingAudience {
+
+    @Getter
+    private final int arenaID;
+    @Getter
+    private final GameAssets gameAssets = new GameAssets();
+    private final Set<Player> players = new LinkedHashSet<>();
+    private final Collection<Player> unmodifiablePlayers = Collections.unmodifiableSet(players);
+    @Getter
+    private final Injector arenaInjector;
+    @Getter
+    private final GameManager gameManager;
+    @Getter
+    private final BlockDecayScheduler blockDecayScheduler;
+
+    /**
+     * Creates a new arena in the lobby phase.
+     *
+     * @param arenaID        The unique id of this arena, which is used for logging.
+     * @param pluginInjector The injector of the plugin from which the arena injector is created.
+     */
+    public Arena(int arenaID, @NonNull Injector pluginInjector) {
+        this.arenaID = arenaID;
+        this.arenaInjector = pluginInjector.createChildInjector(new ArenaModule(this));
+        this.gameManager = arenaInjector.getInstance(GameManager.class);
+        this.blockDecayScheduler = arenaInjector.getInstance(BlockDecayScheduler.class);
+    }
+
+    /**
+     * Gets all players of this arena, including the eliminated players.
+     *
+     * @return An unmodifiable view of the players in this arena.
+     */
+    public @NonNull Collection<Player> getPlayers() {
+        return unmodifiablePlayers;
+    }
+
+    /**
+     * Gets the amount of players in this arena.
+     *
+     * @return The amount of players in this arena.
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Adds a player to this arena.
+     *
+     * @param player The player who joins this arena.
+     * @apiNote This should only be used by the {@link de.will_smith_007.tntrun.managers.ArenaManager}.
+     */
+    public void addPlayer(@NonNull Player player) {
+        players.add(player);
+    }
+
+    /**
+     * Removes a player from this arena.
+     *
+     * @param player The player who leaves this arena.
+     * @apiNote This should only be used by the {@link de.will_smith_007.tntrun.managers.ArenaManager}.
+     */
+    public void removePlayer(@NonNull Player player) {
+        players.remove(player);
+    }
+
+    @Override
+    public @NotNull Iterable<? extends Audience> audiences() {
+        return players;
+    }
+}
@@ -0,0 +1,120 @@
+package de.will_smith_007.tntrun.block_decay;
+
+import de.will_smith_007.tntrun.utilities.LongHashSet;
+import de.will_smith_007.tntrun.utilities.PackedBlockPosition;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the original state of all blocks of a game map which were changed during a game, so that the map
+ * can be restored in place after the game instead of restarting the server.
+ * <br> <br>
+ * Every block is stored as a packed position and an index into a palette of the distinct block data of the map.
+ * A block is only recorded the first time it's changed, which means that the snapshot only contains the
+ * blocks which really have to be restored.
+ *
+ * @apiNote This snapshot isn't thread safe and should only be used on the main thread.
+ */
+public final class ArenaSnapshot {
+
+    @Getter
+    private final World world;
+    private final LongHashSet recordedPositions = new LongHashSet(1024);
+    private final List<BlockData> palette = new ArrayList<>();
+    private final Map<BlockData, Integer> paletteIndices = new HashMap<>();
+    private long[] packedPositions = new long[1024];
+    private int[] blockDataIndices = new int[1024];
+    private int size;
+
+    /**
+     * Creates an empty snapshot of the specified game map.
+     *
+     * @param world The game map of which the changed blocks should be recorded.
+     */
+    public ArenaSnapshot(@NonNull World world) {
+        this.world = world;
+    }
+
+    /**
+     * Records the current state of the specified block, if it wasn't already recorded.
+     *
+     * @param block The block which is going to be changed.
+     * @apiNote This method must be called before the block is changed.
+     */
+    public void record(@NonNull Block block) {
+        final long packedPosition = PackedBlockPosition.pack(block.getX(), block.getY(), block.getZ());
+
+        if (!recordedPositions.add(packedPosition)) return;
+
+        if (size == packedPositions.length) {
+            packedPositions = Arrays.copyOf(packedPositions, size << 1);
+            blockDataIndices = Arrays.copyOf(blockDataIndices, size << 1);
+        }
+
+        packedPositions[size] = packedPosition;
+        blockDataIndices[size] = getPaletteIndex(block.getBlockData());
+        size++;
+    }
+
+    /**
+     * Gets the amount of recorded blocks.
+     *
+     * @return The amount of blocks which are restored by this snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restores the recorded blocks starting at the specified index without block physics.
+     *
+     * @param startIndex The index of the first block which should be restored.
+     * @param maxBlocks  The maximum amount of blocks which should be restored.
+     * @return The index of the next block which should be restored. Equals {@link #size()} if all blocks
+     * were restored.
+     */
+    public int restore(int startIndex, int maxBlocks) {
+        final int endIndex = Math.min(size, startIndex + maxBlocks);
+
+        for (int index = startIndex; index < endIndex; index++) {
+            final long packedPosition = packedPositions[index];
+            final Block block = world.getBlockAt(
+                    PackedBlockPosition.unpackX(packedPosition),
+                    PackedBlockPosition.unpackY(packedPosition),
+                    PackedBlockPosition.unpackZ(packedPosition));
+
+            block.setBlockData(palette.get(blockDataIndices[index]), false);
+        }
+
+        return endIndex;
+    }
+
+    /**
+     * Removes all recorded blocks from this snapshot.
+     */
+    public void clear() {
+        recordedPositions.clear();
+        palette.clear();
+        paletteIndices.clear();
+        size = 0;
+    }
+
+    private int getPaletteIndex(@NonNull BlockData blockData) {
+        final Integer paletteIndex = paletteIndices.get(blockData);
+
+        if (paletteIndex != null) return paletteIndex;
+
+        palette.add(blockData);
+        paletteIndices.put(blockData, palette.size() - 1);
+        return palette.size() - 1;
+    }
+}
@@ -0,0 +1,118 @@
+package de.will_smith_007.tntrun.block_decay;
+
+import de.will_smith_007.tntrun.utilities.LongHashSet;
+import lombok.NonNull;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Arrays;
+
+/**
+ * Collects all block removals of a tick and applies them grouped by chunk without block physics.
+ * <br> <br>
+ * The queued positions are stored as chunk major keys, so that sorting them places all blocks of a chunk
+ * next to each other and every chunk is looked up only once per flush. Because no physics are applied,
+ * removing a block doesn't update its neighbors or create falling block entities. The server sends all
+ * changed blocks of a chunk section within the same tick to the clients as one multi block change.
+ * The original state of every removed block is recorded in the {@link ArenaSnapshot} of the game map.
+ *
+ * @apiNote This writer isn't thread safe and should only be used on the main thread.
+ */
+public final class ChunkBatchedBlockWriter {
+
+    private final LongHashSet queuedKeys = new LongHashSet(256);
+    private long[] chunkMajorKeys = new long[256];
+    private int size;
+
+    /**
+     * Queues the removal of the block at the specified coordinates until the next flush.
+     *
+     * @param x Block x coordinate.
+     * @param y Block y coordinate.
+     * @param z Block z coordinate.
+     */
+    public void queueRemoval(int x, int y, int z) {
+        final long chunkMajorKey = toChunkMajorKey(x, y, z);
+
+        if (!queuedKeys.add(chunkMajorKey)) return;
+
+        if (size == chunkMajorKeys.length) {
+            chunkMajorKeys = Arrays.copyOf(chunkMajorKeys, size << 1);
+        }
+        chunkMajorKeys[size++] = chunkMajorKey;
+    }
+
+    /**
+     * Gets the amount of queued removals.
+     *
+     * @return The amount of blocks which are removed on the next flush.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all queued blocks in the specified world, one chunk after another.
+     * Blocks in chunks which aren't loaded and blocks which are already air are skipped.
+     *
+     * @param world         The world in which the blocks should be removed.
+     * @param arenaSnapshot The snapshot in which the removed blocks should be recorded.
+     */
+    public void flush(@NonNull World world, @NonNull ArenaSnapshot arenaSnapshot) {
+        if (size == 0) return;
+
+        Arrays.sort(chunkMajorKeys, 0, size);
+
+        Chunk chunk = null;
+        long currentChunkKey = 0L;
+
+        for (int index = 0; index < size; index++) {
+            final long chunkMajorKey = chunkMajorKeys[index];
+            final long chunkKey = chunkMajorKey >> 20;
+
+            if (chunk == null || chunkKey != currentChunkKey) {
+                currentChunkKey = chunkKey;
+                final int chunkX = (int) (chunkMajorKey >> 42);
+                final int chunkZ = (int) (chunkMajorKey << 22 >> 42);
+                chunk = (world.isChunkLoaded(chunkX, chunkZ) ? world.getChunkAt(chunkX, chunkZ) : null);
+            }
+
+            if (chunk == null) continue;
+
+            final int localX = (int) (chunkMajorKey >>> 16) & 15;
+            final int localZ = (int) (chunkMajorKey >>> 12) & 15;
+            final int y = (int) (chunkMajorKey << 52 >> 52);
+
+            final Block block = chunk.getBlock(localX, y, localZ);
+
+            if (block.getType().isAir()) continue;
+
+            arenaSnapshot.record(block);
+            block.setType(Material.AIR, false);
+        }
+
+        clear();
+    }
+
+    /**
+     * Removes all queued removals without applying them.
+     */
+    public void clear() {
+        queuedKeys.clear();
+        size = 0;
+    }
+
+    /**
+     * Packs the block coordinates in the order chunk x, chunk z, local x, local z and y,
+     * so that all blocks of a chunk are next to each other after sorting.
+     */
+    private static long toChunkMajorKey(int x, int y, int z) {
+        return ((long) ((x >> 4) & 0x3FFFFF) << 42)
+                | ((long) ((z >> 4) & 0x3FFFFF) << 20)
+                | ((long) (x & 15) << 16)
+                | ((long) (z & 15) << 12)
+                | (y & 0xFFFL);
+    }
+}
@@ -0,0 +1,156 @@
+package de.will_smith_007.tntrun.block_decay;
+
+import de.will_smith_007.tntrun.utilities.LongHashSet;
+import de.will_smith_007.tntrun.utilities.PackedBlockPosition;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timing wheel which holds packed block positions until their deadline tick is reached.
+ * <br> <br>
+ * Every slot of the wheel is responsible for all deadlines with the same remainder of the wheel size, so that
+ * scheduling and advancing are constant time operations. Positions are de-duplicated: a position which is
+ * already pending can't be scheduled a second time until it was handed out by {@link #advance(DueEntryConsumer)}.
+ *
+ * @apiNote This wheel isn't thread safe and should only be used on the main thread.
+ * @see PackedBlockPosition
+ */
+public final class DecayTimingWheel {
+
+    private final int mask;
+    private final Slot[] slots;
+    private final LongHashSet pendingPositions = new LongHashSet(1024);
+    private long currentTick;
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param wheelSize Amount of slots of the wheel. Must be a power of two.
+     */
+    public DecayTimingWheel(int wheelSize) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("The wheel size must be a power of two.");
+        }
+
+        this.mask = wheelSize - 1;
+        this.slots = new Slot[wheelSize];
+        for (int index = 0; index < wheelSize; index++) {
+            slots[index] = new Slot();
+        }
+    }
+
+    /**
+     * Schedules the specified packed position if it isn't already pending.
+     *
+     * @param packedPosition The packed block position which should be scheduled.
+     * @param delayTicks     Ticks until the position is due. Values below one are handled as one tick.
+     * @param payload        Value which is handed out together with the position.
+     * @return True if the position was scheduled, false if it was already pending.
+     */
+    public boolean schedule(long packedPosition, int delayTicks, int payload) {
+        if (!pendingPositions.add(packedPosition)) return false;
+
+        final long deadlineTick = currentTick + Math.max(1, delayTicks);
+        slots[(int) (deadlineTick & mask)].add(packedPosition, deadlineTick, payload);
+        return true;
+    }
+
+    /**
+     * Checks if the specified packed position is currently waiting in this wheel.
+     *
+     * @param packedPosition The packed block position which should be checked.
+     * @return True if the position is pending.
+     */
+    public boolean isPending(long packedPosition) {
+        return pendingPositions.contains(packedPosition);
+    }
+
+    /**
+     * Gets the amount of pending positions.
+     *
+     * @return The amount of positions which are waiting in this wheel.
+     */
+    public int size() {
+        return pendingPositions.size();
+    }
+
+    /**
+     * Moves the wheel one tick forward and hands out all positions which are due in this tick.
+     * <br> <br>
+     * The consumer is allowed to schedule positions again, including the position it received.
+     *
+     * @param dueEntryConsumer Consumer which receives the due positions.
+     */
+    public void advance(@NonNull DueEntryConsumer dueEntryConsumer) {
+        currentTick++;
+        slots[(int) (currentTick & mask)].drainDue(currentTick, pendingPositions, dueEntryConsumer);
+    }
+
+    /**
+     * Removes all pending positions from this wheel.
+     */
+    public void clear() {
+        for (Slot slot : slots) {
+            slot.size = 0;
+        }
+        pendingPositions.clear();
+    }
+
+    @FunctionalInterface
+    public interface DueEntryConsumer {
+
+        void accept(long packedPosition, int payload);
+    }
+
+    /**
+     * A slot of the wheel which stores its entries in parallel primitive arrays.
+     */
+    private static final class Slot {
+
+        private long[] positions = new long[16];
+        private long[] deadlineTicks = new long[16];
+        private int[] payloads = new int[16];
+        private int size;
+
+        private void add(long packedPosition, long deadlineTick, int payload) {
+            if (size == positions.length) {
+                final int newLength = size << 1;
+                positions = Arrays.copyOf(positions, newLength);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, newLength);
+                payloads = Arrays.copyOf(payloads, newLength);
+            }
+
+            positions[size] = packedPosition;
+            deadlineTicks[size] = deadlineTick;
+            payloads[size] = payload;
+            size++;
+        }
+
+        private void drainDue(long tick, @NonNull LongHashSet pendingPositions, @NonNull DueEntryConsumer consumer) {
+            final int initialSize = size;
+            int writeIndex = 0;
+
+            //Entries added by the consumer are appended behind the initial size and are moved down afterwards.
+            for (int readIndex = 0; readIndex < initialSize; readIndex++) {
+                if (deadlineTicks[readIndex] > tick) {
+                    positions[writeIndex] = positions[readIndex];
+                    deadlineTicks[writeIndex] = deadlineTicks[readIndex];
+                    payloads[writeIndex] = payloads[readIndex];
+                    writeIndex++;
+                    continue;
+                }
+
+                final long packedPosition = positions[readIndex];
+                pendingPositions.remove(packedPosition);
+                consumer.accept(packedPosition, payloads[readIndex]);
+            }
+
+            final int appendedEntries = size - initialSize;
+            System.arraycopy(positions, initialSize, positions, writeIndex, appendedEntries);
+            System.arraycopy(deadlineTicks, initialSize, deadlineTicks, writeIndex, appendedEntries);
+            System.arraycopy(payloads, initialSize, payloads, writeIndex, appendedEntries);
+            size = writeIndex + appendedEntries;
+        }
+    }
+}
@@ -1,26 +1,24 @@
 package de.will_smith_007.tntrun.commands;
 
 import com.google.inject.Inject;
+import de.will_smith_007.tntrun.arena.Arena;
 import de.will_smith_007.tntrun.enums.GameState;
 import de.will_smith_007.tntrun.enums.Message;
-import de.will_smith_007.tntrun.managers.GameManager;
-import de.will_smith_007.tntrun.utilities.GameAssets;
+import de.will_smith_007.tntrun.managers.ArenaManager;
 import lombok.NonNull;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 public class StartCommand implements CommandExecutor {
 
-    private final GameAssets gameAssets;
-    private final GameManager gameManager;
+    private final ArenaManager arenaManager;
 
     @Inject
-    public StartCommand(@NonNull GameAssets gameAssets,
-                        @NonNull GameManager gameManager) {
-        this.gameAssets = gameAssets;
-        this.gameManager = gameManager;
+    public StartCommand(@NonNull ArenaManager arenaManager) {
+        this.arenaManager = arenaManager;
     }
 
     @Override
@@ -35,14 +33,20 @@ public class StartCommand implements CommandExecutor {
             return true;
         }
 
-        final GameState gameState = gameAssets.getGameState();
+        if (!(sender instanceof final Player player)) {
+            sender.sendPlainMessage(Message.PREFIX + "§cYou need to be a player to execute this command.");
+            return true;
+        }
+
+        //The countdown of the arena in which the player is waiting is shortened.
+        final Arena arena = arenaManager.getArena(player);
 
-        if (gameState != GameState.LOBBY) {
+        if (arena == null || arena.getGameAssets().getGameState() != GameState.LOBBY) {
             sender.sendPlainMessage(Message.PREFIX + "§cThis command can only be used in the§e lobby phase§c of the game.");
             return true;
         }
 
-        if (!gameManager.shortenCountdownIfEnoughPlayers()) {
+        if (!arena.getGameManager().shortenCountdownIfEnoughPlayers()) {
             sender.sendPlainMessage(Message.PREFIX + "§cThe countdown couldn't be shorten because there aren't enough " +
                     "players to start or the countdown is already running at less than 10 seconds.");
             return true;
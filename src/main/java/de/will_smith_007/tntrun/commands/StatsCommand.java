@@ -2,25 +2,41 @@ package de.will_smith_007.tntrun.commands;
 
 import com.google.inject.Inject;
 import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.enums.StatsWindow;
+import de.will_smith_007.tntrun.game_stats.LeaderboardEntry;
+import de.will_smith_007.tntrun.game_stats.MatchHistoryEntry;
+import de.will_smith_007.tntrun.managers.MatchHistoryManager;
 import de.will_smith_007.tntrun.managers.StatsManager;
 import lombok.NonNull;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 public class StatsCommand implements CommandExecutor {
 
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final int HISTORY_SIZE = 10;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")
+            .withZone(ZoneId.systemDefault());
+
     private final StatsManager statsManager;
+    private final MatchHistoryManager matchHistoryManager;
     private final boolean isDatabaseEnabled;
 
     @Inject
-    public StatsCommand(@NonNull StatsManager statsManager) {
+    public StatsCommand(@NonNull StatsManager statsManager,
+                        @NonNull MatchHistoryManager matchHistoryManager) {
         this.statsManager = statsManager;
+        this.matchHistoryManager = matchHistoryManager;
         this.isDatabaseEnabled = statsManager.isDatabaseEnabled();
     }
 
@@ -36,12 +52,34 @@ public class StatsCommand implements CommandExecutor {
             return true;
         }
 
-        if (args.length != 0) {
-            player.sendPlainMessage(Message.PREFIX + "§cPlease use the following command: §e/stats");
+        final UUID playerUUID = player.getUniqueId();
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("map")) {
+            sendMapAverages(player, args[1]);
             return true;
         }
 
-        final UUID playerUUID = player.getUniqueId();
+        if (args.length == 1) {
+            if (args[0].equalsIgnoreCase("history")) {
+                sendMatchHistory(player);
+                return true;
+            }
+
+            final StatsWindow statsWindow = StatsWindow.fromCommandName(args[0]);
+
+            if (statsWindow == null) {
+                sendUsage(player);
+                return true;
+            }
+
+            sendWindowLeaderboard(player, statsWindow);
+            return true;
+        }
+
+        if (args.length != 0) {
+            sendUsage(player);
+            return true;
+        }
 
         statsManager.getGameStatisticsAsync(playerUUID).thenAccept(gameStatistics -> {
             if (gameStatistics == null) {
@@ -55,14 +93,117 @@ public class StatsCommand implements CommandExecutor {
                     Message.PREFIX + "§eYour loses: §7" + gameStatistics.playerGameLoses(),
                     Message.PREFIX + "§eLongest survived time: §7" + getTimerFormat(gameStatistics.longestSurvivedTime()));
 
-            final int currentRanking = statsManager.getPlayerRanking(playerUUID);
-
-            player.sendPlainMessage(Message.PREFIX + "§eYour ranking: §7" + currentRanking);
+            //The ranking is loaded afterwards, so that the database thread isn't blocked by a second query.
+            statsManager.getPlayerRankingAsync(playerUUID).thenAccept(currentRanking ->
+                    player.sendPlainMessage(Message.PREFIX + "§eYour ranking: §7" + currentRanking)
+            ).exceptionally(throwable -> {
+                player.sendPlainMessage(Message.PREFIX + "§cYour ranking is currently unavailable.");
+                return null;
+            });
         });
 
         return false;
     }
 
+    /**
+     * Sends the leaderboard of the current bucket of the specified time window and the rank of the player
+     * in this window to the player.
+     *
+     * @param player      Player to whom the leaderboard should be sent.
+     * @param statsWindow The time window of the leaderboard.
+     */
+    private void sendWindowLeaderboard(@NonNull Player player, @NonNull StatsWindow statsWindow) {
+        final String windowName = statsWindow.getCommandName().substring(0, 1).toUpperCase() +
+                statsWindow.getCommandName().substring(1);
+
+        statsManager.getWindowLeaderboardAsync(statsWindow, LEADERBOARD_SIZE).thenAccept(leaderboardEntries -> {
+            if (leaderboardEntries.isEmpty()) {
+                player.sendPlainMessage(Message.PREFIX + "§cNobody has played this game in this time window yet.");
+                return;
+            }
+
+            player.sendMessage(Message.PREFIX + "§8§m-------[§c" + windowName + " Leaderboard§8§m]-------", "");
+
+            for (LeaderboardEntry leaderboardEntry : leaderboardEntries) {
+                final String playerName = Bukkit.getOfflinePlayer(leaderboardEntry.playerUUID()).getName();
+
+                player.sendPlainMessage(Message.PREFIX + "§e#" + leaderboardEntry.rank() + " §7" +
+                        (playerName == null ? leaderboardEntry.playerUUID() : playerName) +
+                        " §8- §e" + leaderboardEntry.wins() + " wins");
+            }
+
+            statsManager.getWindowRankingAsync(statsWindow, player.getUniqueId()).thenAccept(windowRanking -> {
+                if (windowRanking < 0) return;
+                player.sendPlainMessage(Message.PREFIX + "§eYour ranking: §7" + windowRanking);
+            });
+        }).exceptionally(throwable -> {
+            player.sendPlainMessage(Message.PREFIX + "§cThe leaderboard couldn't be loaded.");
+            return null;
+        });
+    }
+
+    /**
+     * Sends the last games of the player with the placement and the survived time to the player.
+     *
+     * @param player Player to whom the match history should be sent.
+     */
+    private void sendMatchHistory(@NonNull Player player) {
+        matchHistoryManager.getRecentMatchesAsync(player.getUniqueId(), HISTORY_SIZE).thenAccept(matchHistory -> {
+            if (matchHistory.isEmpty()) {
+                player.sendPlainMessage(Message.PREFIX + "§cYou don't have played this game before.");
+                return;
+            }
+
+            player.sendMessage(Message.PREFIX + "§8§m-------[§cYour last Games§8§m]-------", "");
+
+            for (MatchHistoryEntry matchHistoryEntry : matchHistory) {
+                player.sendPlainMessage(Message.PREFIX + "§7" + DATE_FORMATTER.format(Instant.ofEpochMilli(
+                        matchHistoryEntry.endedAt())) + " §8- §e" + matchHistoryEntry.mapName() + " §8- §e#" +
+                        matchHistoryEntry.placement() + "§7/" + matchHistoryEntry.participants() + " §8- §7" +
+                        getTimerFormat(matchHistoryEntry.survivedTime()));
+            }
+        }).exceptionally(throwable -> {
+            player.sendPlainMessage(Message.PREFIX + "§cYour last games couldn't be loaded.");
+            return null;
+        });
+    }
+
+    /**
+     * Sends the average duration and the average amount of players of all games on the specified map
+     * to the player.
+     *
+     * @param player  Player to whom the averages should be sent.
+     * @param mapName The name of the game map.
+     */
+    private void sendMapAverages(@NonNull Player player, @NonNull String mapName) {
+        matchHistoryManager.getMapAveragesAsync(mapName).thenAccept(mapAverages -> {
+            if (mapAverages == null) {
+                player.sendPlainMessage(Message.PREFIX + "§cNobody has played on the map §e" + mapName + " §cyet.");
+                return;
+            }
+
+            player.sendMessage(Message.PREFIX + "§8§m-------[§c" + mapName + "§8§m]-------",
+                    "",
+                    Message.PREFIX + "§ePlayed games: §7" + mapAverages.matches(),
+                    Message.PREFIX + "§eAverage duration: §7" + getTimerFormat(mapAverages.averageDurationMillis()),
+                    Message.PREFIX + "§eAverage players: §7" + String.format("%.1f", mapAverages.averageParticipants()));
+        }).exceptionally(throwable -> {
+            player.sendPlainMessage(Message.PREFIX + "§cThe averages of this map couldn't be loaded.");
+            return null;
+        });
+    }
+
+    /**
+     * Sends the usage of this command to the specified player.
+     *
+     * @param player Player to whom the usage should be sent.
+     */
+    private void sendUsage(@NonNull Player player) {
+        player.sendPlainMessage(Message.PREFIX + "§cPlease use the following command: §e/stats " +
+                "[daily|weekly|season|history]");
+        player.sendPlainMessage(Message.PREFIX + "§cOr use §e/stats map [MapName] §cto see the averages of a map.");
+    }
+
     /**
      * Gets the formatted timer of the specified timeMillis.
      *
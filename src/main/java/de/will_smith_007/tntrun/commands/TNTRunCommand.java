@@ -4,6 +4,11 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import de.will_smith_007.tntrun.enums.Message;
 import de.will_smith_007.tntrun.managers.MapManager;
+import de.will_smith_007.tntrun.managers.StatsManager;
+import de.will_smith_007.tntrun.managers.StatsTransferManager;
+import de.will_smith_007.tntrun.mysql.DatabaseMetrics;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.utilities.AllocationProfiler;
 import lombok.Getter;
 import lombok.NonNull;
 import org.bukkit.Location;
@@ -18,17 +23,30 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @Singleton
 public class TNTRunCommand implements TabExecutor {
 
     private final MapManager mapManager;
+    private final AllocationProfiler allocationProfiler;
+    private final MySQL statsSQL;
+    private final StatsManager statsManager;
+    private final StatsTransferManager statsTransferManager;
     @Getter
     private final HashSet<Player> playersInDeathHeightSetup = new HashSet<>();
 
     @Inject
-    public TNTRunCommand(@NonNull MapManager mapManager) {
+    public TNTRunCommand(@NonNull MapManager mapManager,
+                         @NonNull AllocationProfiler allocationProfiler,
+                         @NonNull MySQL statsSQL,
+                         @NonNull StatsManager statsManager,
+                         @NonNull StatsTransferManager statsTransferManager) {
         this.mapManager = mapManager;
+        this.allocationProfiler = allocationProfiler;
+        this.statsSQL = statsSQL;
+        this.statsManager = statsManager;
+        this.statsTransferManager = statsTransferManager;
     }
 
     @Override
@@ -90,6 +108,39 @@ public class TNTRunCommand implements TabExecutor {
                     player.sendPlainMessage(Message.PREFIX + "§aYou can now break a random §eTNT block §aon the last " +
                             "level to set the death height for this map.");
                 }
+            } else if (subCommand.equalsIgnoreCase("profileMove")) {
+                if (allocationProfiler.isEnabled()) {
+                    allocationProfiler.setEnabled(false);
+                    player.sendPlainMessage(Message.PREFIX + "§aThe move event profiling was stopped: §e" +
+                            allocationProfiler.getSummary());
+                    return true;
+                }
+
+                if (!allocationProfiler.setEnabled(true)) {
+                    player.sendPlainMessage(Message.PREFIX + "§cThis JVM doesn't support thread allocation measurement.");
+                    return true;
+                }
+
+                player.sendPlainMessage(Message.PREFIX + "§aThe allocations of the move event are now profiled. " +
+                        "Use the command again to stop the profiling.");
+            } else if (subCommand.equalsIgnoreCase("database")) {
+                final DatabaseMetrics databaseMetrics = statsSQL.getDatabaseMetrics();
+
+                player.sendMessage("",
+                        Message.PREFIX + "§7Circuit: §e" + databaseMetrics.circuitState() + " §8(§7" +
+                                databaseMetrics.circuitFailures() + " failures, " +
+                                databaseMetrics.circuitRejections() + " rejections§8)",
+                        Message.PREFIX + "§7Replica circuit: §e" + (databaseMetrics.replicaCircuitState() == null ?
+                                "Disabled" : databaseMetrics.replicaCircuitState()),
+                        Message.PREFIX + "§7Operations: §e" + databaseMetrics.runningOperations() + " running, " +
+                                databaseMetrics.queuedOperations() + " queued, " +
+                                databaseMetrics.completedOperations() + " completed",
+                        Message.PREFIX + "§7Failed operations: §e" + databaseMetrics.rejectedOperations() +
+                                " rejected, " + databaseMetrics.timedOutOperations() + " timed out",
+                        Message.PREFIX + "§7Connections: §e" + databaseMetrics.activeConnections() + " active, " +
+                                databaseMetrics.idleConnections() + " idle, " +
+                                databaseMetrics.awaitingConnections() + " awaiting",
+                        "");
             }
         } else if (args.length == 2) {
             final String subCommand = args[0];
@@ -135,6 +186,44 @@ public class TNTRunCommand implements TabExecutor {
                 player.teleport(mapSpawnLocation);
                 player.sendPlainMessage(Message.PREFIX + "§aYou've been teleported to the map named §e\"" +
                         mapName + "\"");
+            } else if (subCommand.equalsIgnoreCase("export") || subCommand.equalsIgnoreCase("import")) {
+                final String fileName = args[1];
+
+                if (!statsManager.isDatabaseEnabled()) {
+                    player.sendPlainMessage(Message.PREFIX + "§cThe statistics system is currently disabled.");
+                    return true;
+                }
+
+                if (!statsTransferManager.isValidFileName(fileName)) {
+                    player.sendPlainMessage(Message.PREFIX + "§cThe file name may only contain letters, digits, " +
+                            "underscores and hyphens.");
+                    return true;
+                }
+
+                final boolean isExport = subCommand.equalsIgnoreCase("export");
+                final String transferName = (isExport ? "exported" : "imported");
+
+                player.sendPlainMessage(Message.PREFIX + "§aThe statistics are " + transferName + " in the " +
+                        "background, file: §e\"transfers/" + fileName + ".csv\"");
+
+                (isExport ?
+                        statsTransferManager.exportAsync(fileName, transferredRows -> player.sendPlainMessage(
+                                Message.PREFIX + "§7" + transferredRows + " players were exported...")) :
+                        statsTransferManager.importAsync(fileName, transferredRows -> player.sendPlainMessage(
+                                Message.PREFIX + "§7" + transferredRows + " players were imported..."))
+                ).whenComplete((transferredRows, throwable) -> {
+                    if (throwable != null) {
+                        final Throwable cause = (throwable instanceof CompletionException &&
+                                throwable.getCause() != null ? throwable.getCause() : throwable);
+
+                        player.sendPlainMessage(Message.PREFIX + "§cThe statistics couldn't be " + transferName +
+                                ": §e" + cause.getMessage());
+                        return;
+                    }
+
+                    player.sendPlainMessage(Message.PREFIX + "§aThe statistics of §e" + transferredRows +
+                            " players§a were " + transferName + ".");
+                });
             } else {
                 sendHelpDescription(player);
             }
@@ -149,8 +238,9 @@ public class TNTRunCommand implements TabExecutor {
         if (!sender.hasPermission("tntrun.setup")) return null;
         if (args.length == 1) {
             return Arrays.asList("setGameSpawn", "setWaitSpawn", "setDeathHeight", "addMap",
-                    "removeMap", "setWaitMap", "load", "tp");
+                    "removeMap", "setWaitMap", "load", "tp", "profileMove", "database", "export", "import");
         } else if (args.length == 2) {
+            if (args[0].equalsIgnoreCase("export") || args[0].equalsIgnoreCase("import")) return List.of("FileName");
             return List.of("MapName");
         }
         return null;
@@ -171,6 +261,10 @@ public class TNTRunCommand implements TabExecutor {
                 Message.PREFIX + "§e/tntrun setWaitMap [MapName] §8- §7Sets the global waiting map",
                 Message.PREFIX + "§e/tntrun load [MapName] §8- §7Loads the map",
                 Message.PREFIX + "§e/tntrun tp [MapName] §8- §7Teleports you into the map",
+                Message.PREFIX + "§e/tntrun profileMove §8- §7Profiles the allocations of the move event",
+                Message.PREFIX + "§e/tntrun database §8- §7Shows the state of the database connection",
+                Message.PREFIX + "§e/tntrun export [FileName] §8- §7Exports the statistics into a file",
+                Message.PREFIX + "§e/tntrun import [FileName] §8- §7Imports the statistics of a file",
                 "");
     }
 }
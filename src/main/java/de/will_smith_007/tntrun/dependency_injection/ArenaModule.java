@@ -0,0 +1,39 @@
+package de.will_smith_007.tntrun.dependency_injection;
+
+import com.google.inject.AbstractModule;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
+import de.will_smith_007.tntrun.managers.GameManager;
+import de.will_smith_007.tntrun.schedulers.*;
+import de.will_smith_007.tntrun.utilities.GameAssets;
+import lombok.NonNull;
+
+/**
+ * Binds all classes which exist once per {@link Arena}. The bound singletons are created in the child injector
+ * of the arena and aren't shared with other arenas.
+ */
+public class ArenaModule extends AbstractModule {
+
+    private final Arena arena;
+
+    public ArenaModule(@NonNull Arena arena) {
+        this.arena = arena;
+    }
+
+    @Override
+    protected void configure() {
+        bind(Arena.class).toInstance(arena);
+        bind(GameAssets.class).toInstance(arena.getGameAssets());
+
+        bind(BroadcastManager.class);
+        bind(GameManager.class);
+
+        bind(LobbyCountdownScheduler.class);
+        bind(ProtectionCountdownScheduler.class);
+        bind(BlockDecayScheduler.class);
+        bind(EliminationScheduler.class);
+        bind(PlayerAFKRemoverScheduler.class);
+        bind(EndingCountdownScheduler.class);
+        bind(ArenaResetScheduler.class);
+    }
+}
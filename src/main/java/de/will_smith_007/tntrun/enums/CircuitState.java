@@ -0,0 +1,14 @@
+package de.will_smith_007.tntrun.enums;
+
+/**
+ * This enum is used to define the state of the circuit breaker of the database.
+ */
+public enum CircuitState {
+
+    //The database is reachable and all operations are executed.
+    CLOSED,
+    //The database isn't reachable and all operations fail immediately.
+    OPEN,
+    //A single operation is executed to check if the database is reachable again.
+    HALF_OPEN;
+}
@@ -0,0 +1,58 @@
+package de.will_smith_007.tntrun.enums;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Material;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * This enum defines all materials which are removed after a player stepped on them and how long
+ * they stay in the game world.
+ * <br> <br>
+ * A material with a warning material is replaced by the warning material after the warning delay first and is
+ * removed after the removal delay afterwards. Without a warning material, the block is removed directly
+ * after the removal delay.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DecayMaterial {
+
+    SAND(Material.SAND, null, 0, 1),
+    RED_SAND(Material.RED_SAND, null, 0, 1),
+    GRAVEL(Material.GRAVEL, null, 0, 1);
+
+    private static final Map<Material, DecayMaterial> DECAY_MATERIALS = new EnumMap<>(Material.class);
+
+    static {
+        for (DecayMaterial decayMaterial : values()) {
+            DECAY_MATERIALS.put(decayMaterial.material, decayMaterial);
+        }
+    }
+
+    private final Material material;
+    private final Material warningMaterial;
+    private final int warningDelayTicks;
+    private final int removalDelayTicks;
+
+    /**
+     * Checks if this material is replaced by a warning material before it's removed.
+     *
+     * @return True if this material has a warning stage.
+     */
+    public boolean hasWarningStage() {
+        return warningMaterial != null;
+    }
+
+    /**
+     * Gets the decay material of the specified material.
+     *
+     * @param material Material from which the decay material should be returned.
+     * @return The decay material. Returns null if the material isn't removed by stepping on it.
+     */
+    public static DecayMaterial getByMaterial(@NonNull Material material) {
+        return DECAY_MATERIALS.get(material);
+    }
+}
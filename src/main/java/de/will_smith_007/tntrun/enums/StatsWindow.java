@@ -0,0 +1,63 @@
+package de.will_smith_007.tntrun.enums;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * This enum is used to define the time windows of the leaderboards. The statistics of every window are
+ * summed up per bucket, which is a single day, week or season in the configured time zone of the windows.
+ * The time zone doesn't depend on the server, so that all servers which share the database use the same buckets.
+ */
+public enum StatsWindow {
+
+    DAILY(1, "daily"),
+    //Weeks start on monday.
+    WEEKLY(2, "weekly"),
+    //A season is a quarter of a year.
+    SEASONAL(3, "season");
+
+    @Getter
+    private final int windowType;
+    @Getter
+    private final String commandName;
+
+    StatsWindow(int windowType, @NonNull String commandName) {
+        this.windowType = windowType;
+        this.commandName = commandName;
+    }
+
+    /**
+     * Gets the bucket of this window which contains the specified point in time.
+     *
+     * @param epochMillis The point in time in milliseconds since the epoch.
+     * @param zoneId      The time zone in which the days, weeks and seasons start.
+     * @return The bucket, which is increased by one for each new day, week or season.
+     */
+    public int getBucket(long epochMillis, @NonNull ZoneId zoneId) {
+        final LocalDate localDate = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+
+        return switch (this) {
+            case DAILY -> (int) localDate.toEpochDay();
+            //The first epoch day was a thursday, so the weeks are shifted to start on monday.
+            case WEEKLY -> (int) Math.floorDiv(localDate.toEpochDay() + 3, 7);
+            case SEASONAL -> localDate.getYear() * 4 + (localDate.getMonthValue() - 1) / 3;
+        };
+    }
+
+    /**
+     * Gets the window with the specified command name.
+     *
+     * @param commandName The name of the window in commands, which is case-insensitive.
+     * @return The window, or null if there isn't a window with this name.
+     */
+    public static StatsWindow fromCommandName(@NonNull String commandName) {
+        for (StatsWindow statsWindow : values()) {
+            if (statsWindow.commandName.equalsIgnoreCase(commandName)) return statsWindow;
+        }
+        return null;
+    }
+}
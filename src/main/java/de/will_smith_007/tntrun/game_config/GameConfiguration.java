@@ -1,5 +1,7 @@
 package de.will_smith_007.tntrun.game_config;
 
+import de.will_smith_007.tntrun.block_decay.ArenaSnapshot;
+import de.will_smith_007.tntrun.game_stats.MatchStats;
 import de.will_smith_007.tntrun.utilities.GameAssets;
 import lombok.NonNull;
 import org.bukkit.Location;
@@ -9,13 +11,19 @@ import org.bukkit.World;
  * The {@link GameConfiguration} class is used to save all important information about the started game.
  *
  * @param gameMap               Game map on which the players are playing.
+ * @param gameMapName           Name of the configured game map of which the game map is a copy.
  * @param gameSpawnLocation     Spawn location of the current game map.
  * @param gameDeathHeight       Death height on which the players should die.
  * @param startedGameTimeMillis Time milliseconds of the game start.
+ * @param arenaSnapshot         Snapshot which records the changed blocks of the game map to restore them.
+ * @param matchStats            Buffer of the statistics of this game, which are saved when the game ends.
  * @apiNote This configuration should be initialized in the {@link GameAssets} class.
  */
 public record GameConfiguration(@NonNull World gameMap,
+                                @NonNull String gameMapName,
                                 @NonNull Location gameSpawnLocation,
                                 int gameDeathHeight,
-                                long startedGameTimeMillis) {
+                                long startedGameTimeMillis,
+                                @NonNull ArenaSnapshot arenaSnapshot,
+                                @NonNull MatchStats matchStats) {
 }
@@ -0,0 +1,61 @@
+package de.will_smith_007.tntrun.game_config;
+
+import de.will_smith_007.tntrun.managers.MapManager;
+import lombok.NonNull;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * The {@link MapConfiguration} contains the configured information of a single map.
+ *
+ * @param spawnX      X coordinate of the map spawn.
+ * @param spawnY      Y coordinate of the map spawn.
+ * @param spawnZ      Z coordinate of the map spawn.
+ * @param spawnYaw    Yaw of the map spawn.
+ * @param spawnPitch  Pitch of the map spawn.
+ * @param deathHeight Death height on which the players should die, only used by game maps.
+ * @apiNote This configuration is immutable and is held by the {@link MapManager}.
+ */
+public record MapConfiguration(int spawnX,
+                               int spawnY,
+                               int spawnZ,
+                               float spawnYaw,
+                               float spawnPitch,
+                               int deathHeight) {
+
+    /**
+     * The configuration of a map which wasn't configured yet.
+     */
+    public static final MapConfiguration EMPTY = new MapConfiguration(0, 0, 0, 0.0f, 0.0f, 0);
+
+    /**
+     * Creates the spawn location of this map in the specified world.
+     *
+     * @param world World in which the spawn location is.
+     * @return A new spawn location of this map.
+     */
+    public @NonNull Location toSpawnLocation(@NonNull World world) {
+        return new Location(world, spawnX, spawnY, spawnZ, spawnYaw, spawnPitch);
+    }
+
+    /**
+     * Creates a copy of this configuration with the specified spawn location.
+     *
+     * @param spawnLocation The new spawn location of this map.
+     * @return The changed copy of this configuration.
+     */
+    public @NonNull MapConfiguration withSpawnLocation(@NonNull Location spawnLocation) {
+        return new MapConfiguration(spawnLocation.getBlockX(), spawnLocation.getBlockY(), spawnLocation.getBlockZ(),
+                spawnLocation.getYaw(), spawnLocation.getPitch(), deathHeight);
+    }
+
+    /**
+     * Creates a copy of this configuration with the specified death height.
+     *
+     * @param deathHeight The new death height of this map.
+     * @return The changed copy of this configuration.
+     */
+    public @NonNull MapConfiguration withDeathHeight(int deathHeight) {
+        return new MapConfiguration(spawnX, spawnY, spawnZ, spawnYaw, spawnPitch, deathHeight);
+    }
+}
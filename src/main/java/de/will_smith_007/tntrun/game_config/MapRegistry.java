@@ -0,0 +1,86 @@
+package de.will_smith_007.tntrun.game_config;
+
+import de.will_smith_007.tntrun.managers.MapManager;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link MapRegistry} is an immutable view of the whole map configuration. Every change creates a new
+ * registry, so that a registry can be read from any thread without locking.
+ *
+ * @param gameMaps          The names of all configured game maps.
+ * @param waitingMapName    The name of the waiting lobby map, null if there isn't a configured waiting map.
+ * @param mapConfigurations The configurations of all maps by their name.
+ * @apiNote This registry is published by the {@link MapManager}.
+ */
+public record MapRegistry(@NonNull List<String> gameMaps,
+                          String waitingMapName,
+                          @NonNull Map<String, MapConfiguration> mapConfigurations) {
+
+    /**
+     * An empty registry without any configured map.
+     */
+    public static final MapRegistry EMPTY = new MapRegistry(List.of(), null, Map.of());
+
+    public MapRegistry {
+        gameMaps = List.copyOf(gameMaps);
+        mapConfigurations = Map.copyOf(mapConfigurations);
+    }
+
+    /**
+     * Gets the configuration of the specified map.
+     *
+     * @param mapName Name of the map from which the configuration should be returned.
+     * @return The configuration of the map, or {@link MapConfiguration#EMPTY} if the map isn't configured.
+     */
+    public @NonNull MapConfiguration getMapConfiguration(@NonNull String mapName) {
+        return mapConfigurations.getOrDefault(mapName, MapConfiguration.EMPTY);
+    }
+
+    /**
+     * Creates a copy of this registry with the specified game maps.
+     *
+     * @param gameMaps The new list of game maps.
+     * @return The changed copy of this registry.
+     */
+    public @NonNull MapRegistry withGameMaps(@NonNull List<String> gameMaps) {
+        return new MapRegistry(gameMaps, waitingMapName, mapConfigurations);
+    }
+
+    /**
+     * Creates a copy of this registry with the specified waiting map.
+     *
+     * @param waitingMapName The name of the new waiting map.
+     * @return The changed copy of this registry.
+     */
+    public @NonNull MapRegistry withWaitingMapName(@NonNull String waitingMapName) {
+        return new MapRegistry(gameMaps, waitingMapName, mapConfigurations);
+    }
+
+    /**
+     * Creates a copy of this registry with the specified configuration of a map.
+     *
+     * @param mapName          Name of the map which was configured.
+     * @param mapConfiguration The new configuration of the map.
+     * @return The changed copy of this registry.
+     */
+    public @NonNull MapRegistry withMapConfiguration(@NonNull String mapName,
+                                                     @NonNull MapConfiguration mapConfiguration) {
+        final Map<String, MapConfiguration> changedMapConfigurations = new HashMap<>(mapConfigurations);
+        changedMapConfigurations.put(mapName, mapConfiguration);
+        return new MapRegistry(gameMaps, waitingMapName, changedMapConfigurations);
+    }
+
+    /**
+     * Creates a copy of the game maps which can be changed.
+     *
+     * @return A mutable copy of the game map names.
+     */
+    public @NonNull List<String> copyGameMaps() {
+        return new ArrayList<>(gameMaps);
+    }
+}
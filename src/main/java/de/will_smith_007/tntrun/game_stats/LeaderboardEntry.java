@@ -0,0 +1,18 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * A single entry of a time-windowed leaderboard.
+ *
+ * @param rank       The rank of the player, players with the same amount of wins share the same rank.
+ * @param playerUUID The UUID of the player.
+ * @param wins       The wins of the player in the time window.
+ * @see de.will_smith_007.tntrun.managers.StatsManager
+ */
+public record LeaderboardEntry(int rank,
+                               @NonNull UUID playerUUID,
+                               int wins) {
+}
@@ -0,0 +1,14 @@
+package de.will_smith_007.tntrun.game_stats;
+
+/**
+ * The averages of all games which were played on a game map.
+ *
+ * @param matches               The amount of played games.
+ * @param averageDurationMillis The average duration of a game in milliseconds.
+ * @param averageParticipants   The average amount of players per game.
+ * @see de.will_smith_007.tntrun.managers.MatchHistoryManager
+ */
+public record MapAverages(long matches,
+                          long averageDurationMillis,
+                          double averageParticipants) {
+}
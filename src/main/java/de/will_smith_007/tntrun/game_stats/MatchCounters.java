@@ -0,0 +1,178 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts the broken blocks, the run distance, the time in the air and the AFK removals of all participants
+ * during a single game.
+ * <br> <br>
+ * Every participant gets a slot when the game starts, which is the index of the player in primitive arrays.
+ * This way the counters are updated by plain array writes and no objects are created while the players move.
+ *
+ * @apiNote The counters should only be used on the main thread.
+ * @see MatchStats
+ */
+public final class MatchCounters {
+
+    private static final int NOT_AIRBORNE = -1;
+
+    private final Map<UUID, Integer> playerSlots = new HashMap<>();
+
+    private UUID[] slotPlayers = new UUID[0];
+    private int[] blocksBroken = new int[0], afkRemovals = new int[0], airborneSinceTick = new int[0];
+    private long[] airTicks = new long[0];
+    private double[] distanceRun = new double[0];
+
+    /**
+     * Gives every specified player a slot and resets all counters.
+     *
+     * @param players The players who participate in the game.
+     */
+    public void registerPlayers(@NonNull Collection<? extends Player> players) {
+        final int playerCount = players.size();
+
+        playerSlots.clear();
+        slotPlayers = new UUID[playerCount];
+        blocksBroken = new int[playerCount];
+        afkRemovals = new int[playerCount];
+        airborneSinceTick = new int[playerCount];
+        airTicks = new long[playerCount];
+        distanceRun = new double[playerCount];
+        Arrays.fill(airborneSinceTick, NOT_AIRBORNE);
+
+        int slot = 0;
+        for (Player player : players) {
+            final UUID playerUUID = player.getUniqueId();
+
+            if (playerSlots.putIfAbsent(playerUUID, slot) != null) continue;
+
+            slotPlayers[slot++] = playerUUID;
+        }
+    }
+
+    /**
+     * Gets the slot of the specified player in this game.
+     *
+     * @param playerUUID The UUID of the player.
+     * @return The slot of the player. Returns -1 if the player doesn't participate in the game.
+     */
+    public int getSlot(@NonNull UUID playerUUID) {
+        final Integer slot = playerSlots.get(playerUUID);
+        return (slot == null ? -1 : slot);
+    }
+
+    /**
+     * Gets the amount of slots, some slots may be unused.
+     *
+     * @return The amount of slots.
+     */
+    public int getSlotCount() {
+        return slotPlayers.length;
+    }
+
+    /**
+     * Gets the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     * @return The UUID of the player. Returns null if the slot is unused.
+     */
+    public UUID getPlayerUUID(int slot) {
+        return slotPlayers[slot];
+    }
+
+    /**
+     * Adds a broken block to the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     */
+    public void addBlockBroken(int slot) {
+        blocksBroken[slot]++;
+    }
+
+    /**
+     * Adds a removal of the blocks underneath the player of the specified slot because the player was AFK.
+     *
+     * @param slot The slot of the player.
+     */
+    public void addAFKRemoval(int slot) {
+        afkRemovals[slot]++;
+    }
+
+    /**
+     * Adds the run distance of a movement to the player of the specified slot.
+     *
+     * @param slot     The slot of the player.
+     * @param distance The run distance in blocks.
+     */
+    public void addDistanceRun(int slot, double distance) {
+        distanceRun[slot] += distance;
+    }
+
+    /**
+     * Updates if the player of the specified slot is in the air. The ticks in the air are added
+     * as soon as the player touches the ground again.
+     *
+     * @param slot        The slot of the player.
+     * @param isOnGround  True if the player touches the ground.
+     * @param currentTick The current tick of the server.
+     */
+    public void updateAirborne(int slot, boolean isOnGround, int currentTick) {
+        final int airborneSince = airborneSinceTick[slot];
+
+        if (isOnGround) {
+            if (airborneSince == NOT_AIRBORNE) return;
+
+            airTicks[slot] += currentTick - airborneSince;
+            airborneSinceTick[slot] = NOT_AIRBORNE;
+        } else if (airborneSince == NOT_AIRBORNE) {
+            airborneSinceTick[slot] = currentTick;
+        }
+    }
+
+    /**
+     * Gets the broken blocks of the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     * @return The amount of broken blocks.
+     */
+    public int getBlocksBroken(int slot) {
+        return blocksBroken[slot];
+    }
+
+    /**
+     * Gets the AFK removals of the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     * @return The amount of AFK removals.
+     */
+    public int getAFKRemovals(int slot) {
+        return afkRemovals[slot];
+    }
+
+    /**
+     * Gets the run distance of the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     * @return The run distance in whole blocks.
+     */
+    public long getDistanceRun(int slot) {
+        return Math.round(distanceRun[slot]);
+    }
+
+    /**
+     * Gets the time in the air of the player of the specified slot.
+     *
+     * @param slot The slot of the player.
+     * @return The time in the air in milliseconds.
+     */
+    public long getAirTimeMillis(int slot) {
+        return airTicks[slot] * 50L;
+    }
+}
@@ -0,0 +1,20 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.NonNull;
+
+/**
+ * A single game in the match history of a player.
+ *
+ * @param mapName      The name of the game map.
+ * @param placement    The final placement of the player. The winner has the placement 1.
+ * @param participants The amount of players who participated in the game.
+ * @param survivedTime The survived time of the player in milliseconds.
+ * @param endedAt      Time milliseconds of the game end.
+ * @see de.will_smith_007.tntrun.managers.MatchHistoryManager
+ */
+public record MatchHistoryEntry(@NonNull String mapName,
+                                int placement,
+                                int participants,
+                                long survivedTime,
+                                long endedAt) {
+}
@@ -0,0 +1,32 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The history of a single game, which is built from the elimination log when the game ends.
+ *
+ * @param matchUUID    The unique id of the game.
+ * @param mapName      The name of the game map on which the game was played.
+ * @param startedAt    Time milliseconds of the game start.
+ * @param endedAt      Time milliseconds of the game end.
+ * @param eliminations The elimination log of the game, the last placed player comes first.
+ * @see de.will_smith_007.tntrun.managers.MatchHistoryManager
+ */
+public record MatchRecord(@NonNull UUID matchUUID,
+                          @NonNull String mapName,
+                          long startedAt,
+                          long endedAt,
+                          @NonNull List<PlayerElimination> eliminations) {
+
+    /**
+     * Gets the duration of the game.
+     *
+     * @return The duration in milliseconds.
+     */
+    public long getDurationMillis() {
+        return endedAt - startedAt;
+    }
+}
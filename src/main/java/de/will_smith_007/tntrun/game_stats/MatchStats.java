@@ -0,0 +1,108 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the changes of the game statistics of all players during a single game, so that they can be
+ * written to the database together when the game ends.
+ *
+ * @apiNote The changes should only be added on the main thread.
+ * @see de.will_smith_007.tntrun.managers.StatsManager
+ */
+public final class MatchStats {
+
+    private final Map<UUID, PlayerStatsDelta> playerStatsDeltas = new LinkedHashMap<>();
+    @Getter
+    private final MatchCounters matchCounters = new MatchCounters();
+
+    /**
+     * Adds a game win for the specified player.
+     *
+     * @param playerUUID The UUID of the player to which the win should be added.
+     */
+    public void addGameWin(@NonNull UUID playerUUID) {
+        getPlayerStatsDelta(playerUUID).wins++;
+    }
+
+    /**
+     * Adds a game lose for the specified player.
+     *
+     * @param playerUUID The UUID of the player to which the loss should be added.
+     */
+    public void addGameLose(@NonNull UUID playerUUID) {
+        getPlayerStatsDelta(playerUUID).loses++;
+    }
+
+    /**
+     * Sets the survived time of the specified player in this game.
+     *
+     * @param playerUUID         The UUID of the player who survived.
+     * @param survivedTimeMillis The survived milliseconds in this game.
+     */
+    public void updateLongestSurvivedTime(@NonNull UUID playerUUID, long survivedTimeMillis) {
+        final PlayerStatsDelta playerStatsDelta = getPlayerStatsDelta(playerUUID);
+        playerStatsDelta.longestSurvivedTime = Math.max(playerStatsDelta.longestSurvivedTime, survivedTimeMillis);
+    }
+
+    /**
+     * Adds the counters of all participants to the changes of this game. This is done once when the game ends,
+     * so that the counters aren't copied while the game is running.
+     */
+    public void collectCounters() {
+        for (int slot = 0; slot < matchCounters.getSlotCount(); slot++) {
+            final UUID playerUUID = matchCounters.getPlayerUUID(slot);
+
+            if (playerUUID == null) continue;
+
+            final PlayerStatsDelta playerStatsDelta = getPlayerStatsDelta(playerUUID);
+            playerStatsDelta.blocksBroken += matchCounters.getBlocksBroken(slot);
+            playerStatsDelta.distanceRun += matchCounters.getDistanceRun(slot);
+            playerStatsDelta.airTime += matchCounters.getAirTimeMillis(slot);
+            playerStatsDelta.afkRemovals += matchCounters.getAFKRemovals(slot);
+        }
+    }
+
+    /**
+     * Checks if there aren't any changes in this game.
+     *
+     * @return True if no statistics were changed.
+     */
+    public boolean isEmpty() {
+        return playerStatsDeltas.isEmpty();
+    }
+
+    /**
+     * Gets the changes of all players in this game.
+     *
+     * @return An unmodifiable view of the changes of all players.
+     */
+    public @NonNull Collection<PlayerStatsDelta> getPlayerStatsDeltas() {
+        return Collections.unmodifiableCollection(playerStatsDeltas.values());
+    }
+
+    private @NonNull PlayerStatsDelta getPlayerStatsDelta(@NonNull UUID playerUUID) {
+        return playerStatsDeltas.computeIfAbsent(playerUUID, PlayerStatsDelta::new);
+    }
+
+    /**
+     * The changes of the statistics of a single player in this game.
+     */
+    @Getter
+    public static final class PlayerStatsDelta {
+
+        private final UUID playerUUID;
+        private int wins, loses, blocksBroken, afkRemovals;
+        private long longestSurvivedTime, distanceRun, airTime;
+
+        private PlayerStatsDelta(@NonNull UUID playerUUID) {
+            this.playerUUID = playerUUID;
+        }
+    }
+}
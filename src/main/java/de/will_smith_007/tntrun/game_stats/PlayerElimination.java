@@ -0,0 +1,29 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import java.util.UUID;
+
+/**
+ * This record is an entry of the elimination log of a game and describes when and on which place a player
+ * left the game.
+ *
+ * @param playerUUID            The UUID of the player.
+ * @param playerName            The name of the player at the time of the elimination.
+ * @param placement             The final placement of the player. The winner has the placement 1.
+ * @param eliminationTimeMillis Time milliseconds of the elimination.
+ * @see de.will_smith_007.tntrun.utilities.AlivePlayerRegistry
+ */
+public record PlayerElimination(UUID playerUUID,
+                                String playerName,
+                                int placement,
+                                long eliminationTimeMillis) {
+
+    /**
+     * Gets the time the player has survived in the game.
+     *
+     * @param startedGameTimeMillis Time milliseconds of the game start.
+     * @return The survived time in milliseconds.
+     */
+    public long getSurvivedTimeMillis(long startedGameTimeMillis) {
+        return eliminationTimeMillis - startedGameTimeMillis;
+    }
+}
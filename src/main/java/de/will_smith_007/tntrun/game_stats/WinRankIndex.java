@@ -0,0 +1,118 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An in-memory index of the game wins of all players, which returns the rank of a player in logarithmic time.
+ * <br> <br>
+ * The index counts the players per amount of wins in a Fenwick tree, so the rank of a player is one more than the
+ * amount of players with more wins. Players with the same amount of wins share the same rank.
+ *
+ * @apiNote This index is thread safe.
+ */
+public final class WinRankIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<UUID, Integer> winsByPlayer = new HashMap<>();
+    //Fenwick tree over the amount of players per amount of wins, tree[index] covers the wins index - 1.
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Sets the amount of wins of the specified player.
+     *
+     * @param playerUUID The UUID of the player.
+     * @param wins       The amount of wins of the player.
+     */
+    public synchronized void setWins(@NonNull UUID playerUUID, int wins) {
+        final int clampedWins = Math.max(0, wins);
+        final Integer previousWins = winsByPlayer.put(playerUUID, clampedWins);
+
+        if (previousWins != null) {
+            if (previousWins == clampedWins) return;
+            add(previousWins, -1);
+        }
+
+        add(clampedWins, 1);
+    }
+
+    /**
+     * Removes the specified player from the index.
+     *
+     * @param playerUUID The UUID of the player.
+     */
+    public synchronized void remove(@NonNull UUID playerUUID) {
+        final Integer wins = winsByPlayer.remove(playerUUID);
+
+        if (wins != null) add(wins, -1);
+    }
+
+    /**
+     * Gets the rank of the specified player.
+     *
+     * @param playerUUID The UUID of the player from which the rank should be returned.
+     * @return The rank of the player, starting at 1. Returns -1 if the player isn't in the index.
+     */
+    public synchronized int getRank(@NonNull UUID playerUUID) {
+        final Integer wins = winsByPlayer.get(playerUUID);
+
+        if (wins == null) return -1;
+
+        //All players with more wins are ranked before this player.
+        return winsByPlayer.size() - prefixSum(wins) + 1;
+    }
+
+    /**
+     * Gets the amount of players in this index.
+     *
+     * @return The amount of indexed players.
+     */
+    public synchronized int size() {
+        return winsByPlayer.size();
+    }
+
+    private void add(int wins, int delta) {
+        if (wins >= tree.length - 1) grow(wins + 1);
+
+        for (int index = wins + 1; index < tree.length; index += index & -index) {
+            tree[index] += delta;
+        }
+    }
+
+    //Amount of players with at most the specified amount of wins.
+    private int prefixSum(int wins) {
+        int sum = 0;
+        for (int index = Math.min(wins + 1, tree.length - 1); index > 0; index -= index & -index) {
+            sum += tree[index];
+        }
+        return sum;
+    }
+
+    /**
+     * Grows the tree, so that it can hold the specified amount of win counts. The tree is rebuilt in
+     * linear time from the amount of players per wins.
+     *
+     * @param minimumCapacity The required amount of win counts.
+     */
+    private void grow(int minimumCapacity) {
+        final int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, minimumCapacity) - 1) << 1;
+        final int[] grownTree = new int[capacity + 1];
+
+        for (int wins : winsByPlayer.values()) {
+            //The player who is currently added is counted by the caller.
+            if (wins < tree.length - 1) grownTree[wins + 1]++;
+        }
+
+        //Converts the counts per wins into a Fenwick tree.
+        for (int index = 1; index <= capacity; index++) {
+            final int parentIndex = index + (index & -index);
+            if (parentIndex <= capacity) grownTree[parentIndex] += grownTree[index];
+        }
+
+        tree = grownTree;
+    }
+}
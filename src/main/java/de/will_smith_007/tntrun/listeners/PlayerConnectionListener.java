@@ -1,12 +1,11 @@
 package de.will_smith_007.tntrun.listeners;
 
 import com.google.inject.Inject;
-import de.will_smith_007.tntrun.enums.GameState;
+import de.will_smith_007.tntrun.arena.Arena;
 import de.will_smith_007.tntrun.enums.Message;
-import de.will_smith_007.tntrun.game_config.GameConfiguration;
-import de.will_smith_007.tntrun.managers.GameManager;
+import de.will_smith_007.tntrun.managers.ArenaManager;
 import de.will_smith_007.tntrun.managers.MapManager;
-import de.will_smith_007.tntrun.utilities.GameAssets;
+import de.will_smith_007.tntrun.managers.StatsManager;
 import lombok.NonNull;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -15,7 +14,9 @@ import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scoreboard.Scoreboard;
@@ -23,19 +24,19 @@ import org.bukkit.scoreboard.Team;
 
 public class PlayerConnectionListener implements Listener {
 
-    private final GameAssets gameAssets;
-    private final GameManager gameManager;
+    private final ArenaManager arenaManager;
     private final MapManager mapManager;
+    private final StatsManager statsManager;
 
     private Team playerTeam;
 
     @Inject
-    public PlayerConnectionListener(@NonNull GameAssets gameAssets,
-                                    @NonNull GameManager gameManager,
-                                    @NonNull MapManager mapManager) {
-        this.gameAssets = gameAssets;
-        this.gameManager = gameManager;
+    public PlayerConnectionListener(@NonNull ArenaManager arenaManager,
+                                    @NonNull MapManager mapManager,
+                                    @NonNull StatsManager statsManager) {
+        this.arenaManager = arenaManager;
         this.mapManager = mapManager;
+        this.statsManager = statsManager;
 
         final Scoreboard mainScoreboard = Bukkit.getScoreboardManager().getMainScoreboard();
         if ((playerTeam = mainScoreboard.getTeam("players")) == null) {
@@ -45,60 +46,66 @@ public class PlayerConnectionListener implements Listener {
         playerTeam.color(NamedTextColor.GRAY);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(@NonNull AsyncPlayerPreLoginEvent asyncPlayerPreLoginEvent) {
+        if (asyncPlayerPreLoginEvent.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        //The statistics are already cached when the player uses "/stats" the first time.
+        statsManager.prefetchGameStatistics(asyncPlayerPreLoginEvent.getUniqueId());
+    }
+
     @EventHandler
     public void onPlayerJoin(@NonNull PlayerJoinEvent playerJoinEvent) {
         final Player player = playerJoinEvent.getPlayer();
 
         playerTeam.addEntry(player.getName());
 
-        if (gameAssets.getGameState() == GameState.LOBBY) {
-            player.setGameMode(GameMode.ADVENTURE);
-
-            playerJoinEvent.joinMessage(Component.text(
-                    Message.PREFIX + "§e" + player.getName() + " §7joined the game!"
-            ));
+        //Joining players are always added to an arena in the lobby phase.
+        final Arena arena = arenaManager.joinArena(player);
 
-            final String waitingMapName = mapManager.getWaitingMapName();
+        player.setGameMode(GameMode.ADVENTURE);
 
-            if (waitingMapName == null) return;
+        playerJoinEvent.joinMessage(null);
+        arena.sendMessage(Component.text(
+                Message.PREFIX + "§e" + player.getName() + " §7joined the game!"
+        ));
 
-            final Location waitingMapSpawn = mapManager.getMapSpawnPoint(waitingMapName);
+        final String waitingMapName = mapManager.getWaitingMapName();
 
-            if (waitingMapSpawn == null) return;
+        if (waitingMapName == null) return;
 
-            player.teleport(waitingMapSpawn);
+        final Location waitingMapSpawn = mapManager.getMapSpawnPoint(waitingMapName);
 
-            gameManager.startCountdownIfEnoughPlayers();
-        } else {
-            playerJoinEvent.joinMessage(null);
-            player.setGameMode(GameMode.SPECTATOR);
+        if (waitingMapSpawn == null) return;
 
-            final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
-            final Location gameSpawnLocation = gameConfiguration.gameSpawnLocation();
+        player.teleport(waitingMapSpawn);
 
-            player.teleport(gameSpawnLocation);
-        }
+        arena.getGameManager().startCountdownIfEnoughPlayers();
     }
 
     @EventHandler
     public void onPlayerQuit(@NonNull PlayerQuitEvent playerQuitEvent) {
         final Player player = playerQuitEvent.getPlayer();
+        final Arena arena = arenaManager.getArena(player);
+
+        playerQuitEvent.quitMessage(null);
 
-        final GameState currentGameState = gameAssets.getGameState();
+        if (arena == null) return;
 
-        switch (currentGameState) {
+        switch (arena.getGameAssets().getGameState()) {
             case LOBBY -> {
-                playerQuitEvent.quitMessage(Component.text(
+                arena.sendMessage(Component.text(
                         Message.PREFIX + "§e" + player.getName() + " §7left the game."
                 ));
-                //This event is called before player removing from the online player collection.
-                gameManager.cancelCountdownIfNotEnoughPlayers((Bukkit.getOnlinePlayers().size() - 1));
+                //The player is removed from the arena after this check.
+                arena.getGameManager().cancelCountdownIfNotEnoughPlayers((arena.getPlayerCount() - 1));
             }
-            case INGAME, PROTECTION -> {
-                playerQuitEvent.quitMessage(null);
-                gameAssets.getOnlinePlayersAlive().remove(player);
+            case INGAME, PROTECTION -> arena.getGameAssets().getAlivePlayerRegistry()
+                    .eliminate(player.getUniqueId(), System.currentTimeMillis());
+            case ENDING -> {
             }
-            case ENDING -> playerQuitEvent.quitMessage(null);
         }
+
+        arenaManager.leaveArena(player);
     }
 }
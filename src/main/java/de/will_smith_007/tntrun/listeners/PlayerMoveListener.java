@@ -1,147 +1,133 @@
 package de.will_smith_007.tntrun.listeners;
 
 import com.google.inject.Inject;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.enums.DecayMaterial;
 import de.will_smith_007.tntrun.enums.GameState;
-import de.will_smith_007.tntrun.enums.Message;
 import de.will_smith_007.tntrun.game_config.GameConfiguration;
-import de.will_smith_007.tntrun.managers.StatsManager;
-import de.will_smith_007.tntrun.schedulers.EndingCountdownScheduler;
+import de.will_smith_007.tntrun.game_stats.MatchCounters;
+import de.will_smith_007.tntrun.managers.ArenaManager;
+import de.will_smith_007.tntrun.schedulers.BlockDecayScheduler;
+import de.will_smith_007.tntrun.utilities.AlivePlayerRegistry;
+import de.will_smith_007.tntrun.utilities.AllocationProfiler;
 import de.will_smith_007.tntrun.utilities.GameAssets;
 import lombok.NonNull;
 import org.bukkit.Bukkit;
-import org.bukkit.GameMode;
 import org.bukkit.Location;
-import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockFace;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
-import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitScheduler;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 public class PlayerMoveListener implements Listener {
 
-    private final JavaPlugin javaPlugin;
-    private final GameAssets gameAssets;
-    private final EndingCountdownScheduler endingCountdownScheduler;
-    private final StatsManager statsManager;
-    private final BukkitScheduler bukkitScheduler = Bukkit.getScheduler();
-    private final List<Material> removingGameMaterials;
+    private final ArenaManager arenaManager;
+    private final AllocationProfiler allocationProfiler;
 
     @Inject
-    public PlayerMoveListener(@NonNull JavaPlugin javaPlugin,
-                              @NonNull GameAssets gameAssets,
-                              @NonNull EndingCountdownScheduler endingCountdownScheduler,
-                              @NonNull StatsManager statsManager) {
-        this.javaPlugin = javaPlugin;
-        this.gameAssets = gameAssets;
-        this.removingGameMaterials = gameAssets.getRemovingGameMaterials();
-        this.endingCountdownScheduler = endingCountdownScheduler;
-        this.statsManager = statsManager;
+    public PlayerMoveListener(@NonNull ArenaManager arenaManager,
+                              @NonNull AllocationProfiler allocationProfiler) {
+        this.arenaManager = arenaManager;
+        this.allocationProfiler = allocationProfiler;
     }
 
     @EventHandler
     public void onPlayerMove(@NonNull PlayerMoveEvent playerMoveEvent) {
-        final Player player = playerMoveEvent.getPlayer();
-
-        if (gameAssets.getGameState() != GameState.INGAME) return;
-
-        final List<Player> playersAlive = gameAssets.getOnlinePlayersAlive();
+        if (!allocationProfiler.isEnabled()) {
+            handlePlayerMove(playerMoveEvent);
+            return;
+        }
 
-        if (!playersAlive.contains(player)) return;
+        final long startAllocatedBytes = allocationProfiler.getCurrentThreadAllocatedBytes();
+        handlePlayerMove(playerMoveEvent);
+        allocationProfiler.record(startAllocatedBytes);
+    }
 
-        final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+    /**
+     * Handles the movement of a player in the game. This is called for every position and rotation packet,
+     * for this reason the cheapest checks are made first and no {@link Location} or {@link Block} is created.
+     *
+     * @param playerMoveEvent The move event of the player.
+     */
+    private void handlePlayerMove(@NonNull PlayerMoveEvent playerMoveEvent) {
+        final Location toLocation = playerMoveEvent.getTo();
 
-        if (gameConfiguration == null) return;
+        //The arena is found by the world of the player, worlds which aren't used by an arena are skipped.
+        final Arena arena = arenaManager.getArena(toLocation.getWorld());
 
-        final String playedMapName = gameConfiguration.gameMap().getName();
-        final String playerMapName = player.getWorld().getName();
+        if (arena == null) return;
 
-        if (!playedMapName.equalsIgnoreCase(playerMapName)) return;
+        final GameAssets gameAssets = arena.getGameAssets();
 
-        final Location playerLocation = player.getLocation();
-        final int deathHeight = gameConfiguration.gameDeathHeight();
-        final int playerHeight = (int) playerLocation.getY();
+        if (gameAssets.getGameState() != GameState.INGAME) return;
 
-        //Blocks are only going to be removed if the player touches the ground.
-        if (((LivingEntity) player).isOnGround()) {
-            final Block blockBelowPlayer = playerLocation.getBlock().getRelative(BlockFace.DOWN);
-            final Block blockBelowRemovingBlock = blockBelowPlayer.getRelative(BlockFace.DOWN);
-
-            if (removingGameMaterials.contains(blockBelowPlayer.getType())) {
-                //Player who is walking shouldn't fell into their own path for this reason a delay is required.
-                bukkitScheduler.runTaskLater(javaPlugin, () -> {
-                    blockBelowPlayer.setType(Material.AIR);
-                    blockBelowRemovingBlock.setType(Material.AIR);
-                }, 1L);
-            }
-        }
+        final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
 
-        //Player elimination when the current player height is below the configured death height of the map.
-        if (playerHeight > deathHeight) return;
+        if (gameConfiguration == null) return;
 
-        final Location gameMapSpawn = gameConfiguration.gameSpawnLocation();
-        player.setGameMode(GameMode.SPECTATOR);
-        player.teleport(gameMapSpawn);
-        playersAlive.remove(player);
+        final Player player = playerMoveEvent.getPlayer();
+        final UUID playerUUID = player.getUniqueId();
+        final MatchCounters matchCounters = gameConfiguration.matchStats().getMatchCounters();
+        final int playerSlot = matchCounters.getSlot(playerUUID);
+        final AlivePlayerRegistry alivePlayerRegistry = gameAssets.getAlivePlayerRegistry();
 
-        final int playersAliveSize = playersAlive.size();
+        //Eliminated players are spectating and neither count nor remove blocks.
+        if (playerSlot < 0 || !alivePlayerRegistry.isAlive(playerUUID)) return;
 
-        Bukkit.getOnlinePlayers().forEach(onlinePlayer ->
-                onlinePlayer.sendPlainMessage(Message.PREFIX + "§e" + player.getName() + "§c fell to death! " +
-                        (playersAliveSize > 1 ? playersAliveSize + "§c players remaining." :
-                                "§e" + playersAlive.get(0).getName() + "§a won the game!"))
-        );
+        final Location fromLocation = playerMoveEvent.getFrom();
+        final boolean isOnGround = ((LivingEntity) player).isOnGround();
+        countMovement(matchCounters, playerSlot, fromLocation, toLocation, isOnGround);
 
-        final long currentTimeMillis = System.currentTimeMillis();
-        final long startedGameTimeMillis = gameConfiguration.startedGameTimeMillis();
-        final long differenceTimeMillis = (currentTimeMillis - startedGameTimeMillis);
+        //Blocks are only going to be removed if the player touches the ground.
+        if (!isOnGround) return;
 
-        player.sendPlainMessage(Message.PREFIX + "§aYou've survived §e" + getTimerFormat(differenceTimeMillis));
+        final BlockDecayScheduler blockDecayScheduler = arena.getBlockDecayScheduler();
+        final int blockX = toLocation.getBlockX();
+        final int blockY = toLocation.getBlockY();
+        final int blockZ = toLocation.getBlockZ();
 
-        //The eliminated player gets a loss and the survived time milliseconds is updating if it's higher than before.
-        if (statsManager.isDatabaseEnabled()) {
-            final UUID playerUUID = player.getUniqueId();
-            statsManager.addGameLoseAsync(playerUUID);
-            statsManager.updateLongestSurvivedTimeAsync(playerUUID, differenceTimeMillis);
+        //Rotations and movements inside the same block are skipped if the block below is already decaying.
+        if (blockX == fromLocation.getBlockX() && blockY == fromLocation.getBlockY()
+                && blockZ == fromLocation.getBlockZ() && blockDecayScheduler.isDecaying(blockX, blockY - 1, blockZ)) {
+            return;
         }
 
-        //If there's only one player left or alive in this game, the winner receives a win and the game ends.
-        if (playersAlive.size() != 1) return;
-
-        gameAssets.setGameState(GameState.ENDING);
+        final World gameMap = gameConfiguration.gameMap();
+        final int blockBelowPlayerY = blockY - 1;
+        final DecayMaterial decayMaterial = DecayMaterial.getByMaterial(gameMap.getType(blockX, blockBelowPlayerY, blockZ));
 
-        if (endingCountdownScheduler.isRunning()) return;
-        endingCountdownScheduler.start();
+        if (decayMaterial == null) return;
 
-        final Player winnerPlayer = playersAlive.get(0);
-        winnerPlayer.sendPlainMessage(Message.PREFIX + "§aYou've survived §e" + getTimerFormat(differenceTimeMillis));
-
-        //The winner gets a win and the survived time milliseconds is updating if it's higher than before.
-        if (!statsManager.isDatabaseEnabled()) return;
-
-        final UUID winnerPlayerUUID = winnerPlayer.getUniqueId();
-        statsManager.addGameWinAsync(winnerPlayerUUID);
-        statsManager.updateLongestSurvivedTimeAsync(winnerPlayerUUID, differenceTimeMillis);
+        //Player who is walking shouldn't fell into their own path for this reason a delay is required.
+        if (blockDecayScheduler.scheduleDecay(blockX, blockBelowPlayerY, blockZ, decayMaterial)) {
+            matchCounters.addBlockBroken(playerSlot);
+        }
     }
 
     /**
-     * Gets the formatted timer of the specified timeMillis.
+     * Adds the horizontal distance and the time in the air of a movement to the counters of the player.
+     * Only primitive values are read from the locations of the event, so nothing is allocated.
      *
-     * @param timeMillis Time Milliseconds which should be formatted.
-     * @return The formatted String timer format in minutes and seconds.
+     * @param matchCounters The counters of the current game.
+     * @param playerSlot    The slot of the player in the counters.
+     * @param fromLocation  The location before the movement.
+     * @param toLocation    The location after the movement.
+     * @param isOnGround    True if the player touches the ground after the movement.
      */
-    private @NonNull String getTimerFormat(long timeMillis) {
-        final long timerMinutes = TimeUnit.MILLISECONDS.toMinutes(timeMillis);
-        return String.format("%02d minutes and %02d seconds",
-                timerMinutes,
-                (TimeUnit.MILLISECONDS.toSeconds(timeMillis) - TimeUnit.MINUTES.toSeconds(timerMinutes)));
+    private void countMovement(@NonNull MatchCounters matchCounters, int playerSlot, @NonNull Location fromLocation,
+                               @NonNull Location toLocation, boolean isOnGround) {
+        final double distanceX = toLocation.getX() - fromLocation.getX();
+        final double distanceZ = toLocation.getZ() - fromLocation.getZ();
+
+        if (distanceX != 0.0d || distanceZ != 0.0d) {
+            matchCounters.addDistanceRun(playerSlot, Math.sqrt(distanceX * distanceX + distanceZ * distanceZ));
+        }
+
+        matchCounters.updateAirborne(playerSlot, isOnGround, Bukkit.getCurrentTick());
     }
 }
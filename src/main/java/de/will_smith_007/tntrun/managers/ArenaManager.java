@@ -0,0 +1,188 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.enums.GameState;
+import lombok.NonNull;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * The {@link ArenaManager} creates and removes the {@link Arena}s of this server and knows in which arena
+ * a player is playing and which arena is played on a world.
+ * <br> <br>
+ * Joining players are added to the arena in the lobby phase with the most players. If there isn't any arena
+ * in the lobby phase, a new arena is created. Every game map can only be used by one arena at the same time.
+ */
+@Singleton
+public class ArenaManager {
+
+    private final Logger logger;
+    private final Injector injector;
+    private final MapManager mapManager;
+    private final List<Arena> arenas = new ArrayList<>();
+    private final Map<UUID, Arena> arenasByPlayer = new HashMap<>();
+    private final Map<String, Arena> arenasByGameMapName = new HashMap<>();
+    private final Map<World, Arena> arenasByGameMap = new IdentityHashMap<>();
+    private int nextArenaID = 1;
+
+    @Inject
+    public ArenaManager(@NonNull JavaPlugin javaPlugin,
+                        @NonNull Injector injector,
+                        @NonNull MapManager mapManager) {
+        this.logger = javaPlugin.getLogger();
+        this.injector = injector;
+        this.mapManager = mapManager;
+    }
+
+    /**
+     * Adds the player to the arena in the lobby phase with the most players.
+     * A new arena is created if there isn't any arena in the lobby phase.
+     *
+     * @param player The player who should join an arena.
+     * @return The arena which the player has joined.
+     */
+    public @NonNull Arena joinArena(@NonNull Player player) {
+        Arena joinedArena = null;
+
+        for (Arena arena : arenas) {
+            if (arena.getGameAssets().getGameState() != GameState.LOBBY) continue;
+
+            if (joinedArena == null || arena.getPlayerCount() > joinedArena.getPlayerCount()) {
+                joinedArena = arena;
+            }
+        }
+
+        if (joinedArena == null) {
+            joinedArena = new Arena(nextArenaID++, injector);
+            arenas.add(joinedArena);
+            logger.info("The arena #" + joinedArena.getArenaID() + " was created.");
+        }
+
+        joinedArena.addPlayer(player);
+        arenasByPlayer.put(player.getUniqueId(), joinedArena);
+        return joinedArena;
+    }
+
+    /**
+     * Removes the player from their arena. The arena is removed if it's in the lobby phase and empty.
+     *
+     * @param player The player who should leave their arena.
+     * @return The arena which the player has left. Returns null if the player wasn't in an arena.
+     */
+    public Arena leaveArena(@NonNull Player player) {
+        final Arena arena = arenasByPlayer.remove(player.getUniqueId());
+
+        if (arena == null) return null;
+
+        arena.removePlayer(player);
+        removeArenaIfUnused(arena);
+        return arena;
+    }
+
+    /**
+     * Gets the arena in which the player is playing.
+     *
+     * @param player The player from whom the arena should be returned.
+     * @return The arena of the player. Returns null if the player isn't in an arena.
+     */
+    public Arena getArena(@NonNull Player player) {
+        return arenasByPlayer.get(player.getUniqueId());
+    }
+
+    /**
+     * Gets the arena which is played on the specified world.
+     *
+     * @param world The game map of the arena.
+     * @return The arena which is played on this world. Returns null if the world isn't used by an arena.
+     */
+    public Arena getArena(World world) {
+        return arenasByGameMap.get(world);
+    }
+
+    /**
+     * Gets all arenas of this server.
+     *
+     * @return An unmodifiable list of all arenas.
+     */
+    public @NonNull List<Arena> getArenas() {
+        return Collections.unmodifiableList(arenas);
+    }
+
+    /**
+     * Selects a random configured game map which isn't used by another arena and reserves it for the
+     * specified arena.
+     *
+     * @param arena The arena which needs a game map.
+     * @return The name of the reserved game map. Returns null if all game maps are in use.
+     */
+    public String claimGameMap(@NonNull Arena arena) {
+        final List<String> gameMaps = new ArrayList<>(mapManager.getMapList());
+        Collections.shuffle(gameMaps);
+
+        for (String gameMapName : gameMaps) {
+            if (arenasByGameMapName.putIfAbsent(gameMapName, arena) == null) return gameMapName;
+        }
+
+        return null;
+    }
+
+    /**
+     * Registers the loaded world of the reserved game map, so that the events of this world are handled
+     * by the specified arena.
+     *
+     * @param arena   The arena which is played on this world.
+     * @param gameMap The loaded game map.
+     */
+    public void registerGameMap(@NonNull Arena arena, @NonNull World gameMap) {
+        arenasByGameMap.put(gameMap, arena);
+    }
+
+    /**
+     * Releases the game map of the specified arena, so that it can be used by other arenas.
+     *
+     * @param arena The arena of which the game map should be released.
+     */
+    public void releaseGameMap(@NonNull Arena arena) {
+        arenasByGameMapName.values().removeIf(gameMapArena -> gameMapArena == arena);
+        arenasByGameMap.values().removeIf(gameMapArena -> gameMapArena == arena);
+
+        removeArenaIfUnused(arena);
+    }
+
+    /**
+     * Starts the countdown of all arenas in the lobby phase which have enough players.
+     * This is used after a game map was released, because the arenas could have waited for a free game map.
+     */
+    public void startLobbyCountdowns() {
+        for (Arena lobbyArena : arenas) {
+            if (lobbyArena.getGameAssets().getGameState() != GameState.LOBBY) continue;
+            lobbyArena.getGameManager().startCountdownIfEnoughPlayers();
+        }
+    }
+
+    /**
+     * Checks if there is a configured game map which isn't used by an arena.
+     *
+     * @return True if there is at least one free game map.
+     */
+    public boolean hasFreeGameMap() {
+        for (String gameMapName : mapManager.getMapList()) {
+            if (!arenasByGameMapName.containsKey(gameMapName)) return true;
+        }
+        return false;
+    }
+
+    private void removeArenaIfUnused(@NonNull Arena arena) {
+        if (arena.getPlayerCount() != 0 || arena.getGameAssets().getGameState() != GameState.LOBBY) return;
+        if (!arenas.remove(arena)) return;
+
+        logger.info("The arena #" + arena.getArenaID() + " was removed.");
+    }
+}
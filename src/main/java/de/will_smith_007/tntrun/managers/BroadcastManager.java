@@ -0,0 +1,132 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.schedulers.interfaces.ICountdownOptions;
+import lombok.NonNull;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.audience.ForwardingAudience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link BroadcastManager} sends game announcements to all players of an {@link Arena}.
+ * <br> <br>
+ * Every message is rendered once to a {@link Component} and sent through the arena, which forwards it to
+ * all players of the arena, instead of building the message again for every player. Countdown messages are cached
+ * per countdown value, because they are the same in every game.
+ */
+@Singleton
+public class BroadcastManager {
+
+    private final JavaPlugin javaPlugin;
+    private final ForwardingAudience playerAudience;
+    private final Map<ICountdownOptions, Component[]> countdownMessages = new IdentityHashMap<>();
+    private final List<Component> coalescedMessages = new ArrayList<>();
+    private boolean isFlushScheduled;
+
+    @Inject
+    public BroadcastManager(@NonNull JavaPlugin javaPlugin,
+                            @NonNull Arena arena) {
+        this.javaPlugin = javaPlugin;
+        this.playerAudience = arena;
+    }
+
+    /**
+     * Gets the audience which contains all players of the arena.
+     *
+     * @return The audience of all players of the arena.
+     */
+    public @NonNull Audience getPlayerAudience() {
+        return playerAudience;
+    }
+
+    /**
+     * Sends a message with the plugin prefix to all players of the arena.
+     *
+     * @param message The message without prefix which should be sent.
+     */
+    public void broadcast(@NonNull String message) {
+        playerAudience.sendMessage(render(message));
+    }
+
+    /**
+     * Sends the message of the current countdown to all players of the arena. The message is rendered only once
+     * for every countdown value.
+     *
+     * @param countdownOptions The countdown from which the message should be sent.
+     * @param countdown        The current countdown value.
+     */
+    public void broadcastCountdown(@NonNull ICountdownOptions countdownOptions, int countdown) {
+        playerAudience.sendMessage(getCountdownMessage(countdownOptions, countdown));
+    }
+
+    /**
+     * Queues a message with the plugin prefix which is sent together with all other queued messages
+     * of this tick as one combined message at the beginning of the next tick.
+     *
+     * @param message The message without prefix which should be sent.
+     */
+    public void broadcastCoalesced(@NonNull String message) {
+        coalescedMessages.add(render(message));
+
+        if (isFlushScheduled) return;
+
+        isFlushScheduled = true;
+        Bukkit.getScheduler().runTask(javaPlugin, this::flushCoalescedMessages);
+    }
+
+    /**
+     * Sends all queued messages as one combined message.
+     */
+    public void flushCoalescedMessages() {
+        isFlushScheduled = false;
+
+        if (coalescedMessages.isEmpty()) return;
+
+        final Component combinedMessage = (coalescedMessages.size() == 1 ? coalescedMessages.get(0) :
+                Component.join(JoinConfiguration.newlines(), coalescedMessages));
+        coalescedMessages.clear();
+
+        playerAudience.sendMessage(combinedMessage);
+    }
+
+    /**
+     * Gets the rendered message of a countdown and caches it for the next games.
+     *
+     * @param countdownOptions The countdown from which the message should be returned.
+     * @param countdown        The countdown value.
+     * @return The rendered countdown message with the plugin prefix.
+     */
+    private @NonNull Component getCountdownMessage(@NonNull ICountdownOptions countdownOptions, int countdown) {
+        Component[] messages = countdownMessages.get(countdownOptions);
+
+        if (messages == null || messages.length <= countdown) {
+            messages = (messages == null ? new Component[countdown + 1] : Arrays.copyOf(messages, countdown + 1));
+            countdownMessages.put(countdownOptions, messages);
+        }
+
+        Component message = messages[countdown];
+
+        if (message == null) {
+            message = render(countdownOptions.getCountdownMessage(countdown));
+            messages[countdown] = message;
+        }
+
+        return message;
+    }
+
+    private static @NonNull Component render(@NonNull String message) {
+        return Component.text(Message.PREFIX + message);
+    }
+}
@@ -8,6 +8,9 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.logging.Logger;
 
 /**
@@ -110,6 +113,170 @@ public class DatabaseFileManager {
         return yamlConfiguration.getString("Secret");
     }
 
+    /**
+     * Gets the maximum number of connections of the connection pool from the database configuration.
+     * This is also the number of database operations which can be executed at the same time.
+     *
+     * @return The maximum size of the connection pool.
+     */
+    public int getMaximumPoolSize() {
+        return yamlConfiguration.getInt("Pool.MaximumPoolSize");
+    }
+
+    /**
+     * Gets the minimum number of idle connections of the connection pool from the database configuration.
+     *
+     * @return The minimum number of idle connections which the connection pool tries to keep.
+     */
+    public int getMinimumIdle() {
+        return yamlConfiguration.getInt("Pool.MinimumIdle");
+    }
+
+    /**
+     * Gets the maximum milliseconds to wait for a free connection of the pool from the database configuration.
+     *
+     * @return The connection timeout in milliseconds.
+     */
+    public long getConnectionTimeoutMillis() {
+        return yamlConfiguration.getLong("Pool.ConnectionTimeoutMillis");
+    }
+
+    /**
+     * Gets the maximum number of database operations which can wait for their execution
+     * from the database configuration. Further operations are rejected.
+     *
+     * @return The capacity of the queue of database operations.
+     */
+    public int getQueueCapacity() {
+        return yamlConfiguration.getInt("Pool.QueueCapacity");
+    }
+
+    /**
+     * Gets the maximum milliseconds of a single asynchronous database operation from the database configuration.
+     *
+     * @return The operation timeout in milliseconds.
+     */
+    public long getOperationTimeoutMillis() {
+        return yamlConfiguration.getLong("Pool.OperationTimeoutMillis");
+    }
+
+    /**
+     * Checks if the read replica option is enabled.
+     *
+     * @return True if read queries should be executed by a read replica of the database.
+     */
+    public boolean isReplicaEnabled() {
+        return yamlConfiguration.getBoolean("Replica.Enabled");
+    }
+
+    /**
+     * Gets the host address of the read replica from the database configuration.
+     *
+     * @return The host address of the read replica in a String format.
+     */
+    public String getReplicaHostAddress() {
+        return yamlConfiguration.getString("Replica.HostAddress");
+    }
+
+    /**
+     * Gets the port of the read replica from the database configuration.
+     *
+     * @return The port of the read replica as an Integer.
+     */
+    public int getReplicaPort() {
+        return yamlConfiguration.getInt("Replica.Port");
+    }
+
+    /**
+     * Gets the username of the read replica from the database configuration.
+     *
+     * @return The username which the read replica should be using.
+     */
+    public String getReplicaUsername() {
+        return yamlConfiguration.getString("Replica.Username");
+    }
+
+    /**
+     * Gets the name of the database of the read replica from the database configuration.
+     *
+     * @return The name of the replicated database which contains the statistics data.
+     */
+    public String getReplicaDatabaseName() {
+        return yamlConfiguration.getString("Replica.DatabaseName");
+    }
+
+    /**
+     * Gets the password of the read replica from the database configuration.
+     *
+     * @return The password for the configured username of the read replica.
+     */
+    public String getReplicaSecret() {
+        return yamlConfiguration.getString("Replica.Secret");
+    }
+
+    /**
+     * Checks if the statistics of inactive players should be purged.
+     *
+     * @return True if the statistics of players who haven't played for {@link #getRetentionDays()} are purged.
+     */
+    public boolean isRetentionEnabled() {
+        return yamlConfiguration.getBoolean("Retention.Enabled");
+    }
+
+    /**
+     * Gets the days after which the statistics of an inactive player are purged from the database configuration.
+     *
+     * @return The retention of the statistics of inactive players in days.
+     */
+    public int getRetentionDays() {
+        return yamlConfiguration.getInt("Retention.InactiveDays");
+    }
+
+    /**
+     * Checks if purged statistics should be moved into the archive table instead of being deleted.
+     *
+     * @return True if purged statistics are archived.
+     */
+    public boolean isArchiveEnabled() {
+        return yamlConfiguration.getBoolean("Retention.ArchiveRows");
+    }
+
+    /**
+     * Gets the time zone in which the days, weeks and seasons of the time-windowed leaderboards start
+     * from the database configuration.
+     *
+     * @return The configured time zone, or UTC if the configured time zone isn't valid.
+     */
+    public @NonNull ZoneId getWindowTimeZone() {
+        final String timeZone = yamlConfiguration.getString("Windows.TimeZone");
+
+        if (timeZone == null) return ZoneOffset.UTC;
+
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException dateTimeException) {
+            return ZoneOffset.UTC;
+        }
+    }
+
+    /**
+     * Checks if the cluster option is enabled, which is required if multiple servers share the same database.
+     *
+     * @return True if changed statistics are recorded and the changes of other servers are read.
+     */
+    public boolean isClusterEnabled() {
+        return yamlConfiguration.getBoolean("Cluster.Enabled");
+    }
+
+    /**
+     * Gets the milliseconds between two reads of the changes of other servers from the database configuration.
+     *
+     * @return The poll interval of the change log in milliseconds.
+     */
+    public long getClusterPollIntervalMillis() {
+        return yamlConfiguration.getLong("Cluster.PollIntervalMillis");
+    }
+
     /**
      * Sets the default configuration for a database connection if the configuration fields aren't set and
      * saves the file after.
@@ -139,6 +306,74 @@ public class DatabaseFileManager {
             yamlConfiguration.set("Secret", "1234");
         }
 
+        if (yamlConfiguration.get("Pool.MaximumPoolSize") == null) {
+            yamlConfiguration.set("Pool.MaximumPoolSize", 4);
+        }
+
+        if (yamlConfiguration.get("Pool.MinimumIdle") == null) {
+            yamlConfiguration.set("Pool.MinimumIdle", 2);
+        }
+
+        if (yamlConfiguration.get("Pool.ConnectionTimeoutMillis") == null) {
+            yamlConfiguration.set("Pool.ConnectionTimeoutMillis", 5000);
+        }
+
+        if (yamlConfiguration.get("Pool.QueueCapacity") == null) {
+            yamlConfiguration.set("Pool.QueueCapacity", 256);
+        }
+
+        if (yamlConfiguration.get("Pool.OperationTimeoutMillis") == null) {
+            yamlConfiguration.set("Pool.OperationTimeoutMillis", 10000);
+        }
+
+        if (yamlConfiguration.get("Replica.Enabled") == null) {
+            yamlConfiguration.set("Replica.Enabled", false);
+        }
+
+        if (getReplicaHostAddress() == null) {
+            yamlConfiguration.set("Replica.HostAddress", "127.0.0.1");
+        }
+
+        if (yamlConfiguration.get("Replica.Port") == null) {
+            yamlConfiguration.set("Replica.Port", 3307);
+        }
+
+        if (getReplicaUsername() == null) {
+            yamlConfiguration.set("Replica.Username", "development");
+        }
+
+        if (getReplicaDatabaseName() == null) {
+            yamlConfiguration.set("Replica.DatabaseName", "tntrun");
+        }
+
+        if (getReplicaSecret() == null) {
+            yamlConfiguration.set("Replica.Secret", "1234");
+        }
+
+        if (yamlConfiguration.get("Retention.Enabled") == null) {
+            yamlConfiguration.set("Retention.Enabled", false);
+        }
+
+        if (yamlConfiguration.get("Retention.InactiveDays") == null) {
+            yamlConfiguration.set("Retention.InactiveDays", 365);
+        }
+
+        if (yamlConfiguration.get("Retention.ArchiveRows") == null) {
+            yamlConfiguration.set("Retention.ArchiveRows", true);
+        }
+
+        if (yamlConfiguration.get("Windows.TimeZone") == null) {
+            yamlConfiguration.set("Windows.TimeZone", "UTC");
+        }
+
+        if (yamlConfiguration.get("Cluster.Enabled") == null) {
+            yamlConfiguration.set("Cluster.Enabled", false);
+        }
+
+        if (yamlConfiguration.get("Cluster.PollIntervalMillis") == null) {
+            yamlConfiguration.set("Cluster.PollIntervalMillis", 2000);
+        }
+
         saveDatabaseConfiguration();
     }
 
@@ -2,36 +2,41 @@ package de.will_smith_007.tntrun.managers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.arena.Arena;
 import de.will_smith_007.tntrun.schedulers.LobbyCountdownScheduler;
 import lombok.NonNull;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
-
-import java.util.Collection;
 
 /**
- * Manages some game mechanics automatically such as starting or stopping the start countdown if there are or aren't
- * enough players to start.
+ * Manages some game mechanics of an {@link Arena} automatically such as starting or stopping the start countdown
+ * if there are or aren't enough players to start.
  */
 @Singleton
 public class GameManager {
 
+    private final Arena arena;
+    private final ArenaManager arenaManager;
     private final LobbyCountdownScheduler lobbyCountdownScheduler;
+    private final BroadcastManager broadcastManager;
 
     @Inject
-    public GameManager(@NonNull LobbyCountdownScheduler lobbyCountdownScheduler) {
+    public GameManager(@NonNull Arena arena,
+                       @NonNull ArenaManager arenaManager,
+                       @NonNull LobbyCountdownScheduler lobbyCountdownScheduler,
+                       @NonNull BroadcastManager broadcastManager) {
+        this.arena = arena;
+        this.arenaManager = arenaManager;
         this.lobbyCountdownScheduler = lobbyCountdownScheduler;
+        this.broadcastManager = broadcastManager;
     }
 
     /**
      * Starts the game start countdown only if there are enough players to play this game.
-     * <br> The game requires a minimum of two players.
+     * <br> The game requires a minimum of two players and a game map which isn't used by another arena.
      */
     public void startCountdownIfEnoughPlayers() {
         if (lobbyCountdownScheduler.isRunning()) return;
-        final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
-        if (onlinePlayers.size() < 2) return;
+        if (arena.getPlayerCount() < 2) return;
+        if (!arenaManager.hasFreeGameMap()) return;
         lobbyCountdownScheduler.start();
     }
 
@@ -52,19 +57,15 @@ public class GameManager {
      * Cancels the start countdown only if there aren't enough players to play this game.
      * <br> The game requires a minimum of two players.
      *
-     * @param players Amount of current players on the game server.
+     * @param players Amount of current players in the arena.
      */
     public void cancelCountdownIfNotEnoughPlayers(int players) {
         if (!lobbyCountdownScheduler.isRunning()) return;
 
-        final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
-
         if (players < 2) {
-            onlinePlayers.forEach(player -> {
-                player.sendPlainMessage(Message.PREFIX + "§cThe countdown was cancelled because the game needs " +
-                        "a minimum of §e2 players §cto start.");
-                player.setLevel(0);
-            });
+            broadcastManager.broadcast("§cThe countdown was cancelled because the game needs " +
+                    "a minimum of §e2 players §cto start.");
+            arena.getPlayers().forEach(player -> player.setLevel(0));
             lobbyCountdownScheduler.stop();
         }
     }
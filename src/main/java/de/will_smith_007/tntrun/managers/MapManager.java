@@ -2,17 +2,31 @@ package de.will_smith_007.tntrun.managers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.game_config.MapConfiguration;
+import de.will_smith_007.tntrun.game_config.MapRegistry;
 import lombok.NonNull;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,13 +34,22 @@ import java.util.logging.Logger;
  * The {@link MapManager} is used to save important information about game maps and the waiting lobby map in a file.
  * These data is e.g. the spawn locations for game maps and the waiting lobby map and a general list of game maps.
  * Also holds the name of the configured waiting lobby map.
+ * <br> <br>
+ * The configuration file is only read once. All information is held in an immutable {@link MapRegistry}, which
+ * is replaced on every change, so that reads don't need any lock. Changes are written to the file asynchronously
+ * and multiple changes within a short time are written together.
  */
 @Singleton
 public class MapManager {
 
+    private static final long SAVE_DELAY_MILLIS = 1000L;
+
     private final Logger logger;
-    private final File mapConfig;
-    private final YamlConfiguration yamlConfiguration;
+    private final Path mapConfigPath;
+    private final Path temporaryMapConfigPath;
+    private final AtomicBoolean isSaveScheduled = new AtomicBoolean();
+    private final Object saveLock = new Object();
+    private volatile MapRegistry mapRegistry;
 
     /**
      * Creates the "MapConfig.yml" file in the directory of this plugin.
@@ -40,7 +63,9 @@ public class MapManager {
 
         final File mapConfigDirectory = new File(javaPlugin.getDataFolder().getPath());
         final String configName = "MapConfig.yml";
-        this.mapConfig = new File(mapConfigDirectory, configName);
+        final File mapConfig = new File(mapConfigDirectory, configName);
+        this.mapConfigPath = mapConfig.toPath();
+        this.temporaryMapConfigPath = new File(mapConfigDirectory, configName + ".tmp").toPath();
 
         if (mapConfigDirectory.mkdirs()) {
             logger.info("World configuration directory was created.");
@@ -56,16 +81,16 @@ public class MapManager {
             }
         }
 
-        yamlConfiguration = YamlConfiguration.loadConfiguration(mapConfig);
+        this.mapRegistry = loadMapRegistry(YamlConfiguration.loadConfiguration(mapConfig));
     }
 
     /**
      * Gets a list of configured and added game maps.
      *
-     * @return The list of configured game maps. Is empty if there isn't any configured game map yet.
+     * @return The unmodifiable list of configured game maps. Is empty if there isn't any configured game map yet.
      */
     public @NonNull List<String> getMapList() {
-        return yamlConfiguration.getStringList("Maps");
+        return mapRegistry.gameMaps();
     }
 
     /**
@@ -75,7 +100,7 @@ public class MapManager {
      * Returns null if there isn't a configured lobby map.
      */
     public String getWaitingMapName() {
-        return yamlConfiguration.getString("WaitingMap");
+        return mapRegistry.waitingMapName();
     }
 
     /**
@@ -101,13 +126,19 @@ public class MapManager {
 
         if (world == null) return null;
 
-        final double x = yamlConfiguration.getInt(mapName + ".X");
-        final double y = yamlConfiguration.getInt(mapName + ".Y");
-        final double z = yamlConfiguration.getInt(mapName + ".Z");
-        final float yaw = (float) yamlConfiguration.getDouble(mapName + ".Yaw");
-        final float pitch = (float) yamlConfiguration.getDouble(mapName + ".Pitch");
+        return getMapSpawnPoint(mapName, world);
+    }
 
-        return new Location(world, x, y, z, yaw, pitch);
+    /**
+     * Gets the spawn location of a configured map in the specified world. This is used for copies of a game map,
+     * which have another name than the configured map.
+     *
+     * @param mapName Name of map from which the location should be searched.
+     * @param world   World in which the spawn location is.
+     * @return The location of the configured map in the specified world.
+     */
+    public @NonNull Location getMapSpawnPoint(@NonNull String mapName, @NonNull World world) {
+        return mapRegistry.getMapConfiguration(mapName).toSpawnLocation(world);
     }
 
     /**
@@ -118,7 +149,7 @@ public class MapManager {
      * Returns 0 if there couldn't be found a valid death height configuration for this map.
      */
     public int getDeathHeight(@NonNull String mapName) {
-        return yamlConfiguration.getInt(mapName + ".DeathHeight");
+        return mapRegistry.getMapConfiguration(mapName).deathHeight();
     }
 
     /**
@@ -127,14 +158,14 @@ public class MapManager {
      * @param mapName Name of game map which should be added to the pool.
      */
     public void addMap(@NonNull String mapName) {
-        final List<String> mapList = getMapList();
+        if (mapRegistry.gameMaps().contains(mapName)) return;
 
-        if (mapList.contains(mapName)) return;
-        mapList.add(mapName);
+        updateMapRegistry(registry -> {
+            final List<String> mapList = registry.copyGameMaps();
+            mapList.add(mapName);
+            return registry.withGameMaps(mapList);
+        });
 
-        yamlConfiguration.set("Maps", mapList);
-
-        saveMapConfiguration();
         logger.log(Level.INFO, "The map named {0} was added.", mapName);
     }
 
@@ -144,14 +175,14 @@ public class MapManager {
      * @param mapName Name of map which should be removed from the pool.
      */
     public void removeMap(@NonNull String mapName) {
-        final List<String> mapList = getMapList();
-
-        if (!mapList.contains(mapName)) return;
-        mapList.remove(mapName);
+        if (!mapRegistry.gameMaps().contains(mapName)) return;
 
-        yamlConfiguration.set("Maps", mapList);
+        updateMapRegistry(registry -> {
+            final List<String> mapList = registry.copyGameMaps();
+            mapList.remove(mapName);
+            return registry.withGameMaps(mapList);
+        });
 
-        saveMapConfiguration();
         logger.log(Level.INFO, "The map named {0} was removed.", mapName);
     }
 
@@ -161,9 +192,7 @@ public class MapManager {
      * @param mapName Name of waiting lobby map which should be set.
      */
     public void setWaitingMap(@NonNull String mapName) {
-        yamlConfiguration.set("WaitingMap", mapName);
-
-        saveMapConfiguration();
+        updateMapRegistry(registry -> registry.withWaitingMapName(mapName));
 
         logger.log(Level.INFO, "Waiting map was set to {0}", mapName);
     }
@@ -175,13 +204,8 @@ public class MapManager {
      * @param spawnLocation Location for the map spawn which should be set.
      */
     public void setMapSpawnPoint(@NonNull String mapName, @NonNull Location spawnLocation) {
-        yamlConfiguration.set(mapName + ".X", spawnLocation.getBlockX());
-        yamlConfiguration.set(mapName + ".Y", spawnLocation.getBlockY());
-        yamlConfiguration.set(mapName + ".Z", spawnLocation.getBlockZ());
-        yamlConfiguration.set(mapName + ".Yaw", spawnLocation.getYaw());
-        yamlConfiguration.set(mapName + ".Pitch", spawnLocation.getPitch());
-
-        saveMapConfiguration();
+        updateMapRegistry(registry -> registry.withMapConfiguration(mapName,
+                registry.getMapConfiguration(mapName).withSpawnLocation(spawnLocation)));
 
         logger.log(Level.INFO, "The map spawn point for \"{0}\" was set.", mapName);
     }
@@ -193,22 +217,110 @@ public class MapManager {
      * @param deathHeight Death height of the game map which should be set.
      */
     public void setDeathHeight(@NonNull String mapName, int deathHeight) {
-        yamlConfiguration.set(mapName + ".DeathHeight", deathHeight);
-
-        saveMapConfiguration();
+        updateMapRegistry(registry -> registry.withMapConfiguration(mapName,
+                registry.getMapConfiguration(mapName).withDeathHeight(deathHeight)));
 
         final Object[] objects = {mapName, deathHeight};
         logger.log(Level.INFO, "The death height for \"{0}\" was set to {1}", objects);
     }
 
     /**
-     * Saves the map configuration file and is only used if all set operations were made.
+     * Writes the map configuration file immediately if there are changes which weren't written yet.
+     *
+     * @apiNote This should be used if the plugin is disabled, because scheduled writes could be lost otherwise.
+     */
+    public void flushMapConfiguration() {
+        if (isSaveScheduled.getAndSet(false)) {
+            saveMapConfiguration();
+            return;
+        }
+
+        //Waits until a write which is already running has finished.
+        synchronized (saveLock) {
+            logger.fine("The map configuration is up to date.");
+        }
+    }
+
+    /**
+     * Publishes a changed map registry and schedules the write of the map configuration file.
+     * Changes within {@link #SAVE_DELAY_MILLIS} are written together.
+     *
+     * @param registryUpdate The function which creates the changed registry of the current registry.
+     */
+    private synchronized void updateMapRegistry(@NonNull UnaryOperator<MapRegistry> registryUpdate) {
+        mapRegistry = registryUpdate.apply(mapRegistry);
+
+        if (!isSaveScheduled.compareAndSet(false, true)) return;
+
+        CompletableFuture.runAsync(() -> {
+            if (!isSaveScheduled.getAndSet(false)) return;
+            saveMapConfiguration();
+        }, CompletableFuture.delayedExecutor(SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Writes the current map registry into a temporary file, which replaces the map configuration file afterwards.
+     * This way the map configuration file is never written partially.
      */
     private void saveMapConfiguration() {
-        try {
-            yamlConfiguration.save(mapConfig);
-        } catch (IOException ioException) {
-            ioException.printStackTrace();
+        synchronized (saveLock) {
+            final String serializedMapConfig = toYamlConfiguration(mapRegistry).saveToString();
+
+            try {
+                Files.writeString(temporaryMapConfigPath, serializedMapConfig, StandardCharsets.UTF_8);
+
+                try {
+                    Files.move(temporaryMapConfigPath, mapConfigPath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException atomicMoveNotSupportedException) {
+                    Files.move(temporaryMapConfigPath, mapConfigPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException ioException) {
+                logger.log(Level.SEVERE, "The map configuration couldn't be saved.", ioException);
+            }
         }
     }
+
+    private static @NonNull MapRegistry loadMapRegistry(@NonNull YamlConfiguration yamlConfiguration) {
+        final Map<String, MapConfiguration> mapConfigurations = new HashMap<>();
+
+        for (String mapName : yamlConfiguration.getKeys(false)) {
+            final ConfigurationSection mapSection = yamlConfiguration.getConfigurationSection(mapName);
+
+            if (mapSection == null) continue;
+
+            mapConfigurations.put(mapName, new MapConfiguration(
+                    mapSection.getInt("X"),
+                    mapSection.getInt("Y"),
+                    mapSection.getInt("Z"),
+                    (float) mapSection.getDouble("Yaw"),
+                    (float) mapSection.getDouble("Pitch"),
+                    mapSection.getInt("DeathHeight")
+            ));
+        }
+
+        return new MapRegistry(yamlConfiguration.getStringList("Maps"),
+                yamlConfiguration.getString("WaitingMap"), mapConfigurations);
+    }
+
+    private static @NonNull YamlConfiguration toYamlConfiguration(@NonNull MapRegistry mapRegistry) {
+        final YamlConfiguration yamlConfiguration = new YamlConfiguration();
+
+        yamlConfiguration.set("Maps", mapRegistry.gameMaps());
+
+        if (mapRegistry.waitingMapName() != null) {
+            yamlConfiguration.set("WaitingMap", mapRegistry.waitingMapName());
+        }
+
+        mapRegistry.mapConfigurations().forEach((mapName, mapConfiguration) -> {
+            yamlConfiguration.set(mapName + ".X", mapConfiguration.spawnX());
+            yamlConfiguration.set(mapName + ".Y", mapConfiguration.spawnY());
+            yamlConfiguration.set(mapName + ".Z", mapConfiguration.spawnZ());
+            yamlConfiguration.set(mapName + ".Yaw", mapConfiguration.spawnYaw());
+            yamlConfiguration.set(mapName + ".Pitch", mapConfiguration.spawnPitch());
+            yamlConfiguration.set(mapName + ".DeathHeight", mapConfiguration.deathHeight());
+        });
+
+        return yamlConfiguration;
+    }
 }
@@ -0,0 +1,263 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link MapTemplateManager} uses the configured game maps as read only templates. Every game is played on
+ * its own copy of the template, which is called an instance world and deleted after the game.
+ * <br> <br>
+ * The world folder of the template is copied asynchronously with file channel transfers. Files which aren't
+ * needed by an instance world, such as the player data, the statistics, the advancements, the session lock and
+ * the world uid, are skipped.
+ * <br> <br>
+ * Every instance world folder contains a marker file, so that only folders which were created by this manager
+ * are deleted as leftovers after a restart.
+ */
+@Singleton
+public class MapTemplateManager {
+
+    private static final String INSTANCE_WORLD_PREFIX = "tntrun_";
+    private static final Pattern INSTANCE_WORLD_PATTERN = Pattern.compile("tntrun_.+_(\\d+)");
+    private static final String INSTANCE_MARKER_FILE = "tntrun_instance";
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of("playerdata", "stats", "advancements");
+    private static final Set<String> SKIPPED_FILES = Set.of("session.lock", "uid.dat", INSTANCE_MARKER_FILE);
+
+    private final Logger logger;
+    private final Path worldContainer;
+    private final AtomicInteger nextInstanceID = new AtomicInteger(1);
+    private final Set<World> instanceWorlds = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Inject
+    public MapTemplateManager(@NonNull JavaPlugin javaPlugin) {
+        this.logger = javaPlugin.getLogger();
+        this.worldContainer = Bukkit.getWorldContainer().toPath();
+    }
+
+    /**
+     * Copies the world folder of the specified game map into a new instance world folder asynchronously.
+     * If the template world is loaded, it's saved and unloaded before, so that the copy contains all chunks.
+     *
+     * @param mapName Name of the game map which is used as template.
+     * @return A {@link CompletableFuture} which contains the name of the instance world. It's completed
+     * exceptionally if the template couldn't be copied or the loaded template world couldn't be unloaded.
+     * @apiNote This method must be called on the main thread.
+     */
+    public @NonNull CompletableFuture<String> cloneTemplateAsync(@NonNull String mapName) {
+        final World templateWorld = Bukkit.getWorld(mapName);
+
+        //Unloading flushes the saved chunks to the region files, a loaded world may still hold them in memory.
+        if (templateWorld != null && !Bukkit.unloadWorld(templateWorld, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("The template world named \"" +
+                    mapName + "\" is loaded and couldn't be unloaded."));
+        }
+
+        final String instanceWorldName = INSTANCE_WORLD_PREFIX + mapName + "_" + nextInstanceID.getAndIncrement();
+        final Path templateDirectory = worldContainer.resolve(mapName);
+        final Path instanceDirectory = worldContainer.resolve(instanceWorldName);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                //The marker is created first, so that a folder which is only copied partially is deleted too.
+                Files.createDirectories(instanceDirectory);
+                Files.createFile(instanceDirectory.resolve(INSTANCE_MARKER_FILE));
+
+                copyWorldDirectory(templateDirectory, instanceDirectory);
+                return instanceWorldName;
+            } catch (IOException ioException) {
+                deleteWorldDirectory(instanceDirectory);
+                throw new CompletionException(ioException);
+            }
+        });
+    }
+
+    /**
+     * Loads the instance world with the specified name.
+     *
+     * @param instanceWorldName Name of the instance world which was created by {@link #cloneTemplateAsync(String)}.
+     * @return The loaded instance world. Returns null if the world couldn't be loaded.
+     * @apiNote This method must be called on the main thread.
+     */
+    public World loadInstance(@NonNull String instanceWorldName) {
+        final World instanceWorld = Bukkit.createWorld(new WorldCreator(instanceWorldName));
+
+        if (instanceWorld == null) {
+            deleteWorldDirectoryAsync(worldContainer.resolve(instanceWorldName));
+            return null;
+        }
+
+        //The instance world is deleted after the game, saving it would only cost time.
+        instanceWorld.setAutoSave(false);
+        instanceWorlds.add(instanceWorld);
+        return instanceWorld;
+    }
+
+    /**
+     * Checks if the specified world is an instance world of a game map template.
+     *
+     * @param world The world which should be checked.
+     * @return True if the world is an instance world, which is deleted after the game.
+     */
+    public boolean isInstance(@NonNull World world) {
+        return instanceWorlds.contains(world);
+    }
+
+    /**
+     * Unloads the specified instance world without saving and deletes its folder asynchronously.
+     *
+     * @param instanceWorld The instance world which should be removed.
+     * @apiNote This method must be called on the main thread and the world mustn't contain any players.
+     */
+    public void disposeInstance(@NonNull World instanceWorld) {
+        if (!instanceWorlds.contains(instanceWorld)) return;
+
+        final String instanceWorldName = instanceWorld.getName();
+
+        //A world which is still loaded remains an instance, so that it's never used as a template.
+        if (!Bukkit.unloadWorld(instanceWorld, false)) {
+            logger.warning("The instance world named \"" + instanceWorldName + "\" couldn't be unloaded.");
+            return;
+        }
+
+        instanceWorlds.remove(instanceWorld);
+        deleteWorldDirectoryAsync(worldContainer.resolve(instanceWorldName));
+    }
+
+    /**
+     * Deletes the folder of an instance world which wasn't loaded, e.g. because the start countdown was cancelled
+     * while the template was copied.
+     *
+     * @param instanceWorldName Name of the instance world which should be deleted.
+     */
+    public void disposeInstance(@NonNull String instanceWorldName) {
+        final World instanceWorld = Bukkit.getWorld(instanceWorldName);
+
+        if (instanceWorld != null) {
+            disposeInstance(instanceWorld);
+            return;
+        }
+
+        deleteWorldDirectoryAsync(worldContainer.resolve(instanceWorldName));
+    }
+
+    private void copyWorldDirectory(@NonNull Path templateDirectory,
+                                    @NonNull Path instanceDirectory) throws IOException {
+        if (!Files.isDirectory(templateDirectory)) {
+            throw new NoSuchFileException(templateDirectory.toString(), null, "The template isn't a directory.");
+        }
+
+        Files.walkFileTree(templateDirectory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory,
+                                                     BasicFileAttributes attributes) throws IOException {
+                if (SKIPPED_DIRECTORIES.contains(directory.getFileName().toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                Files.createDirectories(instanceDirectory.resolve(templateDirectory.relativize(directory)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (SKIPPED_FILES.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+
+                copyFile(file, instanceDirectory.resolve(templateDirectory.relativize(file)), attributes.size());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Copies a file with a file channel transfer, which lets the operating system copy the data
+     * without passing it through the java heap.
+     */
+    private void copyFile(@NonNull Path source, @NonNull Path target, long size) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE_NEW,
+                     StandardOpenOption.WRITE)) {
+            long position = 0;
+
+            while (position < size) {
+                final long transferredBytes = sourceChannel.transferTo(position, size - position, targetChannel);
+
+                if (transferredBytes <= 0) break;
+                position += transferredBytes;
+            }
+        }
+    }
+
+    private void deleteWorldDirectoryAsync(@NonNull Path worldDirectory) {
+        CompletableFuture.runAsync(() -> deleteWorldDirectory(worldDirectory));
+    }
+
+    private void deleteWorldDirectory(@NonNull Path worldDirectory) {
+        if (!Files.exists(worldDirectory)) return;
+
+        try {
+            Files.walkFileTree(worldDirectory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path directory, IOException exception) throws IOException {
+                    Files.delete(directory);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ioException) {
+            logger.log(Level.WARNING, "The world folder \"" + worldDirectory + "\" couldn't be deleted.", ioException);
+        }
+    }
+
+    /**
+     * Deletes all instance world folders which weren't deleted because the server was stopped during a game.
+     * Only folders with the marker file of an instance world are deleted, other worlds are never touched.
+     * The ids of new instance worlds start after the highest leftover id, because the folders are deleted
+     * asynchronously.
+     *
+     * @apiNote This method should be called once when the plugin is enabled, before any game starts.
+     */
+    public void deleteLeftoverInstances() {
+        final File[] worldDirectories = worldContainer.toFile().listFiles(File::isDirectory);
+
+        if (worldDirectories == null) return;
+
+        for (File worldDirectory : worldDirectories) {
+            final String worldName = worldDirectory.getName();
+            final Matcher instanceWorldMatcher = INSTANCE_WORLD_PATTERN.matcher(worldName);
+
+            if (!instanceWorldMatcher.matches()) continue;
+            if (!Files.isRegularFile(worldDirectory.toPath().resolve(INSTANCE_MARKER_FILE))) continue;
+            if (Bukkit.getWorld(worldName) != null) continue;
+
+            final int instanceID = Integer.parseInt(instanceWorldMatcher.group(1));
+            nextInstanceID.accumulateAndGet(instanceID + 1, Math::max);
+
+            logger.info("Deleting the leftover instance world named \"" + worldName + "\"...");
+            deleteWorldDirectoryAsync(worldDirectory.toPath());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.game_stats.MapAverages;
+import de.will_smith_007.tntrun.game_stats.MatchHistoryEntry;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@link MatchHistoryManager} returns the last games of a player and the averages of a game map.
+ * The history of every game with the placement and the survived time of all participants is written to the
+ * {@link de.will_smith_007.tntrun.stats_journal.StatsJournal} together with the statistics of the game and
+ * saved by the {@link de.will_smith_007.tntrun.stats_journal.StatsJournalReplayer}.
+ *
+ * @apiNote Only works on MySQL and MariaDB databases.
+ */
+@Singleton
+public class MatchHistoryManager {
+
+    private final MySQL statsSQL;
+    private final StatsManager statsManager;
+
+    @Inject
+    public MatchHistoryManager(@NonNull MySQL statsSQL,
+                               @NonNull StatsManager statsManager) {
+        this.statsSQL = statsSQL;
+        this.statsManager = statsManager;
+    }
+
+    /**
+     * Gets the last games of the specified player asynchronously, the newest game comes first.
+     *
+     * @param playerUUID The UUID of the player from which the games should be returned.
+     * @param maxEntries The maximum amount of returned games.
+     * @return A {@link CompletableFuture} which contains the last games of the player.
+     * Returns an empty list if the database is disabled or the player hasn't played the game before.
+     */
+    public @NonNull CompletableFuture<List<MatchHistoryEntry>> getRecentMatchesAsync(@NonNull UUID playerUUID,
+                                                                                    int maxEntries) {
+        if (!statsManager.isDatabaseEnabled()) return CompletableFuture.completedFuture(List.of());
+
+        //Read from the primary database, because the last game of the player may have just been saved.
+        return statsManager.getMigratedSchemaAsync().thenCompose(schemaVersion -> statsSQL.queryAsync(connection -> {
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT matchPlayer.mapName, matchPlayer.placement, matchPlayer.survivedTime, " +
+                            "matchPlayer.endedAt, matches.participants FROM tntrun_match_player matchPlayer " +
+                            "JOIN tntrun_match matches ON matches.matchId = matchPlayer.matchId " +
+                            "WHERE matchPlayer.uuid= ? ORDER BY matchPlayer.endedAt DESC LIMIT ?")) {
+                preparedStatement.setBytes(1, UUIDConverter.toBytes(playerUUID));
+                preparedStatement.setInt(2, maxEntries);
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                final List<MatchHistoryEntry> matchHistoryEntries = new ArrayList<>();
+                while (resultSet.next()) {
+                    matchHistoryEntries.add(new MatchHistoryEntry(
+                            resultSet.getString("mapName"),
+                            resultSet.getInt("placement"),
+                            resultSet.getInt("participants"),
+                            resultSet.getLong("survivedTime"),
+                            resultSet.getLong("endedAt")));
+                }
+                return matchHistoryEntries;
+            }
+        }));
+    }
+
+    /**
+     * Gets the averages of all games which were played on the specified game map asynchronously.
+     *
+     * @param mapName The name of the game map.
+     * @return A {@link CompletableFuture} which contains the averages of the map. Returns null if the database
+     * is disabled or nobody has played on the map.
+     */
+    public @NonNull CompletableFuture<MapAverages> getMapAveragesAsync(@NonNull String mapName) {
+        if (!statsManager.isDatabaseEnabled()) return CompletableFuture.completedFuture(null);
+
+        return statsManager.getMigratedSchemaAsync().thenCompose(schemaVersion -> statsSQL.readAsync(connection -> {
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT COUNT(*) AS matches, AVG(durationMillis) AS averageDuration, " +
+                            "AVG(participants) AS averageParticipants FROM tntrun_match WHERE mapName= ?")) {
+                preparedStatement.setString(1, mapName);
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                if (!resultSet.next() || resultSet.getLong("matches") == 0L) return null;
+
+                return new MapAverages(resultSet.getLong("matches"),
+                        resultSet.getLong("averageDuration"),
+                        resultSet.getDouble("averageParticipants"));
+            }
+        }));
+    }
+}
@@ -0,0 +1,262 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.mysql.StatsChangeLog;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link StatsChangeFeedManager} reads the changes of the {@link StatsChangeLog} in the background, so that
+ * the cached statistics and the rank index of this server are refreshed if a player has played on another server
+ * which shares the same database. Only the changed players are refreshed.
+ * <br> <br>
+ * Every poll reads the changes after the last read change id by a range scan of the primary key. Change ids
+ * are assigned before the transactions commit, so a missing id may still be committed later. The last read id
+ * stops in front of such a gap until the gap is filled or {@link #GAP_TIMEOUT_MILLIS} have passed. Afterwards
+ * the missing ids are skipped, but read again by every poll until {@link #SKIPPED_CHANGE_TIMEOUT_MILLIS} have
+ * passed, so that a slow transaction which commits late isn't lost.
+ */
+@Singleton
+public class StatsChangeFeedManager {
+
+    private static final int MAX_CHANGES_PER_POLL = 1000;
+    //Changes of this duration before the start are read again, so that changes which commit late aren't missed.
+    private static final long START_LOOKBACK_MILLIS = 60_000L;
+    private static final long GAP_TIMEOUT_MILLIS = 10_000L;
+    //Far longer than a transaction of the statistics takes, even if it waits for the lock wait timeout of InnoDB.
+    private static final long SKIPPED_CHANGE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10L);
+    private static final int MAX_SKIPPED_CHANGES = 10_000;
+    private static final long MIN_POLL_INTERVAL_MILLIS = 100L;
+    private static final long CHANGE_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1L);
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1L);
+    private static final int PRUNE_CHUNK_SIZE = 1000;
+
+    private final MySQL statsSQL;
+    private final StatsManager statsManager;
+    private final StatsChangeLog statsChangeLog;
+    private final Logger logger;
+    private final boolean isClusterEnabled;
+    private final long pollIntervalMillis;
+    private ScheduledExecutorService changeFeedScheduler;
+
+    //Only used by the thread of the change feed.
+    private final Map<Long, Long> skippedChangeIds = new LinkedHashMap<>();
+    private long lastChangeId = -1L, gapSinceMillis, lastPruneMillis;
+
+    @Inject
+    public StatsChangeFeedManager(@NonNull DatabaseFileManager databaseFileManager,
+                                  @NonNull MySQL statsSQL,
+                                  @NonNull StatsManager statsManager,
+                                  @NonNull StatsChangeLog statsChangeLog,
+                                  @NonNull Logger logger) {
+        this.statsSQL = statsSQL;
+        this.statsManager = statsManager;
+        this.statsChangeLog = statsChangeLog;
+        this.logger = logger;
+        this.isClusterEnabled = statsChangeLog.isEnabled();
+        this.pollIntervalMillis = Math.max(MIN_POLL_INTERVAL_MILLIS,
+                databaseFileManager.getClusterPollIntervalMillis());
+    }
+
+    /**
+     * Starts to read the changes of other servers in the background. Nothing happens if the cluster option
+     * is disabled.
+     */
+    public void start() {
+        if (!isClusterEnabled || changeFeedScheduler != null) return;
+
+        changeFeedScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "TNTRun-Stats-Change-Feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        changeFeedScheduler.scheduleWithFixedDelay(this::pollChanges, pollIntervalMillis, pollIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops to read the changes of other servers.
+     */
+    public void shutdown() {
+        if (changeFeedScheduler != null) changeFeedScheduler.shutdownNow();
+    }
+
+    private void pollChanges() {
+        final CompletableFuture<Integer> schemaMigration = statsManager.getSchemaMigration();
+
+        //The change log is created by the schema migration.
+        if (!schemaMigration.isDone() || schemaMigration.isCompletedExceptionally()) return;
+
+        try {
+            if (lastChangeId < 0L) lastChangeId = statsSQL.query(this::getStartChangeId);
+
+            //Full polls are continued immediately, so that large imports don't fall behind.
+            boolean hasMoreChanges;
+            do {
+                hasMoreChanges = statsSQL.query(this::readChanges);
+            } while (hasMoreChanges && !Thread.currentThread().isInterrupted());
+
+            statsSQL.query(this::readSkippedChanges);
+
+            final long currentTimeMillis = System.currentTimeMillis();
+            if (currentTimeMillis - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) {
+                lastPruneMillis = currentTimeMillis;
+                statsSQL.query(this::pruneChanges);
+            }
+        } catch (SQLException sqlException) {
+            logger.log(Level.WARNING, "The changes of the statistics couldn't be read.", sqlException);
+        }
+    }
+
+    /**
+     * Gets the change id from which the changes are read after the start. The change is found by a single
+     * lookup of the index on the change time.
+     *
+     * @return The id of the last change before the lookback. Returns 0 if there isn't such a change.
+     */
+    private long getStartChangeId(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT changeId FROM tntrun_change WHERE changedAt < ? ORDER BY changedAt DESC LIMIT 1")) {
+            preparedStatement.setLong(1, System.currentTimeMillis() - START_LOOKBACK_MILLIS);
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getLong("changeId") : 0L;
+        }
+    }
+
+    /**
+     * Reads the changes after the last read change id and refreshes the changed players.
+     *
+     * @return True if the maximum amount of changes was read and the last read id was moved,
+     * so that more changes may be waiting.
+     */
+    private boolean readChanges(@NonNull Connection connection) throws SQLException {
+        final Set<UUID> changedPlayers = new LinkedHashSet<>();
+        final List<Long> missingChangeIds = new ArrayList<>();
+        long lastReadChangeId = lastChangeId;
+        int changeCount = 0;
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT changeId, uuid FROM tntrun_change WHERE changeId > ? ORDER BY changeId LIMIT ?")) {
+            preparedStatement.setLong(1, lastChangeId);
+            preparedStatement.setInt(2, MAX_CHANGES_PER_POLL);
+            final ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                final long changeId = resultSet.getLong("changeId");
+                changedPlayers.add(UUIDConverter.fromBytes(resultSet.getBytes("uuid")));
+
+                //Changes behind a gap are refreshed again by the next polls, which doesn't change the result.
+                for (long missingChangeId = lastReadChangeId + 1; missingChangeId < changeId
+                        && missingChangeIds.size() < MAX_SKIPPED_CHANGES; missingChangeId++) {
+                    missingChangeIds.add(missingChangeId);
+                }
+
+                lastReadChangeId = changeId;
+                changeCount++;
+            }
+        }
+
+        if (changedPlayers.isEmpty()) return false;
+
+        //The statistics are read from the primary database, the replica may not contain the changes yet.
+        statsManager.refreshChangedPlayers(changedPlayers,
+                statsChangeLog.getSavedStatistics(connection, changedPlayers));
+
+        long readChangeId = (missingChangeIds.isEmpty() ? lastReadChangeId : missingChangeIds.get(0) - 1L);
+
+        if (missingChangeIds.isEmpty()) {
+            gapSinceMillis = 0L;
+        } else if (gapSinceMillis == 0L) {
+            gapSinceMillis = System.currentTimeMillis();
+        } else if (System.currentTimeMillis() - gapSinceMillis >= GAP_TIMEOUT_MILLIS) {
+            //The missing ids belong to transactions which were rolled back or are still running.
+            for (long missingChangeId : missingChangeIds) {
+                if (skippedChangeIds.size() >= MAX_SKIPPED_CHANGES) break;
+                skippedChangeIds.putIfAbsent(missingChangeId, gapSinceMillis);
+            }
+            readChangeId = lastReadChangeId;
+            gapSinceMillis = 0L;
+        }
+
+        final boolean isMoved = readChangeId > lastChangeId;
+        lastChangeId = readChangeId;
+        return isMoved && changeCount == MAX_CHANGES_PER_POLL;
+    }
+
+    /**
+     * Reads the skipped change ids again and refreshes the players of the changes which were committed in the
+     * meantime. Skipped ids are forgotten after {@link #SKIPPED_CHANGE_TIMEOUT_MILLIS}, because their
+     * transactions were rolled back.
+     */
+    private Void readSkippedChanges(@NonNull Connection connection) throws SQLException {
+        final long currentTimeMillis = System.currentTimeMillis();
+        skippedChangeIds.values().removeIf(skippedSinceMillis ->
+                currentTimeMillis - skippedSinceMillis >= SKIPPED_CHANGE_TIMEOUT_MILLIS);
+
+        final List<Long> changeIds = List.copyOf(skippedChangeIds.keySet());
+
+        for (int fromIndex = 0; fromIndex < changeIds.size(); fromIndex += MAX_CHANGES_PER_POLL) {
+            final List<Long> chunkChangeIds = changeIds.subList(fromIndex,
+                    Math.min(changeIds.size(), fromIndex + MAX_CHANGES_PER_POLL));
+            final Set<UUID> changedPlayers = new LinkedHashSet<>();
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT changeId, uuid FROM tntrun_change WHERE changeId IN (?" +
+                            ", ?".repeat(chunkChangeIds.size() - 1) + ")")) {
+                int parameterIndex = 1;
+                for (long changeId : chunkChangeIds) {
+                    preparedStatement.setLong(parameterIndex++, changeId);
+                }
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                while (resultSet.next()) {
+                    skippedChangeIds.remove(resultSet.getLong("changeId"));
+                    changedPlayers.add(UUIDConverter.fromBytes(resultSet.getBytes("uuid")));
+                }
+            }
+
+            if (changedPlayers.isEmpty()) continue;
+
+            statsManager.refreshChangedPlayers(changedPlayers,
+                    statsChangeLog.getSavedStatistics(connection, changedPlayers));
+        }
+        return null;
+    }
+
+    /**
+     * Deletes the changes which are older than {@link #CHANGE_RETENTION_MILLIS} in small chunks.
+     */
+    private Void pruneChanges(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "DELETE FROM tntrun_change WHERE changedAt < ? ORDER BY changedAt LIMIT ?")) {
+            preparedStatement.setLong(1, System.currentTimeMillis() - CHANGE_RETENTION_MILLIS);
+            preparedStatement.setInt(2, PRUNE_CHUNK_SIZE);
+
+            while (preparedStatement.executeUpdate() == PRUNE_CHUNK_SIZE) {
+                if (Thread.currentThread().isInterrupted()) break;
+            }
+        }
+        return null;
+    }
+}
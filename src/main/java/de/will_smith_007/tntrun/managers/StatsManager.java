@@ -1,110 +1,253 @@
 package de.will_smith_007.tntrun.managers;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.enums.StatsWindow;
 import de.will_smith_007.tntrun.game_stats.GameStatistics;
+import de.will_smith_007.tntrun.game_stats.LeaderboardEntry;
+import de.will_smith_007.tntrun.game_stats.MatchRecord;
+import de.will_smith_007.tntrun.game_stats.MatchStats;
+import de.will_smith_007.tntrun.game_stats.WinRankIndex;
 import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.mysql.SQLFunction;
+import de.will_smith_007.tntrun.mysql.SchemaMigrator;
+import de.will_smith_007.tntrun.stats_journal.StatsJournal;
+import de.will_smith_007.tntrun.stats_journal.StatsJournalReplayer;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
 import lombok.Getter;
 import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The {@link StatsManager} saves and gets all game statistics of the players if the database is enabled.
+ * The statistics of a game are buffered in a {@link MatchStats} and written to the {@link StatsJournal} when the
+ * game ends, from which they're saved in the database in the background.
+ * Loaded statistics are cached, since they only change at the end of a game.
  *
  * @apiNote Only works on MySQL and MariaDB databases.
  */
 @Singleton
 public class StatsManager {
 
+    private static final int STATISTICS_CACHE_SIZE = 10_000;
+    private static final long STATISTICS_CACHE_EXPIRATION_MINUTES = 30L;
+    private static final long REPLICA_LAG_SECONDS = 60L;
+    private static final long MIN_RANK_INDEX_RETRY_DELAY_MILLIS = 1000L;
+    private static final long MAX_RANK_INDEX_RETRY_DELAY_MILLIS = 60_000L;
+    private static final long MIN_MIGRATION_RETRY_DELAY_MILLIS = 1000L;
+    private static final long MAX_MIGRATION_RETRY_DELAY_MILLIS = 60_000L;
+
     @Getter
     private final boolean databaseEnabled;
     private final MySQL statsSQL;
+    private final SchemaMigrator schemaMigrator;
+    private final StatsJournal statsJournal;
+    private final StatsJournalReplayer statsJournalReplayer;
+    private final Logger logger;
+    private final ZoneId windowTimeZone;
+    private final Set<MatchStats> pendingMatchStats = ConcurrentHashMap.newKeySet();
+    private final Set<CompletableFuture<Void>> runningWrites = ConcurrentHashMap.newKeySet();
+    private final Object rankIndexLock = new Object();
+    //Replaced by a completely loaded index, so that a load never mixes with the changes of the replay.
+    private volatile WinRankIndex winRankIndex = new WinRankIndex();
+    //The wins which were changed while the rank index is loaded, removed players have null wins.
+    private Map<UUID, Integer> rankIndexChanges;
+    private int runningRankIndexLoads;
+    //An empty optional is cached for players who haven't played the game before.
+    private final Cache<UUID, Optional<GameStatistics>> gameStatisticsCache = CacheBuilder.newBuilder()
+            .maximumSize(STATISTICS_CACHE_SIZE)
+            .expireAfterWrite(STATISTICS_CACHE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .build();
+    //Players whose statistics were saved recently are read from the primary database, the replica may lag behind.
+    //The value is the refresh sequence of the last refresh, so that loads which started before aren't cached.
+    private final Cache<UUID, Long> recentlySavedPlayers = CacheBuilder.newBuilder()
+            .maximumSize(STATISTICS_CACHE_SIZE)
+            .expireAfterWrite(REPLICA_LAG_SECONDS, TimeUnit.SECONDS)
+            .build();
+    private final AtomicLong refreshSequence = new AtomicLong();
+    private volatile long invalidationSequence;
+    //Completed by the first successful migration, a failed migration is retried until it succeeds.
+    @Getter
+    private final CompletableFuture<Integer> schemaMigration = new CompletableFuture<>();
+    private final CompletableFuture<Void> winRankIndexLoading;
+    private volatile boolean isJournalReady, isMigrationRetrying, isRankIndexLoaded, isShutdown;
 
     @Inject
     public StatsManager(@NonNull DatabaseFileManager databaseFileManager,
-                        @NonNull MySQL statsSQL) {
+                        @NonNull MySQL statsSQL,
+                        @NonNull SchemaMigrator schemaMigrator,
+                        @NonNull StatsJournal statsJournal,
+                        @NonNull StatsJournalReplayer statsJournalReplayer,
+                        @NonNull Logger logger) {
         this.statsSQL = statsSQL;
+        this.schemaMigrator = schemaMigrator;
+        this.statsJournal = statsJournal;
+        this.statsJournalReplayer = statsJournalReplayer;
+        this.logger = logger;
         this.databaseEnabled = databaseFileManager.isDatabaseEnabled();
+        this.windowTimeZone = databaseFileManager.getWindowTimeZone();
+
+        if (!databaseEnabled) {
+            this.schemaMigration.complete(0);
+            this.winRankIndexLoading = CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        //All queries wait for the migration, because they require the newest schema.
+        migrateSchemaAsync(MIN_MIGRATION_RETRY_DELAY_MILLIS);
+        this.winRankIndexLoading = schemaMigration.thenCompose(schemaVersion -> loadWinRankIndexAsync());
 
-        if (databaseEnabled)
-            statsSQL.update("CREATE TABLE IF NOT EXISTS tntrun(uuid VARCHAR(64) PRIMARY KEY, " +
-                    "wins INT(11) DEFAULT 0, loses INT(11) DEFAULT 0, longestSurvivedTime BIGINT(20) DEFAULT 0);");
+        try {
+            statsJournal.open();
+        } catch (IOException ioException) {
+            logger.log(Level.SEVERE, "The stats journal couldn't be opened, statistics won't be saved.", ioException);
+            return;
+        }
+
+        //The saved statistics of replayed records replace the cached statistics and the wins of the rank index.
+        schemaMigration.thenCompose(schemaVersion -> winRankIndexLoading.handle((unused, throwable) -> null))
+                .thenRun(() -> {
+                    isJournalReady = true;
+                    statsJournalReplayer.start(savedStatistics ->
+                            refreshChangedPlayers(savedStatistics.keySet(), savedStatistics));
+                });
     }
 
     /**
-     * Adds a game win for the specified player {@link UUID} asynchronously.
-     * Nothing happens if the database is disabled.
+     * Gets the schema migration for operations which shouldn't wait for the retries of a failed migration,
+     * such as the queries of a command.
      *
-     * @param playerUUID The UUID of the player to which the win should be added.
+     * @return A {@link CompletableFuture} which contains the schema version. While a failed migration is retried,
+     * it's completed exceptionally.
      */
-    public void addGameWinAsync(@NonNull UUID playerUUID) {
-        if (!databaseEnabled) return;
-        statsSQL.preparedStatementAsync("INSERT INTO tntrun(uuid, wins) VALUES (?, ?) ON DUPLICATE KEY " +
-                "UPDATE wins= wins + 1;").thenAccept(preparedStatement -> {
-            try {
-                preparedStatement.setString(1, playerUUID.toString());
-                preparedStatement.setInt(2, 1);
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-            } catch (SQLException sqlException) {
-                sqlException.printStackTrace();
-            }
-        });
+    public @NonNull CompletableFuture<Integer> getMigratedSchemaAsync() {
+        if (schemaMigration.isDone() || !isMigrationRetrying) return schemaMigration;
+        return CompletableFuture.failedFuture(new SQLException("The database schema isn't migrated yet."));
     }
 
     /**
-     * Adds a game lose for the specified player {@link UUID} asynchronously.
-     * Nothing happens if the database is disabled.
+     * Creates the buffer for the statistics of a new game. The buffer is written to the database by
+     * {@link #flushMatchStatsAsync(MatchStats)} when the game ends.
      *
-     * @param playerUUID The UUID of the player to which the loss should be added.
+     * @return A new and empty buffer for the statistics of a game.
      */
-    public void addGameLoseAsync(@NonNull UUID playerUUID) {
-        if (!databaseEnabled) return;
-        statsSQL.preparedStatementAsync("INSERT INTO tntrun(uuid, loses) VALUES (?, ?) ON DUPLICATE KEY " +
-                "UPDATE loses= loses + 1;").thenAccept(preparedStatement -> {
-            try {
-                preparedStatement.setString(1, playerUUID.toString());
-                preparedStatement.setInt(2, 1);
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-            } catch (SQLException sqlException) {
-                sqlException.printStackTrace();
-            }
-        });
+    public @NonNull MatchStats createMatchStats() {
+        final MatchStats matchStats = new MatchStats();
+        if (databaseEnabled) pendingMatchStats.add(matchStats);
+        return matchStats;
     }
 
     /**
-     * Updates the longest survived time milliseconds only if the specified milliseconds are higher
-     * than the saved milliseconds for the player {@link UUID} in the database asynchronously.
+     * Writes all buffered statistics of a game asynchronously into the {@link StatsJournal}, from which they're
+     * saved in the database in the background. Wins and loses are added to the saved values and the longest
+     * survived time is only updated if it's higher than the saved milliseconds.
      * <br> <br>
-     * Nothing happens if the database is disabled or if the saved milliseconds are higher than
-     * the specified milliseconds.
+     * Nothing happens if the database is disabled, the buffer is empty or was already written.
      *
-     * @param playerUUID         The UUID of the player which should be used to update.
-     * @param survivedTimeMillis The survived milliseconds from the previous played game.
+     * @param matchStats The buffered statistics of the game which has ended.
+     * @apiNote The buffer mustn't be changed anymore after calling this method.
      */
-    public void updateLongestSurvivedTimeAsync(@NonNull UUID playerUUID, long survivedTimeMillis) {
-        if (!databaseEnabled) return;
-        statsSQL.preparedStatementAsync("INSERT INTO tntrun(uuid, longestSurvivedTime) VALUES (?, ?) ON " +
-                        "DUPLICATE KEY UPDATE longestSurvivedTime= IF(longestSurvivedTime < ?, ?, longestSurvivedTime);")
-                .thenAccept(preparedStatement -> {
-                    try {
-                        preparedStatement.setString(1, playerUUID.toString());
-                        preparedStatement.setLong(2, survivedTimeMillis);
-                        preparedStatement.setLong(3, survivedTimeMillis);
-                        preparedStatement.setLong(4, survivedTimeMillis);
-                        preparedStatement.executeUpdate();
-                        preparedStatement.close();
-                    } catch (SQLException sqlException) {
-                        sqlException.printStackTrace();
-                    }
+    public void flushMatchStatsAsync(@NonNull MatchStats matchStats) {
+        flushMatchStatsAsync(matchStats, null);
+    }
+
+    /**
+     * Writes all buffered statistics and the history of a game asynchronously into the {@link StatsJournal},
+     * so that the history isn't lost while the database isn't reachable either. The history is skipped if
+     * nobody was placed in the game.
+     *
+     * @param matchStats  The buffered statistics of the game which has ended.
+     * @param matchRecord The history of the game, or null if the history shouldn't be saved.
+     * @apiNote The buffer mustn't be changed anymore after calling this method.
+     * @see #flushMatchStatsAsync(MatchStats)
+     */
+    public void flushMatchStatsAsync(@NonNull MatchStats matchStats, @Nullable MatchRecord matchRecord) {
+        if (!databaseEnabled || !pendingMatchStats.remove(matchStats)) return;
+
+        //The per-player counters are only copied once, together with the other statistics of the game.
+        matchStats.collectCounters();
+
+        final MatchRecord savedMatchRecord = (matchRecord == null || matchRecord.eliminations().isEmpty() ?
+                null : matchRecord);
+
+        if (matchStats.isEmpty() && savedMatchRecord == null) return;
+
+        //The game thread only waits until the records are queued, the database is never awaited.
+        final CompletableFuture<Void> runningWrite = statsJournal.appendAsync(matchStats, savedMatchRecord)
+                .thenRun(statsJournalReplayer::requestReplay)
+                .exceptionally(throwable -> {
+                    logger.log(Level.SEVERE, "The statistics of a game couldn't be written to the journal.", throwable);
+                    return null;
                 });
+
+        runningWrites.add(runningWrite);
+        runningWrite.whenComplete((unused, throwable) -> runningWrites.remove(runningWrite));
+    }
+
+    /**
+     * Writes the buffered statistics of all games which weren't written yet into the journal and tries to save
+     * the journal in the database, but not longer than the specified timeout. Statistics which couldn't be saved
+     * remain in the journal and are saved after the next start.
+     *
+     * @param timeoutMillis The maximum milliseconds to wait for the running writes.
+     * @apiNote This should be used if the plugin is disabled, before the database connection is closed.
+     */
+    public void drainPendingWrites(long timeoutMillis) {
+        if (!databaseEnabled) return;
+
+        //Failed migrations and loads of the rank index aren't retried anymore.
+        isShutdown = true;
+
+        final long deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+
+        for (MatchStats matchStats : List.copyOf(pendingMatchStats)) {
+            flushMatchStatsAsync(matchStats);
+        }
+
+        try {
+            CompletableFuture.allOf(runningWrites.toArray(CompletableFuture[]::new))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException timeoutException) {
+            final Object[] objects = {runningWrites.size(), timeoutMillis};
+            logger.log(Level.WARNING, "{0} journal writes didn''t finish within {1} ms and may be lost.", objects);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException executionException) {
+            logger.log(Level.SEVERE, "The statistics couldn't be written to the journal.", executionException);
+        }
+
+        if (isJournalReady) {
+            statsJournalReplayer.drain(Math.max(0L, deadlineMillis - System.currentTimeMillis()));
+        }
+        //Retries of the replay would hit the closed database and keep this plugin instance alive.
+        statsJournalReplayer.stop();
+        statsJournal.close();
     }
 
     /**
@@ -116,57 +259,79 @@ public class StatsManager {
      */
     public CompletableFuture<GameStatistics> getGameStatisticsAsync(@NonNull UUID playerUUID) {
         if (!databaseEnabled) return null;
-        return statsSQL.preparedStatementAsync("SELECT * FROM tntrun WHERE uuid= ?")
-                .thenApply(preparedStatement -> {
-                    try {
-                        preparedStatement.setString(1, playerUUID.toString());
-                        final ResultSet resultSet = preparedStatement.executeQuery();
 
-                        if (resultSet.next()) {
-                            final int playerGameWins = resultSet.getInt("wins");
-                            final int playerGameLoses = resultSet.getInt("loses");
-                            final long longestSurvivedTimeMillis = resultSet.getLong("longestSurvivedTime");
+        final Optional<GameStatistics> cachedGameStatistics = gameStatisticsCache.getIfPresent(playerUUID);
 
-                            preparedStatement.close();
+        if (cachedGameStatistics != null) return CompletableFuture.completedFuture(cachedGameStatistics.orElse(null));
 
-                            return new GameStatistics(playerGameWins, playerGameLoses, longestSurvivedTimeMillis);
-                        }
+        //The sequence when the statement starts, refreshes after it may not be contained in the result.
+        final AtomicLong loadSequence = new AtomicLong();
+        final SQLFunction<GameStatistics> statisticsQuery = connection -> {
+            loadSequence.set(refreshSequence.get());
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT wins, loses, longestSurvivedTime FROM tntrun WHERE uuid= ?")) {
+                preparedStatement.setBytes(1, UUIDConverter.toBytes(playerUUID));
+                final ResultSet resultSet = preparedStatement.executeQuery();
 
-                        preparedStatement.close();
-                    } catch (SQLException sqlException) {
-                        sqlException.printStackTrace();
-                    }
-                    return null;
-                });
+                if (!resultSet.next()) return null;
+
+                final int playerGameWins = resultSet.getInt("wins");
+                final int playerGameLoses = resultSet.getInt("loses");
+                final long longestSurvivedTimeMillis = resultSet.getLong("longestSurvivedTime");
+
+                return new GameStatistics(playerGameWins, playerGameLoses, longestSurvivedTimeMillis);
+            }
+        };
+        final boolean isRecentlySaved = recentlySavedPlayers.getIfPresent(playerUUID) != null;
+
+        return getMigratedSchemaAsync().thenCompose(schemaVersion -> (isRecentlySaved ?
+                statsSQL.queryAsync(statisticsQuery) : statsSQL.readAsync(statisticsQuery))
+        ).thenApply(gameStatistics -> {
+            if (isRefreshedSince(playerUUID, loadSequence.get())) return gameStatistics;
+
+            //Statistics which were updated by a game in the meantime aren't replaced.
+            gameStatisticsCache.asMap().putIfAbsent(playerUUID, Optional.ofNullable(gameStatistics));
+            return gameStatistics;
+        }).exceptionally(throwable -> {
+            logger.log(Level.SEVERE, "The statistics of a player couldn't be loaded.", throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Loads the statistics of the specified player into the cache in the background, so that they can be
+     * returned without a database query later. Nothing happens if the statistics are already cached.
+     *
+     * @param playerUUID The UUID of the player whose statistics should be loaded.
+     */
+    public void prefetchGameStatistics(@NonNull UUID playerUUID) {
+        if (!databaseEnabled || gameStatisticsCache.getIfPresent(playerUUID) != null) return;
+        getGameStatisticsAsync(playerUUID);
     }
 
     /**
      * Gets the current rank of the specified player {@link UUID} asynchronously.
+     * The rank is answered by the in-memory {@link WinRankIndex} without a database query, as soon as
+     * the index was loaded. Players with the same amount of wins share the same rank.
      *
      * @param playerUUID The UUID of the player from which the rank should be returned.
      * @return A {@link CompletableFuture} which contains the current rank of the player.
      * Returns 0 if the database is disabled and returns -1 if the specified {@link UUID} hasn't
-     * played the game before.
+     * played the game before. It's completed exceptionally if the rank index wasn't loaded successfully yet,
+     * because the empty index would return a wrong rank.
      */
     public CompletableFuture<Integer> getPlayerRankingAsync(@NonNull UUID playerUUID) {
-        if (!databaseEnabled) return CompletableFuture.supplyAsync(() -> 0);
-        return statsSQL.preparedStatementAsync("SELECT uuid FROM tntrun ORDER BY wins DESC").thenApply(preparedStatement -> {
-            try {
-                final ArrayList<String> playerUUIDs = new ArrayList<>();
-                final ResultSet resultSet = preparedStatement.executeQuery();
+        if (!databaseEnabled) return CompletableFuture.completedFuture(0);
 
-                while (resultSet.next()) {
-                    playerUUIDs.add(resultSet.getString("uuid"));
-                }
+        //Doesn't wait for a failed migration, which is retried in the background.
+        final CompletableFuture<Void> rankIndexLoading = (isMigrationRetrying ?
+                CompletableFuture.completedFuture(null) : winRankIndexLoading.handle((unused, throwable) -> null));
 
-                preparedStatement.close();
-
-                //Collections.binarySearch doesn't work here because the list isn't sorted und shouldn't be sorted.
-                return (playerUUIDs.indexOf(playerUUID.toString()) + 1);
-            } catch (SQLException sqlException) {
-                sqlException.printStackTrace();
+        return rankIndexLoading.thenApply(unused -> {
+            if (!isRankIndexLoaded) {
+                throw new CompletionException(new IllegalStateException("The rank index isn't loaded yet."));
             }
-            return -1;
+            return winRankIndex.getRank(playerUUID);
         });
     }
 
@@ -176,27 +341,324 @@ public class StatsManager {
      * @param playerUUID The UUID of the player from which the rank should be returned.
      * @return The current rank of the player. Returns 0 if the database is disabled and
      * returns -1 if the specified {@link UUID} hasn't played the game before.
-     * @apiNote Is only used in asynchronously threads.
+     * @throws CompletionException If the rank index wasn't loaded successfully yet.
+     * @apiNote Is only used in asynchronously threads, because it waits until the rank index was loaded.
      */
     public int getPlayerRanking(@NonNull UUID playerUUID) {
-        if (!databaseEnabled) return 0;
-        final PreparedStatement preparedStatement = statsSQL.preparedStatement(
-                "SELECT uuid FROM tntrun ORDER BY wins DESC");
-        try {
-            final ArrayList<String> playerUUIDs = new ArrayList<>();
+        return getPlayerRankingAsync(playerUUID).join();
+    }
+
+    /**
+     * Discards all cached statistics and loads the rank index again. This is required after the statistics
+     * were changed in the database without the stats journal, such as by an import.
+     *
+     * @apiNote Games which are saved while the rank index is loaded are recorded and applied to the loaded index
+     * before it replaces the current index, so they're neither lost nor counted twice. A failed load is retried
+     * in the background.
+     */
+    public void reloadStatistics() {
+        if (!databaseEnabled) return;
+
+        //Loads which are still running may contain the statistics before the change.
+        invalidationSequence = refreshSequence.incrementAndGet();
+        gameStatisticsCache.invalidateAll();
+        //The loaded index replaces the current index, so players who were removed are dropped as well.
+        winRankIndexLoading.handle((unused, throwable) -> null)
+                .thenCompose(unused -> loadWinRankIndexAsync());
+    }
+
+    /**
+     * Removes the specified players from the rank index and the cached statistics, after their statistics
+     * were purged from the database.
+     *
+     * @param playerUUIDs The UUIDs of the purged players.
+     */
+    public void forgetPlayers(@NonNull Collection<UUID> playerUUIDs) {
+        for (UUID playerUUID : playerUUIDs) {
+            setRankIndexWins(playerUUID, null);
+            recentlySavedPlayers.put(playerUUID, refreshSequence.incrementAndGet());
+            gameStatisticsCache.invalidate(playerUUID);
+        }
+    }
+
+    /**
+     * Replaces the rank index entries and the cached statistics of the specified players with their saved
+     * statistics, after the statistics were changed in the database by this or another server.
+     * Players whose statistics aren't cached stay uncached.
+     * <br> <br>
+     * Only absolute values are applied, so a change which is refreshed by the {@link StatsJournalReplayer} and
+     * by the change feed isn't counted twice. Outdated values are replaced by the next refresh of the player.
+     *
+     * @param changedPlayers  The UUIDs of the changed players.
+     * @param savedStatistics The saved statistics of the changed players. Players without saved statistics,
+     *                        such as purged players, are missing.
+     */
+    public void refreshChangedPlayers(@NonNull Collection<UUID> changedPlayers,
+                                      @NonNull Map<UUID, GameStatistics> savedStatistics) {
+        if (!databaseEnabled) return;
+
+        //The index is loaded first, otherwise the loaded wins could replace the newer wins.
+        winRankIndexLoading.handle((unused, throwable) -> null).thenRun(() -> {
+            for (UUID playerUUID : changedPlayers) {
+                final GameStatistics gameStatistics = savedStatistics.get(playerUUID);
+                setRankIndexWins(playerUUID, (gameStatistics == null ? null : gameStatistics.playerGameWins()));
+
+                //The replica may not contain the change yet, so this player is read from the primary database.
+                recentlySavedPlayers.put(playerUUID, refreshSequence.incrementAndGet());
+                gameStatisticsCache.asMap().computeIfPresent(playerUUID, (uuid, cachedStatistics) ->
+                        Optional.ofNullable(gameStatistics));
+            }
+        });
+    }
+
+    /**
+     * Gets the players with the most wins in the current bucket of the specified time window asynchronously.
+     * Only the rows of the current bucket are read, in the order of the wins index.
+     *
+     * @param statsWindow The time window of the leaderboard.
+     * @param maxEntries  The maximum amount of returned players.
+     * @return A {@link CompletableFuture} which contains the leaderboard ordered by the rank.
+     * Returns an empty list if the database is disabled or nobody has played in the current bucket.
+     */
+    public @NonNull CompletableFuture<List<LeaderboardEntry>> getWindowLeaderboardAsync(
+            @NonNull StatsWindow statsWindow, int maxEntries) {
+        if (!databaseEnabled) return CompletableFuture.completedFuture(List.of());
+
+        final int bucket = statsWindow.getBucket(System.currentTimeMillis(), windowTimeZone);
+
+        return getMigratedSchemaAsync().thenCompose(schemaVersion -> statsSQL.readAsync(connection -> {
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT uuid, wins FROM tntrun_window WHERE windowType= ? AND bucket= ? " +
+                            "ORDER BY wins DESC LIMIT ?")) {
+                preparedStatement.setInt(1, statsWindow.getWindowType());
+                preparedStatement.setInt(2, bucket);
+                preparedStatement.setInt(3, maxEntries);
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                final List<LeaderboardEntry> leaderboardEntries = new ArrayList<>();
+                int rank = 0, previousWins = -1;
+
+                while (resultSet.next()) {
+                    final int wins = resultSet.getInt("wins");
+
+                    //Players with the same amount of wins share the rank of the first of them.
+                    if (wins != previousWins) rank = leaderboardEntries.size() + 1;
+                    previousWins = wins;
+
+                    leaderboardEntries.add(new LeaderboardEntry(rank,
+                            UUIDConverter.fromBytes(resultSet.getBytes("uuid")), wins));
+                }
+                return leaderboardEntries;
+            }
+        }));
+    }
+
+    /**
+     * Gets the rank of the specified player in the current bucket of the specified time window asynchronously.
+     *
+     * @param statsWindow The time window of the rank.
+     * @param playerUUID  The UUID of the player from which the rank should be returned.
+     * @return A {@link CompletableFuture} which contains the rank of the player. Returns 0 if the database is
+     * disabled and returns -1 if the player hasn't played in the current bucket.
+     */
+    public @NonNull CompletableFuture<Integer> getWindowRankingAsync(@NonNull StatsWindow statsWindow,
+                                                                     @NonNull UUID playerUUID) {
+        if (!databaseEnabled) return CompletableFuture.completedFuture(0);
+
+        final int bucket = statsWindow.getBucket(System.currentTimeMillis(), windowTimeZone);
+        final SQLFunction<Integer> rankingQuery = connection -> {
+            final int wins;
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT wins FROM tntrun_window WHERE windowType= ? AND bucket= ? AND uuid= ?")) {
+                preparedStatement.setInt(1, statsWindow.getWindowType());
+                preparedStatement.setInt(2, bucket);
+                preparedStatement.setBytes(3, UUIDConverter.toBytes(playerUUID));
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                if (!resultSet.next()) return -1;
+                wins = resultSet.getInt("wins");
+            }
+
+            //Counts the players with more wins by a range scan of the wins index of the bucket.
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT COUNT(*) FROM tntrun_window WHERE windowType= ? AND bucket= ? AND wins > ?")) {
+                preparedStatement.setInt(1, statsWindow.getWindowType());
+                preparedStatement.setInt(2, bucket);
+                preparedStatement.setInt(3, wins);
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                return resultSet.next() ? resultSet.getInt(1) + 1 : -1;
+            }
+        };
+        final boolean isRecentlySaved = recentlySavedPlayers.getIfPresent(playerUUID) != null;
+
+        return getMigratedSchemaAsync().thenCompose(schemaVersion -> (isRecentlySaved ?
+                statsSQL.queryAsync(rankingQuery) : statsSQL.readAsync(rankingQuery)));
+    }
+
+    /**
+     * Checks whether the statistics of the specified player were refreshed or invalidated after a load started.
+     * The result of such a load may be outdated, so it isn't cached.
+     *
+     * @param playerUUID   The UUID of the loaded player.
+     * @param loadSequence The refresh sequence when the load started.
+     * @return True if the loaded statistics may be outdated.
+     */
+    private boolean isRefreshedSince(@NonNull UUID playerUUID, long loadSequence) {
+        if (invalidationSequence > loadSequence) return true;
+
+        final Long playerRefreshSequence = recentlySavedPlayers.getIfPresent(playerUUID);
+        return playerRefreshSequence != null && playerRefreshSequence > loadSequence;
+    }
+
+    /**
+     * Migrates the database schema and completes {@link #schemaMigration} afterwards. If the migration fails,
+     * such as while the database isn't reachable, it's retried with an increasing delay in the background
+     * until it succeeds or the plugin is disabled.
+     *
+     * @param retryDelayMillis The delay of the next retry if this attempt fails.
+     */
+    private void migrateSchemaAsync(long retryDelayMillis) {
+        if (isShutdown) {
+            schemaMigration.completeExceptionally(new SQLException("The plugin was disabled before the database " +
+                    "schema was migrated."));
+            return;
+        }
+
+        schemaMigrator.migrateAsync().whenComplete((schemaVersion, throwable) -> {
+            if (throwable == null) {
+                isMigrationRetrying = false;
+                schemaMigration.complete(schemaVersion);
+                return;
+            }
+
+            if (isShutdown) {
+                schemaMigration.completeExceptionally(throwable);
+                return;
+            }
+
+            if (!isMigrationRetrying) {
+                isMigrationRetrying = true;
+                logger.log(Level.SEVERE, "The database schema couldn't be migrated.", throwable);
+            } else {
+                logger.log(Level.FINE, "The database schema couldn't be migrated.", throwable);
+            }
+
+            final Object[] objects = {retryDelayMillis / 1000L};
+            logger.log(Level.WARNING, "Statistics are paused until the database schema is migrated, retrying in " +
+                    "{0} seconds.", objects);
+
+            CompletableFuture.runAsync(() -> migrateSchemaAsync(Math.min(retryDelayMillis * 2L,
+                            MAX_MIGRATION_RETRY_DELAY_MILLIS)),
+                    CompletableFuture.delayedExecutor(retryDelayMillis, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    /**
+     * Sets the wins of the specified player in the rank index. The change is also recorded for the running
+     * loads of the rank index, so that it's applied to the loaded index before it replaces the current index.
+     *
+     * @param playerUUID The UUID of the player.
+     * @param wins       The wins of the player, or null if the player should be removed from the index.
+     */
+    private void setRankIndexWins(@NonNull UUID playerUUID, Integer wins) {
+        synchronized (rankIndexLock) {
+            if (wins == null) {
+                winRankIndex.remove(playerUUID);
+            } else {
+                winRankIndex.setWins(playerUUID, wins);
+            }
+
+            if (rankIndexChanges != null) rankIndexChanges.put(playerUUID, wins);
+        }
+    }
+
+    /**
+     * Loads the wins of all players into a new {@link WinRankIndex}, which replaces the current index afterwards.
+     * If the load fails, it's retried with an increasing delay in the background until it succeeds or
+     * the plugin is disabled.
+     *
+     * @return A {@link CompletableFuture} which is completed after the first attempt of the load. It's completed
+     * exceptionally if the first attempt failed.
+     */
+    private @NonNull CompletableFuture<Void> loadWinRankIndexAsync() {
+        synchronized (rankIndexLock) {
+            if (runningRankIndexLoads++ == 0) rankIndexChanges = new HashMap<>();
+        }
+        return loadWinRankIndexAsync(MIN_RANK_INDEX_RETRY_DELAY_MILLIS);
+    }
+
+    private @NonNull CompletableFuture<Void> loadWinRankIndexAsync(long retryDelayMillis) {
+        //A retry which was scheduled before the shutdown isn't executed on the closed database anymore.
+        if (isShutdown) {
+            finishRankIndexLoad(null);
+            return CompletableFuture.failedFuture(new SQLException("The plugin was disabled before the rank " +
+                    "index was loaded."));
+        }
+
+        //The load isn't limited by the operation timeout, because it reads all players.
+        return statsSQL.queryLongRunningAsync(this::loadWinRankIndex).whenComplete((unused, throwable) -> {
+            if (throwable == null) return;
+
+            if (isShutdown) {
+                finishRankIndexLoad(null);
+                return;
+            }
+
+            final Object[] objects = {retryDelayMillis / 1000L};
+            logger.log(Level.WARNING, "The rank index couldn''t be loaded, retrying in {0} seconds.", objects);
+            logger.log(Level.FINE, "The rank index couldn't be loaded.", throwable);
+
+            CompletableFuture.runAsync(() -> loadWinRankIndexAsync(Math.min(retryDelayMillis * 2L,
+                            MAX_RANK_INDEX_RETRY_DELAY_MILLIS)),
+                    CompletableFuture.delayedExecutor(retryDelayMillis, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    /**
+     * Loads the wins of all players into a new {@link WinRankIndex}. The rows are streamed from the primary
+     * database, so that they don't have to be held in memory at once.
+     */
+    private Void loadWinRankIndex(@NonNull Connection connection) throws SQLException {
+        final WinRankIndex loadedRankIndex = new WinRankIndex();
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT uuid, wins FROM tntrun", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            //Tells the MySQL driver to stream the rows one by one.
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
             final ResultSet resultSet = preparedStatement.executeQuery();
 
             while (resultSet.next()) {
-                playerUUIDs.add(resultSet.getString("uuid"));
+                loadedRankIndex.setWins(UUIDConverter.fromBytes(resultSet.getBytes("uuid")), resultSet.getInt("wins"));
             }
+        }
 
-            preparedStatement.close();
+        finishRankIndexLoad(loadedRankIndex);
+        logger.log(Level.INFO, "The rank index of {0} players was loaded.", loadedRankIndex.size());
+        return null;
+    }
+
+    /**
+     * Applies the changes which were recorded during the load to the loaded index and replaces the current
+     * index with it.
+     *
+     * @param loadedRankIndex The loaded index, or null if the load was given up.
+     */
+    private void finishRankIndexLoad(WinRankIndex loadedRankIndex) {
+        synchronized (rankIndexLock) {
+            if (loadedRankIndex != null) {
+                rankIndexChanges.forEach((playerUUID, wins) -> {
+                    if (wins == null) {
+                        loadedRankIndex.remove(playerUUID);
+                    } else {
+                        loadedRankIndex.setWins(playerUUID, wins);
+                    }
+                });
+                winRankIndex = loadedRankIndex;
+                isRankIndexLoaded = true;
+            }
 
-            //Collections.binarySearch doesn't work here because the list isn't sorted und shouldn't be sorted.
-            return (playerUUIDs.indexOf(playerUUID.toString()) + 1);
-        } catch (SQLException sqlException) {
-            sqlException.printStackTrace();
+            if (--runningRankIndexLoads == 0) rankIndexChanges = null;
         }
-        return -1;
     }
 }
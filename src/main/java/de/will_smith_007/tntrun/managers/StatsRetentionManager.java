@@ -0,0 +1,242 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.enums.StatsWindow;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.mysql.StatsChangeLog;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link StatsRetentionManager} purges the statistics of players who haven't played for the configured
+ * amount of days, so that the statistics table and its indexes don't grow forever. Purged rows are moved
+ * into the "tntrun_archive" table or deleted.
+ * <br> <br>
+ * The leaderboards of the time windows only read the current bucket, so the rollups of older buckets are deleted
+ * too, even if the retention of inactive players is disabled.
+ * <br> <br>
+ * The rows are purged in small chunks by the last played index or the primary key of the rollups, where every
+ * chunk is its own short transaction followed by a pause. This way the purge never locks the table for long and
+ * doesn't compete with the statistics of running games.
+ */
+@Singleton
+public class StatsRetentionManager {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final long CHUNK_PAUSE_MILLIS = 250L;
+    private static final long INITIAL_DELAY_MINUTES = 10L;
+    private static final long PURGE_INTERVAL_HOURS = 24L;
+
+    private final MySQL statsSQL;
+    private final StatsManager statsManager;
+    private final StatsChangeLog statsChangeLog;
+    private final Logger logger;
+    private final boolean isDatabaseEnabled, isRetentionEnabled, isArchiveEnabled;
+    private final long retentionMillis;
+    private final ZoneId windowTimeZone;
+    private ScheduledExecutorService purgeScheduler;
+
+    @Inject
+    public StatsRetentionManager(@NonNull DatabaseFileManager databaseFileManager,
+                                 @NonNull MySQL statsSQL,
+                                 @NonNull StatsManager statsManager,
+                                 @NonNull StatsChangeLog statsChangeLog,
+                                 @NonNull Logger logger) {
+        this.statsSQL = statsSQL;
+        this.statsManager = statsManager;
+        this.statsChangeLog = statsChangeLog;
+        this.logger = logger;
+        this.isDatabaseEnabled = databaseFileManager.isDatabaseEnabled();
+        this.isRetentionEnabled = databaseFileManager.isRetentionEnabled();
+        this.isArchiveEnabled = databaseFileManager.isArchiveEnabled();
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(1, databaseFileManager.getRetentionDays()));
+        this.windowTimeZone = databaseFileManager.getWindowTimeZone();
+    }
+
+    /**
+     * Starts to purge the statistics of inactive players and the rollups of past time window buckets
+     * in the background once a day. Inactive players are only purged if the retention is enabled.
+     * Nothing happens if the database is disabled.
+     */
+    public void start() {
+        if (!isDatabaseEnabled || purgeScheduler != null) return;
+
+        purgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "TNTRun-Stats-Retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        purgeScheduler.scheduleWithFixedDelay(this::purge,
+                TimeUnit.MINUTES.toMillis(INITIAL_DELAY_MINUTES), TimeUnit.HOURS.toMillis(PURGE_INTERVAL_HOURS),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background purge. A running purge is stopped after its current chunk.
+     */
+    public void shutdown() {
+        if (purgeScheduler != null) purgeScheduler.shutdownNow();
+    }
+
+    private void purge() {
+        final CompletableFuture<Integer> schemaMigration = statsManager.getSchemaMigration();
+
+        //The last played column and the rollup table are added by the schema migration.
+        if (!schemaMigration.isDone() || schemaMigration.isCompletedExceptionally()) return;
+
+        purgePastWindowBuckets();
+        if (isRetentionEnabled && !Thread.currentThread().isInterrupted()) purgeInactivePlayers();
+    }
+
+    private void purgePastWindowBuckets() {
+        final long currentTimeMillis = System.currentTimeMillis();
+        long purgedRows = 0L;
+
+        try {
+            for (StatsWindow statsWindow : StatsWindow.values()) {
+                final int currentBucket = statsWindow.getBucket(currentTimeMillis, windowTimeZone);
+
+                while (true) {
+                    final int purgedChunk = statsSQL.query(connection -> {
+                        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                                "DELETE FROM tntrun_window WHERE windowType= ? AND bucket < ? LIMIT ?")) {
+                            preparedStatement.setInt(1, statsWindow.getWindowType());
+                            preparedStatement.setInt(2, currentBucket);
+                            preparedStatement.setInt(3, CHUNK_SIZE);
+                            return preparedStatement.executeUpdate();
+                        }
+                    });
+                    purgedRows += purgedChunk;
+
+                    if (purgedChunk < CHUNK_SIZE) break;
+
+                    Thread.sleep(CHUNK_PAUSE_MILLIS);
+                }
+            }
+        } catch (SQLException sqlException) {
+            logger.log(Level.WARNING, "The rollups of past leaderboard buckets couldn't be purged.", sqlException);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (purgedRows == 0L) return;
+
+        logger.log(Level.INFO, "{0} rollups of past leaderboard buckets were deleted.", purgedRows);
+    }
+
+    private void purgeInactivePlayers() {
+        final long inactiveSince = System.currentTimeMillis() - retentionMillis;
+        long purgedPlayers = 0L;
+
+        try {
+            while (true) {
+                final List<UUID> purgedChunk = statsSQL.query(connection -> purgeChunk(connection, inactiveSince));
+                statsManager.forgetPlayers(purgedChunk);
+                purgedPlayers += purgedChunk.size();
+
+                if (purgedChunk.size() < CHUNK_SIZE) break;
+
+                //Gives the statistics of running games room between two chunks.
+                Thread.sleep(CHUNK_PAUSE_MILLIS);
+            }
+        } catch (SQLException sqlException) {
+            logger.log(Level.WARNING, "The statistics of inactive players couldn't be purged.", sqlException);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (purgedPlayers == 0L) return;
+
+        final Object[] objects = {purgedPlayers, (isArchiveEnabled ? "archived" : "deleted")};
+        logger.log(Level.INFO, "The statistics of {0} inactive players were {1}.", objects);
+    }
+
+    /**
+     * Purges the statistics of up to {@link #CHUNK_SIZE} players who haven't played since the specified time
+     * in a single transaction.
+     *
+     * @return The UUIDs of the purged players.
+     */
+    private @NonNull List<UUID> purgeChunk(@NonNull Connection connection, long inactiveSince) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            //Locks the rows of the chunk, so that a game which is saved at the same time waits for the purge.
+            final List<byte[]> playerUUIDBytes = new ArrayList<>();
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT uuid FROM tntrun WHERE lastPlayed < ? ORDER BY lastPlayed LIMIT ? FOR UPDATE")) {
+                preparedStatement.setLong(1, inactiveSince);
+                preparedStatement.setInt(2, CHUNK_SIZE);
+                final ResultSet resultSet = preparedStatement.executeQuery();
+
+                while (resultSet.next()) {
+                    playerUUIDBytes.add(resultSet.getBytes("uuid"));
+                }
+            }
+
+            if (playerUUIDBytes.isEmpty()) {
+                connection.commit();
+                return List.of();
+            }
+
+            final String placeholders = "?" + ", ?".repeat(playerUUIDBytes.size() - 1);
+
+            if (isArchiveEnabled) {
+                try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                        "INSERT INTO tntrun_archive(uuid, wins, loses, longestSurvivedTime, lastPlayed, " +
+                                "blocksBroken, distanceRun, airTime, afkRemovals, archivedAt) " +
+                                "SELECT uuid, wins, loses, longestSurvivedTime, lastPlayed, blocksBroken, " +
+                                "distanceRun, airTime, afkRemovals, ? FROM tntrun " +
+                                "WHERE uuid IN (" + placeholders + ") " +
+                                "ON DUPLICATE KEY UPDATE wins= VALUES(wins), loses= VALUES(loses), " +
+                                "longestSurvivedTime= VALUES(longestSurvivedTime), lastPlayed= VALUES(lastPlayed), " +
+                                "blocksBroken= VALUES(blocksBroken), distanceRun= VALUES(distanceRun), " +
+                                "airTime= VALUES(airTime), afkRemovals= VALUES(afkRemovals), " +
+                                "archivedAt= VALUES(archivedAt);")) {
+                    preparedStatement.setLong(1, System.currentTimeMillis());
+                    for (int index = 0; index < playerUUIDBytes.size(); index++) {
+                        preparedStatement.setBytes(index + 2, playerUUIDBytes.get(index));
+                    }
+                    preparedStatement.executeUpdate();
+                }
+            }
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "DELETE FROM tntrun WHERE uuid IN (" + placeholders + ")")) {
+                for (int index = 0; index < playerUUIDBytes.size(); index++) {
+                    preparedStatement.setBytes(index + 1, playerUUIDBytes.get(index));
+                }
+                preparedStatement.executeUpdate();
+            }
+
+            final List<UUID> purgedPlayers = new ArrayList<>(playerUUIDBytes.size());
+            playerUUIDBytes.forEach(uuidBytes -> purgedPlayers.add(UUIDConverter.fromBytes(uuidBytes)));
+
+            //Other servers remove the purged players by the change log.
+            statsChangeLog.append(connection, purgedPlayers);
+            connection.commit();
+            return purgedPlayers;
+        } catch (SQLException sqlException) {
+            connection.rollback();
+            throw sqlException;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package de.will_smith_007.tntrun.managers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.mysql.StatsChangeLog;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link StatsTransferManager} exports the statistics table into a CSV file and imports such a file again,
+ * so that the statistics can be backed up or moved to another database.
+ * <br> <br>
+ * Both transfers run on their own background thread, because they can take longer than the operation timeout
+ * of the database executor. The export streams the rows with a bounded fetch size and the import saves the rows
+ * in batches, each in its own transaction, so that neither holds the whole table in memory.
+ */
+@Singleton
+public class StatsTransferManager {
+
+    private static final String CSV_HEADER = "uuid,wins,loses,longestSurvivedTime,lastPlayed,blocksBroken," +
+            "distanceRun,airTime,afkRemovals";
+    //Exports of older versions only contain the first columns.
+    private static final String LEGACY_CSV_HEADER = "uuid,wins,loses,longestSurvivedTime";
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final long PROGRESS_INTERVAL_ROWS = 10_000L;
+
+    private final MySQL statsSQL;
+    private final StatsManager statsManager;
+    private final StatsChangeLog statsChangeLog;
+    private final Logger logger;
+    private final Path transferDirectory;
+    private final AtomicBoolean isTransferRunning = new AtomicBoolean();
+    private final ExecutorService transferExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "TNTRun-Stats-Transfer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Inject
+    public StatsTransferManager(@NonNull JavaPlugin javaPlugin,
+                                @NonNull MySQL statsSQL,
+                                @NonNull StatsManager statsManager,
+                                @NonNull StatsChangeLog statsChangeLog) {
+        this.statsSQL = statsSQL;
+        this.statsManager = statsManager;
+        this.statsChangeLog = statsChangeLog;
+        this.logger = javaPlugin.getLogger();
+        this.transferDirectory = javaPlugin.getDataFolder().toPath().resolve("transfers");
+    }
+
+    /**
+     * Checks if the specified name can be used as name of a transfer file.
+     *
+     * @param fileName The name of the file without the file extension.
+     * @return True if the name only contains letters, digits, underscores and hyphens.
+     */
+    public boolean isValidFileName(@NonNull String fileName) {
+        return FILE_NAME_PATTERN.matcher(fileName).matches();
+    }
+
+    /**
+     * Exports the statistics of all players asynchronously into the specified CSV file of the "transfers"
+     * directory of this plugin. The file is only replaced after all rows were written.
+     *
+     * @param fileName         The name of the file without the file extension.
+     * @param progressConsumer Receives the amount of exported rows every {@link #PROGRESS_INTERVAL_ROWS} rows.
+     * @return A {@link CompletableFuture} which contains the amount of exported rows. It's completed exceptionally
+     * if another transfer is running or the export failed.
+     */
+    public @NonNull CompletableFuture<Long> exportAsync(@NonNull String fileName,
+                                                        @NonNull LongConsumer progressConsumer) {
+        return runTransfer(fileName, transferFile -> statsSQL.query(connection -> {
+            try {
+                return export(connection, transferFile, progressConsumer);
+            } catch (IOException ioException) {
+                throw new CompletionException(ioException);
+            }
+        }));
+    }
+
+    /**
+     * Imports the statistics of the specified CSV file of the "transfers" directory of this plugin asynchronously.
+     * Saved statistics of the imported players are replaced, rows which can't be parsed are skipped. Files of older
+     * exports without the last played time and the counters can be imported too.
+     *
+     * @param fileName         The name of the file without the file extension.
+     * @param progressConsumer Receives the amount of imported rows after every {@link #PROGRESS_INTERVAL_ROWS} rows.
+     * @return A {@link CompletableFuture} which contains the amount of imported rows. It's completed exceptionally
+     * if another transfer is running, the file doesn't exist or a batch couldn't be saved. Batches which were saved
+     * before stay saved.
+     */
+    public @NonNull CompletableFuture<Long> importAsync(@NonNull String fileName,
+                                                        @NonNull LongConsumer progressConsumer) {
+        return runTransfer(fileName, transferFile -> {
+            try {
+                return importFile(transferFile, progressConsumer);
+            } catch (IOException ioException) {
+                throw new CompletionException(ioException);
+            } finally {
+                //Batches which were saved before a failure have changed the statistics too.
+                statsManager.reloadStatistics();
+            }
+        });
+    }
+
+    /**
+     * Stops the background thread of the transfers. A running transfer is interrupted.
+     */
+    public void shutdown() {
+        transferExecutor.shutdownNow();
+    }
+
+    private @NonNull CompletableFuture<Long> runTransfer(@NonNull String fileName, @NonNull Transfer transfer) {
+        if (!isValidFileName(fileName)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid file name: " + fileName));
+        }
+
+        if (!isTransferRunning.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another transfer is already running."));
+        }
+
+        final Path transferFile = transferDirectory.resolve(fileName + ".csv");
+
+        //The transfer waits for the schema migration, because it requires the binary UUIDs.
+        return statsManager.getMigratedSchemaAsync().thenApplyAsync(schemaVersion -> {
+            try {
+                return transfer.execute(transferFile);
+            } catch (SQLException sqlException) {
+                throw new CompletionException(sqlException);
+            }
+        }, transferExecutor).whenComplete((transferredRows, throwable) -> {
+            isTransferRunning.set(false);
+
+            if (throwable != null) {
+                logger.log(Level.WARNING, "The statistics transfer of " + transferFile + " failed.", throwable);
+            }
+        });
+    }
+
+    private long export(@NonNull Connection connection, @NonNull Path transferFile,
+                        @NonNull LongConsumer progressConsumer) throws SQLException, IOException {
+        Files.createDirectories(transferDirectory);
+
+        //Written into a temporary file first, so that an older export isn't destroyed by a failed export.
+        final Path temporaryFile = transferFile.resolveSibling(transferFile.getFileName() + ".tmp");
+        final long exportedRows;
+
+        try {
+            exportedRows = writeRows(connection, temporaryFile, progressConsumer);
+            Files.move(temporaryFile, transferFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException exception) {
+            Files.deleteIfExists(temporaryFile);
+            throw exception;
+        }
+
+        final Object[] objects = {exportedRows, transferFile};
+        logger.log(Level.INFO, "Exported the statistics of {0} players into {1}.", objects);
+        return exportedRows;
+    }
+
+    private long writeRows(@NonNull Connection connection, @NonNull Path temporaryFile,
+                           @NonNull LongConsumer progressConsumer) throws SQLException, IOException {
+        long exportedRows = 0L;
+
+        try (final BufferedWriter bufferedWriter = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8);
+             final PreparedStatement preparedStatement = connection.prepareStatement(
+                     "SELECT uuid, wins, loses, longestSurvivedTime, lastPlayed, blocksBroken, distanceRun, " +
+                             "airTime, afkRemovals FROM tntrun",
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            //Tells the MySQL driver to stream the rows one by one instead of loading the whole table.
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+            final ResultSet resultSet = preparedStatement.executeQuery();
+
+            bufferedWriter.write(CSV_HEADER);
+            bufferedWriter.newLine();
+
+            while (resultSet.next()) {
+                bufferedWriter.write(UUIDConverter.fromBytes(resultSet.getBytes("uuid")) + "," +
+                        resultSet.getInt("wins") + "," +
+                        resultSet.getInt("loses") + "," +
+                        resultSet.getLong("longestSurvivedTime") + "," +
+                        resultSet.getLong("lastPlayed") + "," +
+                        resultSet.getLong("blocksBroken") + "," +
+                        resultSet.getLong("distanceRun") + "," +
+                        resultSet.getLong("airTime") + "," +
+                        resultSet.getInt("afkRemovals"));
+                bufferedWriter.newLine();
+
+                if (++exportedRows % PROGRESS_INTERVAL_ROWS == 0L) progressConsumer.accept(exportedRows);
+            }
+        }
+        return exportedRows;
+    }
+
+    private long importFile(@NonNull Path transferFile, @NonNull LongConsumer progressConsumer)
+            throws IOException, SQLException {
+        if (!Files.isRegularFile(transferFile)) throw new IOException("The file " + transferFile + " doesn't exist.");
+
+        final StatsRow[] statsRows = new StatsRow[IMPORT_BATCH_SIZE];
+        long importedRows = 0L, skippedRows = 0L;
+        int batchSize = 0;
+
+        try (final BufferedReader bufferedReader = Files.newBufferedReader(transferFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                if (line.isBlank() || line.equals(CSV_HEADER) || line.equals(LEGACY_CSV_HEADER)) continue;
+
+                final StatsRow statsRow = StatsRow.parse(line);
+
+                if (statsRow == null) {
+                    skippedRows++;
+                    continue;
+                }
+
+                statsRows[batchSize++] = statsRow;
+
+                if (batchSize < IMPORT_BATCH_SIZE) continue;
+
+                saveBatch(statsRows, batchSize);
+                final long previousRows = importedRows;
+                importedRows += batchSize;
+                batchSize = 0;
+
+                if (importedRows / PROGRESS_INTERVAL_ROWS > previousRows / PROGRESS_INTERVAL_ROWS) {
+                    progressConsumer.accept(importedRows);
+                }
+            }
+        }
+
+        if (batchSize > 0) {
+            saveBatch(statsRows, batchSize);
+            importedRows += batchSize;
+        }
+
+        final Object[] objects = {importedRows, transferFile, skippedRows};
+        logger.log(Level.INFO, "Imported the statistics of {0} players from {1}, {2} invalid rows were skipped.",
+                objects);
+        return importedRows;
+    }
+
+    /**
+     * Saves the specified rows in a single transaction and replaces the saved statistics of these players.
+     */
+    private void saveBatch(StatsRow @NonNull [] statsRows, int batchSize) throws SQLException {
+        statsSQL.query(connection -> {
+            connection.setAutoCommit(false);
+            //Rows of older exports don't contain the last played time and the counters, so the saved ones are kept.
+            //A player who isn't saved yet counts as active, so that they aren't purged right after the import.
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "INSERT INTO tntrun(uuid, wins, loses, longestSurvivedTime, lastPlayed, blocksBroken, " +
+                            "distanceRun, airTime, afkRemovals) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                            "ON DUPLICATE KEY UPDATE wins= VALUES(wins), loses= VALUES(loses), " +
+                            "longestSurvivedTime= VALUES(longestSurvivedTime), " +
+                            "lastPlayed= GREATEST(lastPlayed, VALUES(lastPlayed)), " +
+                            "blocksBroken= VALUES(blocksBroken), distanceRun= VALUES(distanceRun), " +
+                            "airTime= VALUES(airTime), afkRemovals= VALUES(afkRemovals);");
+                 final PreparedStatement legacyStatement = connection.prepareStatement(
+                         "INSERT INTO tntrun(uuid, wins, loses, longestSurvivedTime, lastPlayed) " +
+                                 "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE wins= VALUES(wins), " +
+                                 "loses= VALUES(loses), longestSurvivedTime= VALUES(longestSurvivedTime);")) {
+                final long importedAt = System.currentTimeMillis();
+                final List<UUID> importedPlayers = new ArrayList<>(batchSize);
+                boolean hasRows = false, hasLegacyRows = false;
+
+                for (int index = 0; index < batchSize; index++) {
+                    final StatsRow statsRow = statsRows[index];
+                    final StatsCounters statsCounters = statsRow.statsCounters();
+                    final PreparedStatement rowStatement = (statsCounters == null ? legacyStatement :
+                            preparedStatement);
+
+                    importedPlayers.add(statsRow.playerUUID());
+                    rowStatement.setBytes(1, UUIDConverter.toBytes(statsRow.playerUUID()));
+                    rowStatement.setInt(2, statsRow.wins());
+                    rowStatement.setInt(3, statsRow.loses());
+                    rowStatement.setLong(4, statsRow.longestSurvivedTime());
+
+                    if (statsCounters == null) {
+                        rowStatement.setLong(5, importedAt);
+                        hasLegacyRows = true;
+                    } else {
+                        rowStatement.setLong(5, statsCounters.lastPlayed());
+                        rowStatement.setLong(6, statsCounters.blocksBroken());
+                        rowStatement.setLong(7, statsCounters.distanceRun());
+                        rowStatement.setLong(8, statsCounters.airTime());
+                        rowStatement.setInt(9, statsCounters.afkRemovals());
+                        hasRows = true;
+                    }
+                    rowStatement.addBatch();
+                }
+                if (hasRows) preparedStatement.executeBatch();
+                if (hasLegacyRows) legacyStatement.executeBatch();
+
+                //Other servers refresh the imported players by the change log.
+                statsChangeLog.append(connection, importedPlayers);
+                connection.commit();
+            } catch (SQLException sqlException) {
+                connection.rollback();
+                throw sqlException;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * A transfer which is executed on the background thread.
+     */
+    @FunctionalInterface
+    private interface Transfer {
+
+        long execute(@NonNull Path transferFile) throws SQLException;
+    }
+
+    /**
+     * A single row of the CSV file.
+     *
+     * @param statsCounters The last played time and the counters, or null if the row has the format of the
+     *                      {@link #LEGACY_CSV_HEADER}.
+     */
+    private record StatsRow(@NonNull UUID playerUUID, int wins, int loses, long longestSurvivedTime,
+                            @Nullable StatsCounters statsCounters) {
+
+        /**
+         * Parses a line of the CSV file.
+         *
+         * @param line The line in the format of the {@link #CSV_HEADER} or the {@link #LEGACY_CSV_HEADER}.
+         * @return The parsed row, or null if the line isn't valid.
+         */
+        private static StatsRow parse(@NonNull String line) {
+            final String[] columns = line.split(",", -1);
+
+            if (columns.length != 4 && columns.length != 9) return null;
+
+            try {
+                final int wins = Integer.parseInt(columns[1].trim());
+                final int loses = Integer.parseInt(columns[2].trim());
+                final long longestSurvivedTime = Long.parseLong(columns[3].trim());
+
+                if (wins < 0 || loses < 0 || longestSurvivedTime < 0L) return null;
+
+                StatsCounters statsCounters = null;
+
+                if (columns.length == 9 && (statsCounters = StatsCounters.parse(columns)) == null) return null;
+
+                return new StatsRow(UUID.fromString(columns[0].trim()), wins, loses, longestSurvivedTime,
+                        statsCounters);
+            } catch (IllegalArgumentException illegalArgumentException) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The columns of a row which were added after the {@link #LEGACY_CSV_HEADER}.
+     */
+    private record StatsCounters(long lastPlayed, long blocksBroken, long distanceRun, long airTime,
+                                 int afkRemovals) {
+
+        /**
+         * Parses the last columns of a line of the CSV file.
+         *
+         * @param columns The columns of the line in the format of the {@link #CSV_HEADER}.
+         * @return The parsed columns, or null if a column is negative.
+         * @throws NumberFormatException If a column isn't a number.
+         */
+        private static StatsCounters parse(String @NonNull [] columns) {
+            final long lastPlayed = Long.parseLong(columns[4].trim());
+            final long blocksBroken = Long.parseLong(columns[5].trim());
+            final long distanceRun = Long.parseLong(columns[6].trim());
+            final long airTime = Long.parseLong(columns[7].trim());
+            final int afkRemovals = Integer.parseInt(columns[8].trim());
+
+            if (lastPlayed < 0L || blocksBroken < 0L || distanceRun < 0L || airTime < 0L || afkRemovals < 0) {
+                return null;
+            }
+
+            return new StatsCounters(lastPlayed, blocksBroken, distanceRun, airTime, afkRemovals);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package de.will_smith_007.tntrun.mysql;
+
+import de.will_smith_007.tntrun.enums.CircuitState;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link CircuitBreaker} stops operations from waiting for an unreachable database.
+ * <br> <br>
+ * After {@link #FAILURE_THRESHOLD} connection failures in a row, the circuit is opened and all operations fail
+ * immediately. After {@link #OPEN_DURATION_MILLIS}, the circuit is half opened and a single operation may check
+ * if the database is reachable again. The circuit is closed after a successful operation and opened again
+ * after a failed one.
+ *
+ * @apiNote This circuit breaker is thread safe.
+ */
+public final class CircuitBreaker {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION_MILLIS = 10_000L;
+
+    private final String name;
+    private final Logger logger;
+    @Getter
+    private volatile CircuitState circuitState = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean isTrialRunning;
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param name   The name of the database in the logged state changes.
+     * @param logger Logger which should be used to log the state changes.
+     */
+    public CircuitBreaker(@NonNull String name, @NonNull Logger logger) {
+        this.name = name;
+        this.logger = logger;
+    }
+
+    /**
+     * Checks if an operation may be executed. If the circuit is open for longer than {@link #OPEN_DURATION_MILLIS},
+     * the circuit is half opened and the operation is the trial operation.
+     *
+     * @return True if the operation may be executed, false if it should fail immediately.
+     */
+    public synchronized boolean allowRequest() {
+        if (circuitState == CircuitState.OPEN &&
+                System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MILLIS)) {
+            changeCircuitState(CircuitState.HALF_OPEN);
+        }
+
+        final boolean isAllowed = switch (circuitState) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (isTrialRunning) yield false;
+                isTrialRunning = true;
+                yield true;
+            }
+        };
+
+        if (!isAllowed) rejections.incrementAndGet();
+        return isAllowed;
+    }
+
+    /**
+     * Checks if the circuit is open without starting a trial operation. This is used to reject operations
+     * before they're queued, a rejected operation is counted.
+     *
+     * @return True if the operation should fail immediately.
+     */
+    public synchronized boolean rejectIfOpen() {
+        final boolean isOpen = isOpen();
+
+        if (isOpen) rejections.incrementAndGet();
+        return isOpen;
+    }
+
+    /**
+     * Checks if the circuit is open and the {@link #OPEN_DURATION_MILLIS} haven't passed yet.
+     *
+     * @return True if all operations fail immediately at the moment.
+     */
+    public synchronized boolean isOpen() {
+        return circuitState == CircuitState.OPEN &&
+                System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MILLIS);
+    }
+
+    /**
+     * Records an operation which reached the database and closes the circuit.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        isTrialRunning = false;
+
+        if (circuitState != CircuitState.CLOSED) changeCircuitState(CircuitState.CLOSED);
+    }
+
+    /**
+     * Records an operation which couldn't reach the database. The circuit is opened if the failure threshold
+     * is reached or the trial operation failed.
+     */
+    public synchronized void recordFailure() {
+        failures.incrementAndGet();
+        consecutiveFailures++;
+        isTrialRunning = false;
+
+        if (circuitState == CircuitState.HALF_OPEN ||
+                (circuitState == CircuitState.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+            changeCircuitState(CircuitState.OPEN);
+        }
+    }
+
+    /**
+     * Gets the amount of operations which couldn't reach the database since the start.
+     *
+     * @return The amount of failed operations.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the amount of operations which failed immediately because the circuit was open.
+     *
+     * @return The amount of rejected operations.
+     */
+    public long getRejections() {
+        return rejections.get();
+    }
+
+    /**
+     * Checks if the specified exception means that the database isn't reachable. Other exceptions,
+     * such as syntax errors, show that the database is reachable.
+     *
+     * @param sqlException The exception which was thrown by an operation.
+     * @return True if the exception is a connection failure.
+     */
+    public static boolean isConnectionFailure(@NonNull SQLException sqlException) {
+        final String sqlState = sqlException.getSQLState();
+        return sqlState == null || sqlState.startsWith("08");
+    }
+
+    private void changeCircuitState(@NonNull CircuitState newCircuitState) {
+        final Object[] objects = {name, circuitState, newCircuitState};
+        logger.log(newCircuitState == CircuitState.OPEN ? Level.WARNING : Level.INFO,
+                "The {0} circuit changed from {1} to {2}.", objects);
+
+        circuitState = newCircuitState;
+        if (newCircuitState == CircuitState.OPEN) openedAtNanos = System.nanoTime();
+    }
+}
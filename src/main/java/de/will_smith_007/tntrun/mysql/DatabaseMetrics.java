@@ -0,0 +1,37 @@
+package de.will_smith_007.tntrun.mysql;
+
+import de.will_smith_007.tntrun.enums.CircuitState;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The {@link DatabaseMetrics} is a snapshot of the load of the database executor, the connection pool and
+ * the state of the circuit breaker.
+ *
+ * @param queuedOperations    Operations which are waiting for a free executor thread.
+ * @param runningOperations   Operations which are currently executed.
+ * @param completedOperations Operations which were executed since the start.
+ * @param rejectedOperations  Operations which were rejected because the queue was full.
+ * @param timedOutOperations  Operations which didn't finish within the operation timeout.
+ * @param activeConnections   Connections of the pool which are currently borrowed.
+ * @param idleConnections     Connections of the pool which are currently free.
+ * @param awaitingConnections Threads which are waiting for a free connection of the pool.
+ * @param circuitState        The current state of the circuit breaker.
+ * @param circuitFailures     Operations which couldn't reach the database since the start.
+ * @param circuitRejections   Operations which failed immediately because the circuit was open.
+ * @param replicaCircuitState The current state of the circuit breaker of the read replica,
+ *                            or null if no read replica is configured.
+ */
+public record DatabaseMetrics(int queuedOperations,
+                              int runningOperations,
+                              long completedOperations,
+                              long rejectedOperations,
+                              long timedOutOperations,
+                              int activeConnections,
+                              int idleConnections,
+                              int awaitingConnections,
+                              @NonNull CircuitState circuitState,
+                              long circuitFailures,
+                              long circuitRejections,
+                              @Nullable CircuitState replicaCircuitState) {
+}
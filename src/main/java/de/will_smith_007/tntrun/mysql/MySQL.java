@@ -4,31 +4,67 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import de.will_smith_007.tntrun.managers.DatabaseFileManager;
+import lombok.Getter;
 import lombok.NonNull;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * The {@link MySQL} class is used to perform required SQL queries and updates.
+ * <br> <br>
+ * Every operation borrows its own connection of the connection pool and returns it afterwards. Asynchronous
+ * operations are executed by a dedicated executor with as many threads as the pool has connections. Its queue
+ * is bounded, so that operations are rejected instead of piling up if the database can't keep up.
+ * All operations fail immediately while the {@link CircuitBreaker} considers the database unreachable.
+ * <br> <br>
+ * If a read replica is configured, it gets its own connection pool and read queries of {@link #readAsync(SQLFunction)}
+ * are executed by the replica, with a fallback to the primary database if the replica fails.
  *
  * @apiNote Uses the MySQL Connection method but works also with MariaDB databases.
  */
 @Singleton
 public class MySQL {
 
+    private static final long EXECUTOR_SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+    private static final long HEALTH_PROBE_INTERVAL_MILLIS = 5000L;
+    private static final int HEALTH_PROBE_TIMEOUT_SECONDS = 2;
+
     private final Logger logger;
     private final String host, database, username, secret;
-    private final int port;
+    private final String replicaHost, replicaDatabase, replicaUsername, replicaSecret;
+    private final int port, replicaPort, maximumPoolSize, minimumIdle, queueCapacity;
+    private final boolean isReplicaEnabled;
+    private final long connectionTimeoutMillis, operationTimeoutMillis;
+    private final AtomicLong rejectedOperations = new AtomicLong();
+    private final AtomicLong timedOutOperations = new AtomicLong();
+    @Getter
+    private final CircuitBreaker circuitBreaker;
+    @Getter
+    private final CircuitBreaker replicaCircuitBreaker;
 
-    private volatile Connection connection;
     private volatile HikariDataSource hikariDataSource;
+    private volatile HikariDataSource replicaDataSource;
+    private volatile ThreadPoolExecutor databaseExecutor;
+    private ScheduledExecutorService healthProbe;
 
     /**
      * Uses the database configuration file to establish a connection to the database.
@@ -40,6 +76,8 @@ public class MySQL {
     public MySQL(@NonNull DatabaseFileManager databaseFileManager,
                  @NonNull Logger logger) {
         this.logger = logger;
+        this.circuitBreaker = new CircuitBreaker("database", logger);
+        this.replicaCircuitBreaker = new CircuitBreaker("replica", logger);
 
         this.host = databaseFileManager.getHostAddress();
         this.database = databaseFileManager.getDatabaseName();
@@ -47,19 +85,65 @@ public class MySQL {
         this.secret = databaseFileManager.getSecret();
         this.port = databaseFileManager.getPort();
 
+        this.isReplicaEnabled = databaseFileManager.isReplicaEnabled();
+        this.replicaHost = databaseFileManager.getReplicaHostAddress();
+        this.replicaDatabase = databaseFileManager.getReplicaDatabaseName();
+        this.replicaUsername = databaseFileManager.getReplicaUsername();
+        this.replicaSecret = databaseFileManager.getReplicaSecret();
+        this.replicaPort = databaseFileManager.getReplicaPort();
+
+        this.maximumPoolSize = Math.max(1, databaseFileManager.getMaximumPoolSize());
+        this.minimumIdle = Math.min(maximumPoolSize, Math.max(0, databaseFileManager.getMinimumIdle()));
+        this.queueCapacity = Math.max(1, databaseFileManager.getQueueCapacity());
+        this.connectionTimeoutMillis = databaseFileManager.getConnectionTimeoutMillis();
+        this.operationTimeoutMillis = databaseFileManager.getOperationTimeoutMillis();
+
         if (!databaseFileManager.isDatabaseEnabled()) return;
 
         connect();
+        startHealthProbe();
     }
 
     /**
-     * Tries to establish a connection to the configured database and sets some
-     * {@link HikariConfig} configurations for this connection.
+     * Creates the connection pools and the executor of the asynchronous operations.
+     * Nothing happens if the connection pools were already created.
      */
-    private void connect() {
-        try {
-            if (connection != null && !connection.isClosed()) return;
+    private synchronized void connect() {
+        if (hikariDataSource == null || hikariDataSource.isClosed()) {
+            hikariDataSource = createDataSource(host, port, database, username, secret, database);
+
+            if (hikariDataSource != null) logger.info("Connection to the database was successfully established!");
+        }
+
+        if (isReplicaEnabled && (replicaDataSource == null || replicaDataSource.isClosed())) {
+            replicaDataSource = createDataSource(replicaHost, replicaPort, replicaDatabase, replicaUsername,
+                    replicaSecret, replicaDatabase + "-replica");
+
+            if (replicaDataSource != null) logger.info("Connection to the read replica was successfully established!");
+        }
+
+        if (databaseExecutor != null && !databaseExecutor.isShutdown()) return;
+
+        //Each pool gets its own threads, so that reads of the replica don't wait for operations of the primary.
+        final int executorThreads = (isReplicaEnabled ? maximumPoolSize * 2 : maximumPoolSize);
+        final AtomicInteger threadID = new AtomicInteger();
+        databaseExecutor = new ThreadPoolExecutor(executorThreads, executorThreads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            final Thread thread = new Thread(runnable, "TNTRun-Database-" + threadID.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
 
+    /**
+     * Creates a connection pool with some {@link HikariConfig} configurations.
+     *
+     * @return The created connection pool, or null if it couldn't be created.
+     */
+    private @Nullable HikariDataSource createDataSource(String host, int port, String database,
+                                                        String username, String secret,
+                                                        @NonNull String poolName) {
+        try {
             final HikariConfig hikariConfig = new HikariConfig();
             hikariConfig.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database);
             hikariConfig.setUsername(username);
@@ -72,69 +156,342 @@ public class MySQL {
             hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
             hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
             hikariConfig.addDataSourceProperty("useUnicode", "true");
+            //Batches are sent as multi-row inserts in a single round trip instead of one round trip per row.
+            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
             hikariConfig.addDataSourceProperty("maxIdleTime", 28800);
 
-            hikariConfig.setPoolName(database);
-            hikariConfig.setMaximumPoolSize(2);
-            hikariConfig.setMinimumIdle(5);
-
-            hikariDataSource = new HikariDataSource(hikariConfig);
-            connection = hikariDataSource.getConnection();
+            hikariConfig.setPoolName(poolName);
+            hikariConfig.setMaximumPoolSize(maximumPoolSize);
+            hikariConfig.setMinimumIdle(minimumIdle);
+            hikariConfig.setConnectionTimeout(connectionTimeoutMillis);
+            //The pool is created even if the database isn't reachable yet, connections are retried by the pool.
+            hikariConfig.setInitializationFailTimeout(-1L);
 
-            logger.info("Connection to the database was successfully established!");
-        } catch (SQLException | NullPointerException exception) {
-            exception.printStackTrace();
+            return new HikariDataSource(hikariConfig);
+        } catch (RuntimeException runtimeException) {
+            logger.log(Level.SEVERE, "The connection pool " + poolName + " couldn't be created.", runtimeException);
+            return null;
         }
     }
 
     /**
-     * Closes the established database connection.
-     * Nothing happens if the database connection is null or wasn't even established.
+     * Waits until the queued operations were executed, but not longer than
+     * {@link #EXECUTOR_SHUTDOWN_TIMEOUT_MILLIS}, and closes the connection pool afterwards.
+     * Nothing happens if the connection pool wasn't even created.
      */
     public void closeConnection() {
-        if (connection == null) return;
+        if (healthProbe != null) healthProbe.shutdownNow();
+
+        if (databaseExecutor != null) {
+            databaseExecutor.shutdown();
+            try {
+                if (!databaseExecutor.awaitTermination(EXECUTOR_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    logger.warning("Some database operations didn't finish before the connection was closed.");
+                    databaseExecutor.shutdownNow();
+                }
+            } catch (InterruptedException interruptedException) {
+                databaseExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (replicaDataSource != null) replicaDataSource.close();
+
+        if (hikariDataSource == null) return;
         hikariDataSource.close();
         logger.info("Database connection was closed.");
     }
 
     /**
-     * Performs a SQL update operation synchronously.
-     * If the connection is closed or null, the database tries a reconnect/connect.
+     * Executes the specified operation synchronously on a connection borrowed from the connection pool.
+     * If the connection pool was closed or not created, the database tries a reconnect/connect.
      *
-     * @param query The SQL update query which should be performed by the database.
+     * @param sqlFunction The operation which should be performed by the database.
+     * @param <T>         The type of the result of the operation.
+     * @return The result of the operation.
+     * @throws SQLException If there wasn't a free connection within the connection timeout or
+     *                      the operation failed.
+     * @apiNote Blocks the current thread, so this shouldn't be used on the main thread.
      */
-    public void update(@NotNull String query) {
-        connect();
-        try (final Statement statement = connection.createStatement()){
-            statement.executeUpdate(query);
+    public <T> T query(@NonNull SQLFunction<T> sqlFunction) throws SQLException {
+        if (hikariDataSource == null || hikariDataSource.isClosed()) connect();
+
+        return apply(hikariDataSource, circuitBreaker, sqlFunction);
+    }
+
+    /**
+     * Executes the specified operation asynchronously on the read replica if it's configured. If the replica
+     * isn't reachable or the operation fails on it, the operation is executed on the primary database.
+     *
+     * @param sqlFunction The read operation which should be performed by the database.
+     * @param <T>         The type of the result of the operation.
+     * @return A {@link CompletableFuture} which contains the result of the operation. It's completed exceptionally
+     * if the operation failed on both databases, the queue of the executor is full or the operation timed out.
+     * @apiNote Must only be used for reads which may be slightly outdated. Reads which must see the own writes
+     * of this server have to use {@link #queryAsync(SQLFunction)}.
+     */
+    public <T> @NonNull CompletableFuture<T> readAsync(@NonNull SQLFunction<T> sqlFunction) {
+        if (!isReplicaEnabled) return queryAsync(sqlFunction);
+
+        if (replicaCircuitBreaker.isOpen() && circuitBreaker.rejectIfOpen()) {
+            return CompletableFuture.failedFuture(new SQLException("The database circuit is open."));
+        }
+
+        final SQLFunction<T> timedFunction = withOperationTimeout(sqlFunction);
+
+        return submit(() -> {
+            try {
+                return apply(replicaDataSource, replicaCircuitBreaker, timedFunction);
+            } catch (SQLException sqlException) {
+                logger.log(Level.FINE, "A read of the replica failed, the primary database is used.", sqlException);
+            }
+
+            try {
+                return query(timedFunction);
+            } catch (SQLException sqlException) {
+                throw new CompletionException(sqlException);
+            }
+        });
+    }
+
+    /**
+     * Executes the specified operation on a connection borrowed from the specified connection pool and records
+     * the result in the {@link CircuitBreaker} of the pool.
+     */
+    private <T> T apply(@Nullable HikariDataSource dataSource, @NonNull CircuitBreaker circuitBreaker,
+                        @NonNull SQLFunction<T> sqlFunction) throws SQLException {
+        if (!circuitBreaker.allowRequest()) throw new SQLException("The database circuit is open.");
+
+        if (dataSource == null) {
+            circuitBreaker.recordFailure();
+            throw new SQLException("The connection pool isn't available.");
+        }
+
+        try (final Connection connection = dataSource.getConnection()) {
+            final T result = sqlFunction.apply(connection);
+            circuitBreaker.recordSuccess();
+            return result;
         } catch (SQLException sqlException) {
-            sqlException.printStackTrace();
+            //Errors such as syntax errors show that the database is reachable.
+            if (CircuitBreaker.isConnectionFailure(sqlException)) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            throw sqlException;
+        } catch (RuntimeException runtimeException) {
+            circuitBreaker.recordSuccess();
+            throw runtimeException;
         }
     }
 
     /**
-     * Prepares a safe SQL statement and isn't vulnerable for "SQL Injections".
+     * Executes the specified operation asynchronously by the database executor on a connection borrowed
+     * from the connection pool.
      *
-     * @param sqlQuery The SQL Query which should be performed by the database.
-     * @return The {@link PreparedStatement} of the query to work with.
+     * @param sqlFunction The operation which should be performed by the database.
+     * @param <T>         The type of the result of the operation.
+     * @return A {@link CompletableFuture} which contains the result of the operation. It's completed exceptionally
+     * if the operation failed, the queue of the executor is full or the operation timed out. Statements of an
+     * operation which timed out are aborted.
      */
-    public PreparedStatement preparedStatement(@NonNull String sqlQuery) {
-        connect();
-        try {
-            return connection.prepareStatement(sqlQuery);
-        } catch (SQLException sqlException) {
-            sqlException.printStackTrace();
+    public <T> @NonNull CompletableFuture<T> queryAsync(@NonNull SQLFunction<T> sqlFunction) {
+        //Operations aren't queued while the database isn't reachable.
+        if (circuitBreaker.rejectIfOpen()) {
+            return CompletableFuture.failedFuture(new SQLException("The database circuit is open."));
         }
-        return null;
+
+        final SQLFunction<T> timedFunction = withOperationTimeout(sqlFunction);
+
+        return submit(() -> {
+            try {
+                return query(timedFunction);
+            } catch (SQLException sqlException) {
+                throw new CompletionException(sqlException);
+            }
+        });
     }
 
     /**
-     * Prepares an asynchronously, safe SQL statement and isn't vulnerable for "SQL Injections".
+     * Executes the specified long-running operation asynchronously by the database executor on a connection
+     * borrowed from the connection pool. In contrast to {@link #queryAsync(SQLFunction)} the operation timeout
+     * isn't applied.
      *
-     * @param sqlQuery The SQL Query which should be performed by the database.
-     * @return A {@link CompletableFuture} which contains the {@link PreparedStatement} of the query.
+     * @param sqlFunction The operation which should be performed by the database.
+     * @param <T>         The type of the result of the operation.
+     * @return A {@link CompletableFuture} which contains the result of the operation. It's completed exceptionally
+     * if the operation failed or the queue of the executor is full.
+     * @apiNote The operation occupies a thread of the database executor and a connection until it's finished,
+     * so this should only be used for rare operations such as the schema migration.
      */
-    public CompletableFuture<PreparedStatement> preparedStatementAsync(@NonNull String sqlQuery) {
-        return CompletableFuture.supplyAsync(() -> preparedStatement(sqlQuery));
+    public <T> @NonNull CompletableFuture<T> queryLongRunningAsync(@NonNull SQLFunction<T> sqlFunction) {
+        if (circuitBreaker.rejectIfOpen()) {
+            return CompletableFuture.failedFuture(new SQLException("The database circuit is open."));
+        }
+
+        return submit(() -> {
+            try {
+                return query(sqlFunction);
+            } catch (SQLException sqlException) {
+                throw new CompletionException(sqlException);
+            }
+        }, false);
+    }
+
+    /**
+     * Executes the specified transaction asynchronously on its own connection of the connection pool.
+     * The transaction is committed if all statements were executed successfully, otherwise it's rolled back.
+     *
+     * @param sqlTransaction The transaction which should be executed by the database.
+     * @return A {@link CompletableFuture} which is completed after the commit, or completed exceptionally
+     * if the transaction was rolled back, the queue of the executor is full or the transaction timed out.
+     */
+    public @NonNull CompletableFuture<Void> transactionAsync(@NonNull SQLTransaction sqlTransaction) {
+        return queryAsync(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                sqlTransaction.execute(connection);
+                connection.commit();
+            } catch (SQLException sqlException) {
+                //The connection is already closed if the network timeout aborted a statement.
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackException) {
+                    sqlException.addSuppressed(rollbackException);
+                }
+                throw sqlException;
+            } finally {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException sqlException) {
+                    //Broken connections are discarded by the connection pool anyway.
+                    logger.log(Level.FINE, "The auto-commit mode couldn't be restored.", sqlException);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Gets the current load of the database executor and the connection pool.
+     *
+     * @return A snapshot of the current database metrics.
+     */
+    public @NonNull DatabaseMetrics getDatabaseMetrics() {
+        final ThreadPoolExecutor executor = databaseExecutor;
+        final HikariDataSource dataSource = hikariDataSource;
+        final HikariPoolMXBean hikariPool = (dataSource == null ? null : dataSource.getHikariPoolMXBean());
+
+        return new DatabaseMetrics(
+                executor == null ? 0 : executor.getQueue().size(),
+                executor == null ? 0 : executor.getActiveCount(),
+                executor == null ? 0L : executor.getCompletedTaskCount(),
+                rejectedOperations.get(),
+                timedOutOperations.get(),
+                hikariPool == null ? 0 : hikariPool.getActiveConnections(),
+                hikariPool == null ? 0 : hikariPool.getIdleConnections(),
+                hikariPool == null ? 0 : hikariPool.getThreadsAwaitingConnection(),
+                circuitBreaker.getCircuitState(),
+                circuitBreaker.getFailures(),
+                circuitBreaker.getRejections(),
+                isReplicaEnabled ? replicaCircuitBreaker.getCircuitState() : null
+        );
+    }
+
+    /**
+     * Starts a periodic check whether the database is reachable, which closes or opens the circuit of the
+     * {@link CircuitBreaker} even if there aren't any other operations. While the circuit is open, the check
+     * is skipped until the circuit may be half opened.
+     */
+    private void startHealthProbe() {
+        healthProbe = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "TNTRun-Database-Health-Probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        healthProbe.scheduleWithFixedDelay(() -> {
+            if (circuitBreaker.isOpen()) return;
+
+            try {
+                query(connection -> {
+                    if (!connection.isValid(HEALTH_PROBE_TIMEOUT_SECONDS)) {
+                        throw new SQLException("The database connection isn't valid.", "08S01");
+                    }
+                    return null;
+                });
+            } catch (SQLException sqlException) {
+                logger.log(Level.FINE, "The database health probe failed.", sqlException);
+            }
+        }, HEALTH_PROBE_INTERVAL_MILLIS, HEALTH_PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Limits the specified operation to the remaining time of the operation timeout, which starts now.
+     * The timeout of the {@link CompletableFuture} doesn't stop a running statement, so the network timeout
+     * of the connection is set to the remaining time. A statement which doesn't get a response in time is
+     * aborted by the driver and its connection is discarded by the connection pool.
+     *
+     * @param sqlFunction The operation which should be limited.
+     * @param <T>         The type of the result of the operation.
+     * @return The limited operation, which fails without executing any statement if the operation timeout
+     * has already passed.
+     */
+    private <T> @NonNull SQLFunction<T> withOperationTimeout(@NonNull SQLFunction<T> sqlFunction) {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(operationTimeoutMillis);
+
+        return connection -> {
+            final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+
+            if (remainingMillis <= 0L) {
+                throw new SQLTimeoutException("The database operation timed out before it was executed.", "HYT00");
+            }
+
+            //The connection pool resets the network timeout when the connection is returned.
+            connection.setNetworkTimeout(Runnable::run, (int) Math.min(Integer.MAX_VALUE, remainingMillis));
+            return sqlFunction.apply(connection);
+        };
+    }
+
+    /**
+     * Submits an operation to the database executor and applies the operation timeout to it.
+     *
+     * @param supplier The operation which should be executed.
+     * @param <T>      The type of the result of the operation.
+     * @return A {@link CompletableFuture} which contains the result of the operation.
+     */
+    private <T> @NonNull CompletableFuture<T> submit(@NonNull Supplier<T> supplier) {
+        return submit(supplier, true);
+    }
+
+    /**
+     * Submits an operation to the database executor.
+     *
+     * @param supplier The operation which should be executed.
+     * @param isTimed  True if the operation timeout should be applied to the operation.
+     * @param <T>      The type of the result of the operation.
+     * @return A {@link CompletableFuture} which contains the result of the operation.
+     */
+    private <T> @NonNull CompletableFuture<T> submit(@NonNull Supplier<T> supplier, boolean isTimed) {
+        final ThreadPoolExecutor executor = databaseExecutor;
+
+        if (executor == null) {
+            return CompletableFuture.failedFuture(new SQLException("The database executor isn't available."));
+        }
+
+        final CompletableFuture<T> operation;
+        try {
+            operation = CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            rejectedOperations.incrementAndGet();
+            logger.warning("A database operation was rejected because the database queue is full.");
+            return CompletableFuture.failedFuture(rejectedExecutionException);
+        }
+
+        if (!isTimed) return operation;
+
+        return operation.orTimeout(operationTimeoutMillis, TimeUnit.MILLISECONDS).whenComplete((result, throwable) -> {
+            if (throwable instanceof TimeoutException) timedOutOperations.incrementAndGet();
+        });
     }
 }
@@ -0,0 +1,25 @@
+package de.will_smith_007.tntrun.mysql;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A database operation which is executed on a connection borrowed from the connection pool.
+ *
+ * @param <T> The type of the result of this operation.
+ * @see MySQL#queryAsync(SQLFunction)
+ */
+@FunctionalInterface
+public interface SQLFunction<T> {
+
+    /**
+     * Executes this operation. The connection is returned to the connection pool afterwards.
+     *
+     * @param connection The borrowed connection, which mustn't be closed or used after this method.
+     * @return The result of this operation.
+     * @throws SQLException If a statement couldn't be executed.
+     */
+    T apply(@NonNull Connection connection) throws SQLException;
+}
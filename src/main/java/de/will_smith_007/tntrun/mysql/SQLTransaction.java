@@ -0,0 +1,24 @@
+package de.will_smith_007.tntrun.mysql;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of work which is executed in a single database transaction.
+ *
+ * @see MySQL#transactionAsync(SQLTransaction)
+ */
+@FunctionalInterface
+public interface SQLTransaction {
+
+    /**
+     * Executes all statements of this transaction. The transaction is committed afterwards or rolled back
+     * if an exception is thrown.
+     *
+     * @param connection The connection of the transaction, which mustn't be closed.
+     * @throws SQLException If a statement couldn't be executed.
+     */
+    void execute(@NonNull Connection connection) throws SQLException;
+}
@@ -0,0 +1,159 @@
+package de.will_smith_007.tntrun.mysql;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import de.will_smith_007.tntrun.mysql.migrations.BinaryUUIDMigration;
+import de.will_smith_007.tntrun.mysql.migrations.ChangeLogMigration;
+import de.will_smith_007.tntrun.mysql.migrations.JournalProgressMigration;
+import de.will_smith_007.tntrun.mysql.migrations.LastPlayedMigration;
+import de.will_smith_007.tntrun.mysql.migrations.LegacyStatsTableMigration;
+import de.will_smith_007.tntrun.mysql.migrations.MatchCountersMigration;
+import de.will_smith_007.tntrun.mysql.migrations.MatchHistoryMigration;
+import de.will_smith_007.tntrun.mysql.migrations.WindowRollupMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link SchemaMigrator} brings the database schema to the newest version by applying all migrations
+ * which weren't applied yet. The applied versions are recorded in the "tntrun_schema" table.
+ * <br> <br>
+ * A named database lock is held during the migration, so that multiple servers which share the same
+ * database don't migrate at the same time.
+ */
+@Singleton
+public class SchemaMigrator {
+
+    private static final String MIGRATION_LOCK_NAME = "tntrun_schema_migration";
+    private static final int MIGRATION_LOCK_TIMEOUT_SECONDS = 10;
+    private static final long MIN_LOCK_RETRY_DELAY_MILLIS = 1000L;
+    private static final long MAX_LOCK_RETRY_DELAY_MILLIS = 60_000L;
+
+    private final MySQL statsSQL;
+    private final Logger logger;
+    private final List<ISchemaMigration> schemaMigrations;
+
+    @Inject
+    public SchemaMigrator(@NonNull MySQL statsSQL,
+                          @NonNull Logger logger) {
+        this.statsSQL = statsSQL;
+        this.logger = logger;
+        this.schemaMigrations = List.of(
+                new LegacyStatsTableMigration(),
+                new BinaryUUIDMigration(logger),
+                new JournalProgressMigration(),
+                new WindowRollupMigration(),
+                new LastPlayedMigration(),
+                new MatchHistoryMigration(),
+                new MatchCountersMigration(),
+                new ChangeLogMigration()
+        );
+    }
+
+    /**
+     * Applies all migrations which weren't applied yet asynchronously.
+     *
+     * @return A {@link CompletableFuture} which contains the schema version after the migration.
+     * It's completed exceptionally if a migration failed.
+     * @apiNote The migration doesn't use the operation timeout, because it can take longer. While another server
+     * migrates the schema, the migration waits for the migration lock until the plugin is disabled.
+     */
+    public @NonNull CompletableFuture<Integer> migrateAsync() {
+        return statsSQL.queryLongRunningAsync(this::migrate);
+    }
+
+    private int migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_schema(version INT PRIMARY KEY, " +
+                    "appliedAt BIGINT NOT NULL);");
+        }
+
+        acquireMigrationLock(connection);
+        try {
+            int schemaVersion = getSchemaVersion(connection);
+
+            final List<ISchemaMigration> pendingMigrations = schemaMigrations.stream()
+                    .sorted(Comparator.comparingInt(ISchemaMigration::getVersion))
+                    .toList();
+
+            for (ISchemaMigration schemaMigration : pendingMigrations) {
+                final int migrationVersion = schemaMigration.getVersion();
+
+                if (migrationVersion <= schemaVersion) continue;
+
+                logger.log(Level.INFO, "Migrating the database schema to version {0}...", migrationVersion);
+                schemaMigration.migrate(connection);
+                recordSchemaVersion(connection, migrationVersion);
+                schemaVersion = migrationVersion;
+            }
+
+            logger.log(Level.INFO, "The database schema is at version {0}.", schemaVersion);
+            return schemaVersion;
+        } finally {
+            releaseMigrationLock(connection);
+        }
+    }
+
+    /**
+     * Waits until the migration lock is held. Failed attempts are retried with a growing delay until
+     * the thread is interrupted by the shutdown of the database executor.
+     */
+    private void acquireMigrationLock(@NonNull Connection connection) throws SQLException {
+        long retryDelayMillis = MIN_LOCK_RETRY_DELAY_MILLIS;
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            preparedStatement.setString(1, MIGRATION_LOCK_NAME);
+            preparedStatement.setInt(2, MIGRATION_LOCK_TIMEOUT_SECONDS);
+
+            while (true) {
+                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (resultSet.next() && resultSet.getInt(1) == 1) return;
+                }
+
+                logger.log(Level.INFO, "The database schema is migrated by another server, retrying in {0} seconds.",
+                        retryDelayMillis / 1000L);
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("The migration was interrupted while waiting for the migration lock.",
+                            interruptedException);
+                }
+                retryDelayMillis = Math.min(retryDelayMillis * 2L, MAX_LOCK_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void releaseMigrationLock(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            preparedStatement.setString(1, MIGRATION_LOCK_NAME);
+            preparedStatement.executeQuery().close();
+        }
+    }
+
+    private int getSchemaVersion(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            final ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM tntrun_schema");
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private void recordSchemaVersion(@NonNull Connection connection, int schemaVersion) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO tntrun_schema(version, appliedAt) VALUES (?, ?)")) {
+            preparedStatement.setInt(1, schemaVersion);
+            preparedStatement.setLong(2, System.currentTimeMillis());
+            preparedStatement.executeUpdate();
+        }
+    }
+}
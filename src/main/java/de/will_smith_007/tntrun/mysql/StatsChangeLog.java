@@ -0,0 +1,105 @@
+package de.will_smith_007.tntrun.mysql;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.game_stats.GameStatistics;
+import de.will_smith_007.tntrun.managers.DatabaseFileManager;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The {@link StatsChangeLog} records which players got changed statistics in the "tntrun_change" table,
+ * so that all servers which share the database can refresh only these players.
+ * <br> <br>
+ * The changes are appended in the same transaction as the changed statistics, so a change is visible
+ * at the same time as the statistics. Nothing is recorded if the cluster option is disabled.
+ *
+ * @see de.will_smith_007.tntrun.managers.StatsChangeFeedManager
+ */
+@Singleton
+public class StatsChangeLog {
+
+    private static final String CHANGE_ROW = "(?, ?)";
+
+    @Getter
+    private final boolean isEnabled;
+
+    @Inject
+    public StatsChangeLog(@NonNull DatabaseFileManager databaseFileManager) {
+        this.isEnabled = databaseFileManager.isDatabaseEnabled() && databaseFileManager.isClusterEnabled();
+    }
+
+    /**
+     * Records a change of the statistics of the specified players with a single multi-row insert.
+     *
+     * @param connection  The connection of the transaction which changes the statistics.
+     * @param playerUUIDs The UUIDs of the changed players, duplicates are only recorded once.
+     * @throws SQLException If the changes couldn't be recorded.
+     */
+    public void append(@NonNull Connection connection, @NonNull Collection<UUID> playerUUIDs) throws SQLException {
+        if (!isEnabled || playerUUIDs.isEmpty()) return;
+
+        final Set<UUID> changedPlayers = new LinkedHashSet<>(playerUUIDs);
+        final long changedAt = System.currentTimeMillis();
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO tntrun_change(uuid, changedAt) VALUES " + CHANGE_ROW +
+                        (", " + CHANGE_ROW).repeat(changedPlayers.size() - 1))) {
+            int parameterIndex = 1;
+            for (UUID playerUUID : changedPlayers) {
+                preparedStatement.setBytes(parameterIndex++, UUIDConverter.toBytes(playerUUID));
+                preparedStatement.setLong(parameterIndex++, changedAt);
+            }
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Gets the saved statistics of the specified players. Changed players are refreshed with these absolute
+     * values instead of adding the changes, so that a change is never counted twice.
+     *
+     * @param connection  The connection which should be used to read the statistics.
+     * @param playerUUIDs The UUIDs of the changed players.
+     * @return The saved statistics by the player UUID. Players without saved statistics are missing.
+     * @throws SQLException If the statistics couldn't be read.
+     */
+    public @NonNull Map<UUID, GameStatistics> getSavedStatistics(@NonNull Connection connection,
+                                                                 @NonNull Collection<UUID> playerUUIDs)
+            throws SQLException {
+        final Map<UUID, GameStatistics> savedStatistics = new HashMap<>();
+
+        if (playerUUIDs.isEmpty()) return savedStatistics;
+
+        final Set<UUID> changedPlayers = new LinkedHashSet<>(playerUUIDs);
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT uuid, wins, loses, longestSurvivedTime FROM tntrun WHERE uuid IN (?" +
+                        ", ?".repeat(changedPlayers.size() - 1) + ")")) {
+            int parameterIndex = 1;
+            for (UUID playerUUID : changedPlayers) {
+                preparedStatement.setBytes(parameterIndex++, UUIDConverter.toBytes(playerUUID));
+            }
+            final ResultSet resultSet = preparedStatement.executeQuery();
+
+            while (resultSet.next()) {
+                savedStatistics.put(UUIDConverter.fromBytes(resultSet.getBytes("uuid")), new GameStatistics(
+                        resultSet.getInt("wins"),
+                        resultSet.getInt("loses"),
+                        resultSet.getLong("longestSurvivedTime")));
+            }
+        }
+        return savedStatistics;
+    }
+}
@@ -0,0 +1,31 @@
+package de.will_smith_007.tntrun.mysql.interfaces;
+
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * This interface must be inherited by every migration of the database schema.
+ * <br> <br>
+ * Migrations are applied once in the order of their version by the
+ * {@link de.will_smith_007.tntrun.mysql.SchemaMigrator}.
+ */
+public interface ISchemaMigration {
+
+    /**
+     * Gets the version of the schema after this migration.
+     *
+     * @return The schema version, which must be unique.
+     */
+    int getVersion();
+
+    /**
+     * Migrates the schema of the previous version to the version of this migration.
+     *
+     * @param connection The connection of the migration in auto commit mode.
+     * @throws SQLException If the migration failed.
+     * @apiNote A migration must be able to continue if it was interrupted before.
+     */
+    void migrate(@NonNull Connection connection) throws SQLException;
+}
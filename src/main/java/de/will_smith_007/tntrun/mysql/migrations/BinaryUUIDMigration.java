@@ -0,0 +1,229 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Migrates the statistics table to binary player UUIDs of 16 bytes and adds indexes on the ranking columns.
+ * <br> <br>
+ * The rows are copied into a new table in small chunks, where every chunk is its own short transaction.
+ * This way the old table is never locked for long. Before the copy starts, triggers on the old table are created
+ * which apply every insert, update and delete to the new table as well, so that writes of other servers during
+ * the copy aren't lost. Afterwards both tables are swapped in a single atomic rename and the old table is kept
+ * as "tntrun_legacy".
+ * <br> <br>
+ * If the triggers can't be created, the rows are copied in chunks without them. Afterwards both tables are locked
+ * for writes, the rows which were changed during the copy are copied again and the tables are swapped.
+ *
+ * @apiNote Servers of an older version can't write into the new table, so all servers which share the database
+ * should be updated together. The triggers require the TRIGGER privilege and, if the binary log is enabled,
+ * the SUPER privilege or {@code log_bin_trust_function_creators=1}. Without the triggers, the LOCK TABLES privilege
+ * and a MySQL version which renames locked tables (8.0.13 or newer) are required instead.
+ */
+public final class BinaryUUIDMigration implements ISchemaMigration {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String UUID_PATTERN =
+            "'^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'";
+    private static final String SYNC_UPSERT = "INSERT INTO tntrun_v2(uuid, wins, loses, longestSurvivedTime) " +
+            "SELECT UNHEX(REPLACE(NEW.uuid, '-', '')), NEW.wins, NEW.loses, NEW.longestSurvivedTime FROM DUAL " +
+            "WHERE NEW.uuid REGEXP " + UUID_PATTERN + " " +
+            "ON DUPLICATE KEY UPDATE wins= VALUES(wins), loses= VALUES(loses), " +
+            "longestSurvivedTime= VALUES(longestSurvivedTime)";
+    private static final String CATCH_UP_UPSERT = "INSERT INTO tntrun_v2(uuid, wins, loses, longestSurvivedTime) " +
+            "SELECT UNHEX(REPLACE(uuid, '-', '')), wins, loses, longestSurvivedTime FROM tntrun " +
+            "WHERE uuid REGEXP " + UUID_PATTERN + " " +
+            "ON DUPLICATE KEY UPDATE wins= VALUES(wins), loses= VALUES(loses), " +
+            "longestSurvivedTime= VALUES(longestSurvivedTime);";
+    private static final String CATCH_UP_DELETE = "DELETE FROM tntrun_v2 WHERE uuid NOT IN " +
+            "(SELECT UNHEX(REPLACE(uuid, '-', '')) FROM tntrun WHERE uuid REGEXP " + UUID_PATTERN + ");";
+
+    private final Logger logger;
+
+    public BinaryUUIDMigration(@NonNull Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        //The tables were already swapped if the migration was interrupted before it was recorded.
+        if (hasBinaryUUIDColumn(connection)) {
+            dropSyncTriggers(connection);
+            return;
+        }
+
+        //An interrupted copy isn't continued, because writes without the triggers may be missing in it.
+        dropSyncTriggers(connection);
+
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS tntrun_v2;");
+            statement.executeUpdate("CREATE TABLE tntrun_v2(uuid BINARY(16) NOT NULL PRIMARY KEY, " +
+                    "wins INT NOT NULL DEFAULT 0, loses INT NOT NULL DEFAULT 0, " +
+                    "longestSurvivedTime BIGINT NOT NULL DEFAULT 0, " +
+                    "INDEX tntrun_wins_index (wins), " +
+                    "INDEX tntrun_longest_survived_time_index (longestSurvivedTime));");
+        }
+
+        final boolean hasSyncTriggers = createSyncTriggers(connection);
+        try {
+            final int copiedRows = copyRows(connection);
+            logger.log(Level.INFO, "Copied {0} player statistics into the new table.", copiedRows);
+
+            if (!hasSyncTriggers) {
+                swapTablesLocked(connection);
+                return;
+            }
+
+            //The rename waits for running transactions of the old table, whose triggers are applied before.
+            try (final Statement statement = connection.createStatement()) {
+                statement.executeUpdate("RENAME TABLE tntrun TO tntrun_legacy, tntrun_v2 TO tntrun;");
+            }
+        } finally {
+            dropSyncTriggers(connection);
+        }
+    }
+
+    /**
+     * Copies all rows of the old table into the new table in chunks of {@link #CHUNK_SIZE} rows.
+     *
+     * @return The amount of read rows.
+     */
+    private int copyRows(@NonNull Connection connection) throws SQLException {
+        String lastUUID = "";
+        int copiedRows = 0;
+
+        //The rows of a chunk are read with shared locks, so that a concurrent write of a copied row waits
+        //for the commit of the chunk and its trigger overwrites the copied row afterwards.
+        try (final PreparedStatement selectStatement = connection.prepareStatement(
+                "SELECT uuid, wins, loses, longestSurvivedTime FROM tntrun WHERE uuid > ? ORDER BY uuid LIMIT ? " +
+                        "LOCK IN SHARE MODE");
+             final PreparedStatement insertStatement = connection.prepareStatement(
+                     "INSERT IGNORE INTO tntrun_v2(uuid, wins, loses, longestSurvivedTime) VALUES (?, ?, ?, ?);")) {
+            while (true) {
+                int chunkRows = 0;
+
+                //Every chunk is committed on its own, so that the locks are only held shortly.
+                connection.setAutoCommit(false);
+                try {
+                    selectStatement.setString(1, lastUUID);
+                    selectStatement.setInt(2, CHUNK_SIZE);
+
+                    try (final ResultSet resultSet = selectStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            lastUUID = resultSet.getString("uuid");
+                            chunkRows++;
+
+                            final UUID playerUUID;
+                            try {
+                                playerUUID = UUID.fromString(lastUUID);
+                            } catch (IllegalArgumentException illegalArgumentException) {
+                                logger.log(Level.WARNING, "Skipped the statistics of the invalid player UUID {0}.",
+                                        lastUUID);
+                                continue;
+                            }
+
+                            //Rows which were already written by a trigger are newer than the copied row.
+                            insertStatement.setBytes(1, UUIDConverter.toBytes(playerUUID));
+                            insertStatement.setInt(2, resultSet.getInt("wins"));
+                            insertStatement.setInt(3, resultSet.getInt("loses"));
+                            insertStatement.setLong(4, resultSet.getLong("longestSurvivedTime"));
+                            insertStatement.addBatch();
+                        }
+                    }
+
+                    insertStatement.executeBatch();
+                    connection.commit();
+                } catch (SQLException sqlException) {
+                    connection.rollback();
+                    throw sqlException;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+
+                copiedRows += chunkRows;
+                if (chunkRows < CHUNK_SIZE) break;
+            }
+        }
+
+        return copiedRows;
+    }
+
+    /**
+     * Copies the writes which happened during the copy without triggers and swaps both tables while they're locked.
+     * Most rows are unchanged since the chunked copy, so the lock is only held for a comparison of both tables.
+     */
+    private void swapTablesLocked(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("LOCK TABLES tntrun WRITE, tntrun_v2 WRITE;");
+            try {
+                statement.executeUpdate(CATCH_UP_UPSERT);
+                statement.executeUpdate(CATCH_UP_DELETE);
+                statement.executeUpdate("RENAME TABLE tntrun TO tntrun_legacy, tntrun_v2 TO tntrun;");
+            } finally {
+                statement.executeUpdate("UNLOCK TABLES;");
+            }
+        }
+    }
+
+    /**
+     * Creates the triggers which apply every write of the old table to the new table during the copy.
+     *
+     * @return True if the triggers were created, false if the database user isn't allowed to create them.
+     */
+    private boolean createSyncTriggers(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TRIGGER tntrun_v2_insert AFTER INSERT ON tntrun FOR EACH ROW " +
+                    SYNC_UPSERT + ";");
+            statement.executeUpdate("CREATE TRIGGER tntrun_v2_update AFTER UPDATE ON tntrun FOR EACH ROW " +
+                    SYNC_UPSERT + ";");
+            statement.executeUpdate("CREATE TRIGGER tntrun_v2_delete AFTER DELETE ON tntrun FOR EACH ROW " +
+                    "DELETE FROM tntrun_v2 WHERE uuid = UNHEX(REPLACE(OLD.uuid, '-', ''));");
+            return true;
+        } catch (SQLException sqlException) {
+            logger.log(Level.WARNING, "The triggers of the statistics migration couldn't be created, so the " +
+                    "statistics table is locked for writes at the end of the copy. The triggers require the TRIGGER " +
+                    "privilege and, if the binary log is enabled, the SUPER privilege or " +
+                    "log_bin_trust_function_creators=1.", sqlException);
+            //Triggers which were created before the failure would write into the new table during the copy.
+            try {
+                dropSyncTriggers(connection);
+            } catch (SQLException dropException) {
+                dropException.addSuppressed(sqlException);
+                throw dropException;
+            }
+            return false;
+        }
+    }
+
+    private void dropSyncTriggers(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DROP TRIGGER IF EXISTS tntrun_v2_insert;");
+            statement.executeUpdate("DROP TRIGGER IF EXISTS tntrun_v2_update;");
+            statement.executeUpdate("DROP TRIGGER IF EXISTS tntrun_v2_delete;");
+        }
+    }
+
+    private boolean hasBinaryUUIDColumn(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = 'tntrun' AND COLUMN_NAME = 'uuid'")) {
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() && "binary".equalsIgnoreCase(resultSet.getString("DATA_TYPE"));
+        }
+    }
+}
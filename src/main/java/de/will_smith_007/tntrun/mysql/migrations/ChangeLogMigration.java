@@ -0,0 +1,30 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the change log, in which the players with changed statistics are recorded in the order of
+ * an increasing change id. Servers which share the database read the changes after the last read id.
+ * The index on the change time is used to find the start id of a server and to prune old changes.
+ */
+public final class ChangeLogMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 8;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_change(changeId BIGINT NOT NULL " +
+                    "AUTO_INCREMENT PRIMARY KEY, uuid BINARY(16) NOT NULL, changedAt BIGINT NOT NULL, " +
+                    "INDEX tntrun_change_changed_at_index (changedAt));");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the table which holds the sequence number of the last saved record of the stats journal of every server.
+ * This way records which are replayed again after a crash are detected and aren't counted twice.
+ */
+public final class JournalProgressMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_journal(serverUUID BINARY(16) NOT NULL " +
+                    "PRIMARY KEY, lastSequence BIGINT NOT NULL DEFAULT 0);");
+        }
+    }
+}
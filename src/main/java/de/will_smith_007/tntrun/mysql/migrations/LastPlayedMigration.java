@@ -0,0 +1,73 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the last played timestamp to the statistics table and the archive table of the purged players.
+ * <br> <br>
+ * Existing rows get the time of the migration as last played timestamp, so that they aren't purged immediately.
+ * The timestamp is added as default value of the new column, which doesn't require to update every row.
+ */
+public final class LastPlayedMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 5;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            //Every step is checked on its own, because the migration may be interrupted between them.
+            if (!hasLastPlayedColumn(connection)) {
+                statement.executeUpdate("ALTER TABLE tntrun ADD COLUMN lastPlayed BIGINT NOT NULL DEFAULT " +
+                        System.currentTimeMillis() + ";");
+            }
+
+            if (!hasZeroLastPlayedDefault(connection)) {
+                statement.executeUpdate("ALTER TABLE tntrun ALTER COLUMN lastPlayed SET DEFAULT 0;");
+            }
+
+            if (!hasLastPlayedIndex(connection)) {
+                statement.executeUpdate("CREATE INDEX tntrun_last_played_index ON tntrun (lastPlayed);");
+            }
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_archive(uuid BINARY(16) NOT NULL " +
+                    "PRIMARY KEY, wins INT NOT NULL DEFAULT 0, loses INT NOT NULL DEFAULT 0, " +
+                    "longestSurvivedTime BIGINT NOT NULL DEFAULT 0, lastPlayed BIGINT NOT NULL DEFAULT 0, " +
+                    "archivedAt BIGINT NOT NULL);");
+        }
+    }
+
+    private boolean hasLastPlayedColumn(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = 'tntrun' AND COLUMN_NAME = 'lastPlayed'")) {
+            return preparedStatement.executeQuery().next();
+        }
+    }
+
+    private boolean hasZeroLastPlayedDefault(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT COLUMN_DEFAULT FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = 'tntrun' AND COLUMN_NAME = 'lastPlayed'")) {
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() && "0".equals(resultSet.getString("COLUMN_DEFAULT"));
+        }
+    }
+
+    private boolean hasLastPlayedIndex(@NonNull Connection connection) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = 'tntrun' AND INDEX_NAME = 'tntrun_last_played_index'")) {
+            return preparedStatement.executeQuery().next();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The first version of the schema, which stores the statistics with the player UUID as text.
+ * <br> <br>
+ * This table was created by every former version of this plugin, so the migration doesn't change
+ * existing databases.
+ */
+public final class LegacyStatsTableMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun(uuid VARCHAR(64) PRIMARY KEY, " +
+                    "wins INT(11) DEFAULT 0, loses INT(11) DEFAULT 0, longestSurvivedTime BIGINT(20) DEFAULT 0);");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the totals of the broken blocks, the run distance, the time in the air and the AFK removals
+ * to the statistics table and the archive table of the purged players.
+ */
+public final class MatchCountersMigration implements ISchemaMigration {
+
+    private static final String COUNTER_COLUMNS = "ADD COLUMN blocksBroken BIGINT NOT NULL DEFAULT 0, " +
+            "ADD COLUMN distanceRun BIGINT NOT NULL DEFAULT 0, ADD COLUMN airTime BIGINT NOT NULL DEFAULT 0, " +
+            "ADD COLUMN afkRemovals INT NOT NULL DEFAULT 0";
+
+    @Override
+    public int getVersion() {
+        return 7;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            //The columns were already added if the migration was interrupted before it was recorded.
+            for (String tableName : new String[]{"tntrun", "tntrun_archive"}) {
+                if (hasCounterColumns(connection, tableName)) continue;
+
+                statement.executeUpdate("ALTER TABLE " + tableName + " " + COUNTER_COLUMNS + ";");
+            }
+        }
+    }
+
+    private boolean hasCounterColumns(@NonNull Connection connection, @NonNull String tableName) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() " +
+                        "AND TABLE_NAME = ? AND COLUMN_NAME = 'blocksBroken'")) {
+            preparedStatement.setString(1, tableName);
+            return preparedStatement.executeQuery().next();
+        }
+    }
+}
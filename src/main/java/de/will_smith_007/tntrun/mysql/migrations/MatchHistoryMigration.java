@@ -0,0 +1,40 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the match history tables. Every game gets a row in "tntrun_match" and every participant a row in
+ * "tntrun_match_player".
+ * <br> <br>
+ * The end of the game and the map are copied into the participant rows, so that the last games of a player
+ * are read by a single range of the player index. The map index of the matches contains the averaged columns,
+ * so that the averages of a map are computed from the index alone.
+ */
+public final class MatchHistoryMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 6;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_match(matchId BINARY(16) NOT NULL " +
+                    "PRIMARY KEY, mapName VARCHAR(64) NOT NULL, startedAt BIGINT NOT NULL, endedAt BIGINT NOT NULL, " +
+                    "durationMillis BIGINT NOT NULL, participants INT NOT NULL, " +
+                    "INDEX tntrun_match_map_index (mapName, durationMillis, participants));");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_match_player(matchId BINARY(16) NOT NULL, " +
+                    "uuid BINARY(16) NOT NULL, placement INT NOT NULL, survivedTime BIGINT NOT NULL, " +
+                    "mapName VARCHAR(64) NOT NULL, endedAt BIGINT NOT NULL, " +
+                    "PRIMARY KEY (matchId, uuid), " +
+                    "INDEX tntrun_match_player_index (uuid, endedAt));");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package de.will_smith_007.tntrun.mysql.migrations;
+
+import de.will_smith_007.tntrun.mysql.interfaces.ISchemaMigration;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the rollup table of the time-windowed leaderboards. It sums up the statistics of every player per
+ * window and bucket, so that a leaderboard only reads the rows of the current bucket by its wins index.
+ *
+ * @see de.will_smith_007.tntrun.enums.StatsWindow
+ */
+public final class WindowRollupMigration implements ISchemaMigration {
+
+    @Override
+    public int getVersion() {
+        return 4;
+    }
+
+    @Override
+    public void migrate(@NonNull Connection connection) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS tntrun_window(windowType TINYINT NOT NULL, " +
+                    "bucket INT NOT NULL, uuid BINARY(16) NOT NULL, " +
+                    "wins INT NOT NULL DEFAULT 0, loses INT NOT NULL DEFAULT 0, " +
+                    "longestSurvivedTime BIGINT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (windowType, bucket, uuid), " +
+                    "INDEX tntrun_window_wins_index (windowType, bucket, wins));");
+        }
+    }
+}
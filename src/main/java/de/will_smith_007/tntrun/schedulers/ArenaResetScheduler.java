@@ -0,0 +1,145 @@
+package de.will_smith_007.tntrun.schedulers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.block_decay.ArenaSnapshot;
+import de.will_smith_007.tntrun.enums.GameState;
+import de.will_smith_007.tntrun.game_config.GameConfiguration;
+import de.will_smith_007.tntrun.managers.ArenaManager;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
+import de.will_smith_007.tntrun.managers.MapManager;
+import de.will_smith_007.tntrun.managers.MapTemplateManager;
+import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
+import de.will_smith_007.tntrun.utilities.GameAssets;
+import lombok.NonNull;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.logging.Logger;
+
+/**
+ * Removes the game map of the finished game and moves the game back to the lobby phase, so that the next game
+ * can be played without restarting the server.
+ * <br> <br>
+ * Copies of a game map template are unloaded and deleted. If the game was played on the configured game map
+ * itself, the game map is restored from the {@link ArenaSnapshot} of the game instead. The blocks are restored
+ * in batches spread over multiple ticks to avoid a lag spike on large maps.
+ */
+@Singleton
+public final class ArenaResetScheduler implements IScheduler {
+
+    private static final int BLOCKS_PER_TICK = 4096;
+
+    private int taskID, restoredBlocks;
+    private boolean isRunning;
+    private final JavaPlugin javaPlugin;
+    private final Logger logger;
+    private final Arena arena;
+    private final GameAssets gameAssets;
+    private final ArenaManager arenaManager;
+    private final MapManager mapManager;
+    private final MapTemplateManager mapTemplateManager;
+    private final BroadcastManager broadcastManager;
+
+    @Inject
+    public ArenaResetScheduler(@NonNull JavaPlugin javaPlugin,
+                               @NonNull Arena arena,
+                               @NonNull GameAssets gameAssets,
+                               @NonNull ArenaManager arenaManager,
+                               @NonNull MapManager mapManager,
+                               @NonNull MapTemplateManager mapTemplateManager,
+                               @NonNull BroadcastManager broadcastManager) {
+        this.javaPlugin = javaPlugin;
+        this.logger = javaPlugin.getLogger();
+        this.arena = arena;
+        this.gameAssets = gameAssets;
+        this.arenaManager = arenaManager;
+        this.mapManager = mapManager;
+        this.mapTemplateManager = mapTemplateManager;
+        this.broadcastManager = broadcastManager;
+    }
+
+    @Override
+    public void start() {
+        if (isRunning) return;
+
+        final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+
+        //Copies of a game map template are deleted, they don't need to be restored.
+        if (gameConfiguration == null || mapTemplateManager.isInstance(gameConfiguration.gameMap())) {
+            finishReset();
+            return;
+        }
+
+        final ArenaSnapshot arenaSnapshot = gameConfiguration.arenaSnapshot();
+
+        isRunning = true;
+        restoredBlocks = 0;
+        logger.info("Restoring " + arenaSnapshot.size() + " blocks of the arena #" + arena.getArenaID() + "...");
+
+        taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
+            restoredBlocks = arenaSnapshot.restore(restoredBlocks, BLOCKS_PER_TICK);
+
+            if (restoredBlocks < arenaSnapshot.size()) return;
+
+            arenaSnapshot.clear();
+            stop();
+            finishReset();
+        }, 0L, 1L);
+    }
+
+    @Override
+    public void stop() {
+        if (!isRunning) return;
+
+        isRunning = false;
+        BUKKIT_SCHEDULER.cancelTask(taskID);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Teleports all players of the arena back to the waiting map and sets the game back to the lobby phase.
+     * The game map is released, so that it can be used by the next game of any arena.
+     */
+    private void finishReset() {
+        final String waitingMapName = mapManager.getWaitingMapName();
+        final Location waitingMapSpawn = (waitingMapName == null ? null : mapManager.getMapSpawnPoint(waitingMapName));
+
+        for (Player player : arena.getPlayers()) {
+            player.setGameMode(GameMode.ADVENTURE);
+            player.setLevel(0);
+
+            if (waitingMapSpawn != null) {
+                player.teleport(waitingMapSpawn);
+            }
+        }
+
+        final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+
+        gameAssets.getAlivePlayerRegistry().clear();
+        gameAssets.setGameConfiguration(null);
+        gameAssets.setGameState(GameState.LOBBY);
+        arenaManager.releaseGameMap(arena);
+
+        //The spawn chunks of the game map were kept loaded since the start countdown.
+        if (gameConfiguration != null) {
+            final World gameMap = gameConfiguration.gameMap();
+
+            gameMap.removePluginChunkTickets(javaPlugin);
+            mapTemplateManager.disposeInstance(gameMap);
+        }
+
+        logger.info("The arena #" + arena.getArenaID() + " was reset, the next game can be started.");
+        broadcastManager.broadcast("§aThe next game is about to begin.");
+
+        arenaManager.startLobbyCountdowns();
+    }
+}
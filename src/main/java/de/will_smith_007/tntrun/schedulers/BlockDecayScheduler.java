@@ -0,0 +1,167 @@
+package de.will_smith_007.tntrun.schedulers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.block_decay.ArenaSnapshot;
+import de.will_smith_007.tntrun.block_decay.ChunkBatchedBlockWriter;
+import de.will_smith_007.tntrun.block_decay.DecayTimingWheel;
+import de.will_smith_007.tntrun.enums.DecayMaterial;
+import de.will_smith_007.tntrun.enums.GameState;
+import de.will_smith_007.tntrun.game_config.GameConfiguration;
+import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
+import de.will_smith_007.tntrun.utilities.GameAssets;
+import de.will_smith_007.tntrun.utilities.PackedBlockPosition;
+import lombok.NonNull;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Removes the blocks on which the players have stepped after the delay of their {@link DecayMaterial}.
+ * <br> <br>
+ * All stepped blocks are collected in one {@link DecayTimingWheel} which is advanced by a single repeating task,
+ * instead of scheduling a separate task for every step. All removals of a tick are applied together by a
+ * {@link ChunkBatchedBlockWriter} at the end of the task.
+ */
+@Singleton
+public final class BlockDecayScheduler implements IScheduler {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int STAGE_WARNING = 0, STAGE_REMOVAL = 1;
+    private static final DecayMaterial[] DECAY_MATERIALS = DecayMaterial.values();
+
+    private int taskID;
+    private boolean isRunning;
+    private World decayingWorld;
+    private ArenaSnapshot arenaSnapshot;
+    private final JavaPlugin javaPlugin;
+    private final GameAssets gameAssets;
+    private final DecayTimingWheel decayTimingWheel = new DecayTimingWheel(WHEEL_SIZE);
+    private final ChunkBatchedBlockWriter chunkBatchedBlockWriter = new ChunkBatchedBlockWriter();
+
+    @Inject
+    public BlockDecayScheduler(@NonNull JavaPlugin javaPlugin,
+                               @NonNull GameAssets gameAssets) {
+        this.javaPlugin = javaPlugin;
+        this.gameAssets = gameAssets;
+    }
+
+    @Override
+    public void start() {
+        if (isRunning) return;
+
+        isRunning = true;
+        taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
+            final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+
+            if (gameAssets.getGameState() == GameState.ENDING || gameConfiguration == null) {
+                stop();
+                return;
+            }
+
+            decayingWorld = gameConfiguration.gameMap();
+            arenaSnapshot = gameConfiguration.arenaSnapshot();
+            decayTimingWheel.advance(this::onDecayDue);
+            chunkBatchedBlockWriter.flush(decayingWorld, arenaSnapshot);
+        }, 0L, 1L);
+    }
+
+    @Override
+    public void stop() {
+        if (!isRunning) return;
+
+        isRunning = false;
+        BUKKIT_SCHEDULER.cancelTask(taskID);
+        decayTimingWheel.clear();
+        chunkBatchedBlockWriter.clear();
+        decayingWorld = null;
+        arenaSnapshot = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Schedules the decay of the block at the specified coordinates in the current game map.
+     * Nothing happens if the block is already decaying.
+     *
+     * @param x             Block x coordinate.
+     * @param y             Block y coordinate.
+     * @param z             Block z coordinate.
+     * @param decayMaterial The decay material of the block, which defines the delays of the decay.
+     * @return True if the decay was scheduled, false if the block was already decaying.
+     */
+    public boolean scheduleDecay(int x, int y, int z, @NonNull DecayMaterial decayMaterial) {
+        if (!isRunning) return false;
+
+        final long packedPosition = PackedBlockPosition.pack(x, y, z);
+
+        if (decayMaterial.hasWarningStage()) {
+            return decayTimingWheel.schedule(packedPosition, decayMaterial.getWarningDelayTicks(),
+                    toPayload(decayMaterial, STAGE_WARNING));
+        }
+
+        return decayTimingWheel.schedule(packedPosition, decayMaterial.getRemovalDelayTicks(),
+                toPayload(decayMaterial, STAGE_REMOVAL));
+    }
+
+    /**
+     * Queues the removal of the block at the specified coordinates in the current game map.
+     * The block is removed together with all decayed blocks at the end of the next decay tick.
+     *
+     * @param x Block x coordinate.
+     * @param y Block y coordinate.
+     * @param z Block z coordinate.
+     */
+    public void queueRemoval(int x, int y, int z) {
+        if (!isRunning) return;
+        chunkBatchedBlockWriter.queueRemoval(x, y, z);
+    }
+
+    /**
+     * Checks if the block at the specified coordinates is currently decaying.
+     *
+     * @param x Block x coordinate.
+     * @param y Block y coordinate.
+     * @param z Block z coordinate.
+     * @return True if the decay of the block is scheduled.
+     */
+    public boolean isDecaying(int x, int y, int z) {
+        return decayTimingWheel.isPending(PackedBlockPosition.pack(x, y, z));
+    }
+
+    /**
+     * Handles a block of which the decay delay has expired.
+     *
+     * @param packedPosition The packed position of the decayed block.
+     * @param payload        The payload containing the decay material and the decay stage.
+     */
+    private void onDecayDue(long packedPosition, int payload) {
+        final DecayMaterial decayMaterial = DECAY_MATERIALS[payload >>> 1];
+        final int x = PackedBlockPosition.unpackX(packedPosition);
+        final int y = PackedBlockPosition.unpackY(packedPosition);
+        final int z = PackedBlockPosition.unpackZ(packedPosition);
+
+        if ((payload & 1) == STAGE_WARNING) {
+            final Block block = decayingWorld.getBlockAt(x, y, z);
+
+            //The block could have been removed already, e.g. by the AFK remover.
+            if (block.getType() != decayMaterial.getMaterial()) return;
+
+            arenaSnapshot.record(block);
+            block.setType(decayMaterial.getWarningMaterial(), false);
+            decayTimingWheel.schedule(packedPosition, decayMaterial.getRemovalDelayTicks(),
+                    toPayload(decayMaterial, STAGE_REMOVAL));
+            return;
+        }
+
+        chunkBatchedBlockWriter.queueRemoval(x, y, z);
+        chunkBatchedBlockWriter.queueRemoval(x, y - 1, z);
+    }
+
+    private static int toPayload(@NonNull DecayMaterial decayMaterial, int stage) {
+        return (decayMaterial.ordinal() << 1) | stage;
+    }
+}
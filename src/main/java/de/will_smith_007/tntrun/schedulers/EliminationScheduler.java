@@ -0,0 +1,265 @@
+package de.will_smith_007.tntrun.schedulers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.enums.GameState;
+import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.game_config.GameConfiguration;
+import de.will_smith_007.tntrun.game_stats.MatchRecord;
+import de.will_smith_007.tntrun.game_stats.MatchStats;
+import de.will_smith_007.tntrun.game_stats.PlayerElimination;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
+import de.will_smith_007.tntrun.managers.StatsManager;
+import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
+import de.will_smith_007.tntrun.utilities.AlivePlayerRegistry;
+import de.will_smith_007.tntrun.utilities.GameAssets;
+import lombok.NonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eliminates all alive players who are below the death height of the game map once per tick.
+ * <br> <br>
+ * Players who fell in the same tick are eliminated as one batch: the deepest player is eliminated first and
+ * players on the same height are ordered by their {@link UUID}. If all remaining players fell in the same tick,
+ * the last player of this order wins the game.
+ */
+@Singleton
+public final class EliminationScheduler implements IScheduler {
+
+    private static final Comparator<FallenPlayer> ELIMINATION_ORDER = Comparator
+            .comparingDouble(FallenPlayer::height)
+            .thenComparing(fallenPlayer -> fallenPlayer.player().getUniqueId());
+
+    private int taskID;
+    private boolean isRunning;
+    private final JavaPlugin javaPlugin;
+    private final GameAssets gameAssets;
+    private final EndingCountdownScheduler endingCountdownScheduler;
+    private final StatsManager statsManager;
+    private final BroadcastManager broadcastManager;
+    private final Location sweepLocation = new Location(null, 0, 0, 0);
+    private final List<FallenPlayer> fallenPlayers = new ArrayList<>();
+    private final List<String> eliminatedPlayerNames = new ArrayList<>();
+
+    @Inject
+    public EliminationScheduler(@NonNull JavaPlugin javaPlugin,
+                                @NonNull GameAssets gameAssets,
+                                @NonNull EndingCountdownScheduler endingCountdownScheduler,
+                                @NonNull StatsManager statsManager,
+                                @NonNull BroadcastManager broadcastManager) {
+        this.javaPlugin = javaPlugin;
+        this.gameAssets = gameAssets;
+        this.endingCountdownScheduler = endingCountdownScheduler;
+        this.statsManager = statsManager;
+        this.broadcastManager = broadcastManager;
+    }
+
+    @Override
+    public void start() {
+        if (isRunning) return;
+
+        isRunning = true;
+        taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
+            final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+
+            if (gameAssets.getGameState() != GameState.INGAME || gameConfiguration == null) {
+                stop();
+                return;
+            }
+
+            sweep(gameConfiguration);
+        }, 0L, 1L);
+    }
+
+    @Override
+    public void stop() {
+        if (!isRunning) return;
+
+        isRunning = false;
+        BUKKIT_SCHEDULER.cancelTask(taskID);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Detects all alive players below the death height, eliminates them as one batch and ends the game
+     * if there's only one player left.
+     *
+     * @param gameConfiguration The configuration of the current game.
+     */
+    private void sweep(@NonNull GameConfiguration gameConfiguration) {
+        final AlivePlayerRegistry alivePlayerRegistry = gameAssets.getAlivePlayerRegistry();
+        final World gameMap = gameConfiguration.gameMap();
+        final int deathHeight = gameConfiguration.gameDeathHeight();
+
+        for (UUID playerUUID : alivePlayerRegistry.getAlivePlayerUUIDs()) {
+            final Player player = Bukkit.getPlayer(playerUUID);
+
+            if (player == null) continue;
+
+            player.getLocation(sweepLocation);
+
+            if (sweepLocation.getWorld() != gameMap) continue;
+
+            final double playerHeight = sweepLocation.getY();
+
+            //Player elimination when the current player height is below the configured death height of the map.
+            if ((int) playerHeight > deathHeight) continue;
+
+            fallenPlayers.add(new FallenPlayer(player, playerHeight));
+        }
+
+        sweepLocation.setWorld(null);
+
+        if (!fallenPlayers.isEmpty()) {
+            try {
+                eliminateFallenPlayers(gameConfiguration, alivePlayerRegistry);
+            } finally {
+                fallenPlayers.clear();
+            }
+        }
+
+        //Also ends the game if the other players have left the server.
+        if (alivePlayerRegistry.getAliveCount() <= 1) {
+            endGame(gameConfiguration, alivePlayerRegistry);
+        }
+    }
+
+    private void eliminateFallenPlayers(@NonNull GameConfiguration gameConfiguration,
+                                        @NonNull AlivePlayerRegistry alivePlayerRegistry) {
+        fallenPlayers.sort(ELIMINATION_ORDER);
+
+        //If all remaining players fell at the same time, the highest player wins the game.
+        if (fallenPlayers.size() >= alivePlayerRegistry.getAliveCount()) {
+            fallenPlayers.remove(fallenPlayers.size() - 1);
+        }
+
+        if (fallenPlayers.isEmpty()) return;
+
+        final long currentTimeMillis = System.currentTimeMillis();
+        final long startedGameTimeMillis = gameConfiguration.startedGameTimeMillis();
+        final Location gameMapSpawn = gameConfiguration.gameSpawnLocation();
+        eliminatedPlayerNames.clear();
+
+        for (FallenPlayer fallenPlayer : fallenPlayers) {
+            final Player player = fallenPlayer.player();
+            final UUID playerUUID = player.getUniqueId();
+            final PlayerElimination playerElimination = alivePlayerRegistry.eliminate(playerUUID, currentTimeMillis);
+
+            if (playerElimination == null) continue;
+
+            player.setGameMode(GameMode.SPECTATOR);
+            player.teleport(gameMapSpawn);
+
+            final long survivedTimeMillis = playerElimination.getSurvivedTimeMillis(startedGameTimeMillis);
+            player.sendPlainMessage(Message.PREFIX + "§aYou've survived §e" + getTimerFormat(survivedTimeMillis));
+
+            //The eliminated player gets a loss and the survived time milliseconds is updating if it's higher than before.
+            final MatchStats matchStats = gameConfiguration.matchStats();
+            matchStats.addGameLose(playerUUID);
+            matchStats.updateLongestSurvivedTime(playerUUID, survivedTimeMillis);
+
+            eliminatedPlayerNames.add(player.getName());
+        }
+
+        //Players which were already eliminated before aren't announced again.
+        if (eliminatedPlayerNames.isEmpty()) return;
+
+        final int lastIndex = eliminatedPlayerNames.size() - 1;
+        final StringBuilder fallenPlayerNames = new StringBuilder(eliminatedPlayerNames.get(0));
+
+        for (int index = 1; index <= lastIndex; index++) {
+            fallenPlayerNames.append(index == lastIndex ? "§c and §e" : "§c, §e")
+                    .append(eliminatedPlayerNames.get(index));
+        }
+
+        final int playersAliveSize = alivePlayerRegistry.getAliveCount();
+        broadcastManager.broadcastCoalesced("§e" + fallenPlayerNames + "§c fell to death! " +
+                (playersAliveSize > 1 ? playersAliveSize + "§c players remaining." :
+                        "§e" + alivePlayerRegistry.getParticipantName(alivePlayerRegistry.getFirstAlivePlayerUUID()) +
+                                "§a won the game!"));
+    }
+
+    /**
+     * Ends the game, the last alive player receives a win.
+     *
+     * @param gameConfiguration   The configuration of the current game.
+     * @param alivePlayerRegistry The registry which holds the last alive player.
+     */
+    private void endGame(@NonNull GameConfiguration gameConfiguration,
+                         @NonNull AlivePlayerRegistry alivePlayerRegistry) {
+        gameAssets.setGameState(GameState.ENDING);
+        stop();
+
+        if (endingCountdownScheduler.isRunning()) return;
+        endingCountdownScheduler.start();
+
+        final MatchStats matchStats = gameConfiguration.matchStats();
+        final long endedGameTimeMillis = System.currentTimeMillis();
+        final PlayerElimination winnerEntry = alivePlayerRegistry.recordWinner(endedGameTimeMillis);
+
+        if (winnerEntry != null) recordWinner(gameConfiguration, winnerEntry);
+
+        //All statistics and the history of this game are saved together.
+        statsManager.flushMatchStatsAsync(matchStats, new MatchRecord(UUID.randomUUID(),
+                gameConfiguration.gameMapName(), gameConfiguration.startedGameTimeMillis(), endedGameTimeMillis,
+                alivePlayerRegistry.getEliminations()));
+    }
+
+    /**
+     * Sends the survived time to the winner and adds the win to the statistics of this game.
+     *
+     * @param gameConfiguration The configuration of the current game.
+     * @param winnerEntry       The logged entry of the winner.
+     */
+    private void recordWinner(@NonNull GameConfiguration gameConfiguration, @NonNull PlayerElimination winnerEntry) {
+        final MatchStats matchStats = gameConfiguration.matchStats();
+        final UUID winnerPlayerUUID = winnerEntry.playerUUID();
+        final long survivedTimeMillis = winnerEntry.getSurvivedTimeMillis(gameConfiguration.startedGameTimeMillis());
+        final Player winnerPlayer = Bukkit.getPlayer(winnerPlayerUUID);
+
+        if (winnerPlayer != null) {
+            winnerPlayer.sendPlainMessage(Message.PREFIX + "§aYou've survived §e" + getTimerFormat(survivedTimeMillis));
+        }
+
+        //The winner gets a win and the survived time milliseconds is updating if it's higher than before.
+        matchStats.addGameWin(winnerPlayerUUID);
+        matchStats.updateLongestSurvivedTime(winnerPlayerUUID, survivedTimeMillis);
+    }
+
+    /**
+     * Gets the formatted timer of the specified timeMillis.
+     *
+     * @param timeMillis Time Milliseconds which should be formatted.
+     * @return The formatted String timer format in minutes and seconds.
+     */
+    private @NonNull String getTimerFormat(long timeMillis) {
+        final long timerMinutes = TimeUnit.MILLISECONDS.toMinutes(timeMillis);
+        return String.format("%02d minutes and %02d seconds",
+                timerMinutes,
+                (TimeUnit.MILLISECONDS.toSeconds(timeMillis) - TimeUnit.MINUTES.toSeconds(timerMinutes)));
+    }
+
+    /**
+     * A player who is below the death height in the current sweep.
+     *
+     * @param player The fallen player.
+     * @param height The height of the player in this tick.
+     */
+    private record FallenPlayer(@NonNull Player player, double height) {
+    }
+}
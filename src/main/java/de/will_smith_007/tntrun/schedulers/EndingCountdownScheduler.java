@@ -2,27 +2,34 @@ package de.will_smith_007.tntrun.schedulers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
 import de.will_smith_007.tntrun.schedulers.interfaces.ICountdownOptions;
 import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
 import lombok.NonNull;
-import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.Collection;
-
 @Singleton
 public final class EndingCountdownScheduler implements IScheduler, ICountdownOptions {
 
     private int taskID, countdown;
     private boolean isRunning = false;
     private final JavaPlugin javaPlugin;
+    private final Arena arena;
+    private final BroadcastManager broadcastManager;
+    private final ArenaResetScheduler arenaResetScheduler;
 
     @Inject
-    public EndingCountdownScheduler(@NonNull JavaPlugin javaPlugin) {
+    public EndingCountdownScheduler(@NonNull JavaPlugin javaPlugin,
+                                    @NonNull Arena arena,
+                                    @NonNull BroadcastManager broadcastManager,
+                                    @NonNull ArenaResetScheduler arenaResetScheduler) {
         this.javaPlugin = javaPlugin;
+        this.arena = arena;
+        this.broadcastManager = broadcastManager;
+        this.arenaResetScheduler = arenaResetScheduler;
     }
 
     @Override
@@ -34,16 +41,15 @@ public final class EndingCountdownScheduler implements IScheduler, ICountdownOpt
         taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
             switch (countdown) {
                 case 10, 5, 3, 2, 1 -> {
-                    final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
-
-                    onlinePlayers.forEach(player -> {
-                        player.sendPlainMessage(Message.PREFIX + getCountdownMessage(countdown));
-                        playCountdownSound(player);
-                    });
+                    broadcastManager.broadcastCountdown(this, countdown);
+                    arena.getPlayers().forEach(this::playCountdownSound);
+                }
+                case 0 -> {
+                    //Restores the game map in place instead of restarting the server.
+                    stop();
+                    arenaResetScheduler.start();
                 }
-                case 0 -> Bukkit.getServer().shutdown();
                 default -> {
-                    return;
                 }
             }
             countdown--;
@@ -71,7 +77,7 @@ public final class EndingCountdownScheduler implements IScheduler, ICountdownOpt
      */
     @Override
     public @NonNull String getCountdownMessage(int currentCountdown) {
-        return "The game is ending in §c" + countdown + (countdown == 1 ? " second§7." : " seconds§7.");
+        return "The game is ending in §c" + currentCountdown + (currentCountdown == 1 ? " second§7." : " seconds§7.");
     }
 
     @Override
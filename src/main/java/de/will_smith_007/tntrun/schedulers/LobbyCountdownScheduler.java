@@ -2,10 +2,15 @@ package de.will_smith_007.tntrun.schedulers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
+import de.will_smith_007.tntrun.block_decay.ArenaSnapshot;
 import de.will_smith_007.tntrun.enums.GameState;
-import de.will_smith_007.tntrun.enums.Message;
 import de.will_smith_007.tntrun.game_config.GameConfiguration;
+import de.will_smith_007.tntrun.managers.ArenaManager;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
 import de.will_smith_007.tntrun.managers.MapManager;
+import de.will_smith_007.tntrun.managers.MapTemplateManager;
+import de.will_smith_007.tntrun.managers.StatsManager;
 import de.will_smith_007.tntrun.schedulers.interfaces.ICountdownOptions;
 import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
 import de.will_smith_007.tntrun.utilities.GameAssets;
@@ -17,92 +22,97 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @Singleton
 public final class LobbyCountdownScheduler implements IScheduler, ICountdownOptions {
 
+    //The radius in chunks around the map spawn which is loaded during the countdown.
+    private static final int WARM_UP_RADIUS = 4;
+
     private int taskID;
     @Setter
     @Getter
     private int countdown;
     private boolean isRunning = false;
+    private String selectedGameMapName;
+    private World selectedGameMap;
+    private Location gameMapSpawn;
+    private CompletableFuture<String> templateCloning;
     private final JavaPlugin javaPlugin;
     private final Logger logger;
+    private final Arena arena;
     private final GameAssets gameAssets;
+    private final ArenaManager arenaManager;
     private final MapManager mapManager;
+    private final MapTemplateManager mapTemplateManager;
+    private final BroadcastManager broadcastManager;
+    private final StatsManager statsManager;
     private final ProtectionCountdownScheduler protectionCountdownScheduler;
 
     @Inject
     public LobbyCountdownScheduler(@NonNull JavaPlugin javaPlugin,
+                                   @NonNull Arena arena,
                                    @NonNull GameAssets gameAssets,
+                                   @NonNull ArenaManager arenaManager,
                                    @NonNull MapManager mapManager,
+                                   @NonNull MapTemplateManager mapTemplateManager,
+                                   @NonNull BroadcastManager broadcastManager,
+                                   @NonNull StatsManager statsManager,
                                    @NonNull ProtectionCountdownScheduler protectionCountdownScheduler) {
         this.javaPlugin = javaPlugin;
         this.logger = javaPlugin.getLogger();
+        this.arena = arena;
         this.gameAssets = gameAssets;
+        this.arenaManager = arenaManager;
         this.mapManager = mapManager;
+        this.mapTemplateManager = mapTemplateManager;
+        this.broadcastManager = broadcastManager;
+        this.statsManager = statsManager;
         this.protectionCountdownScheduler = protectionCountdownScheduler;
     }
 
     @Override
     public void start() {
         if (isRunning) return;
+        if (!prepareGameMap()) return;
 
         countdown = 60;
         isRunning = true;
-        logger.info("The countdown is starting...");
+        logger.info("The countdown of the arena #" + arena.getArenaID() + " is starting...");
 
         taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
-            final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+            final Collection<Player> arenaPlayers = arena.getPlayers();
 
-            onlinePlayers.forEach(player -> player.setLevel(countdown));
+            arenaPlayers.forEach(player -> player.setLevel(countdown));
 
             switch (countdown) {
                 //Lobby phase mechanics.
-                case 30, 10, 5, 3, 2, 1 -> onlinePlayers.forEach(player -> {
-                    player.sendPlainMessage(Message.PREFIX + getCountdownMessage(countdown));
-                    playCountdownSound(player);
-                });
+                case 30, 10, 5, 3, 2, 1 -> {
+                    broadcastManager.broadcastCountdown(this, countdown);
+                    arenaPlayers.forEach(this::playCountdownSound);
+                }
                 case 0 -> {
-                    //Starting game mechanics.
-                    onlinePlayers.forEach(player ->
-                            player.sendPlainMessage(Message.PREFIX + "The game is starting now."));
-
-                    gameAssets.setGameState(GameState.PROTECTION);
-                    gameAssets.getOnlinePlayersAlive().addAll(onlinePlayers);
+                    //The countdown is held until the copy of the game map is loaded.
+                    if (selectedGameMap == null) return;
 
-                    final List<String> gameMaps = mapManager.getMapList();
-                    Collections.shuffle(gameMaps);
+                    //Starting game mechanics, the game map and its spawn chunks are already loaded.
+                    broadcastManager.broadcast("The game is starting now.");
 
-                    final String selectedGameMapName = gameMaps.get(0);
-                    final World selectedGameMap = mapManager.loadMap(selectedGameMapName);
-
-                    if (selectedGameMap == null) {
-                        logger.severe("The game map named \"" + selectedGameMapName + "\" couldn't be found.");
-                        stop();
-                        return;
-                    }
-
-                    final Location gameMapSpawn = mapManager.getMapSpawnPoint(selectedGameMapName);
-
-                    if (gameMapSpawn == null) {
-                        logger.severe("There isn't a configured spawn point for the map named \"" +
-                                selectedGameMapName + "\"");
-                        stop();
-                        return;
-                    }
+                    gameAssets.setGameConfiguration(new GameConfiguration(selectedGameMap, selectedGameMapName,
+                            gameMapSpawn, mapManager.getDeathHeight(selectedGameMapName), System.currentTimeMillis(),
+                            new ArenaSnapshot(selectedGameMap), statsManager.createMatchStats()));
 
-                    final int deathHeight = mapManager.getDeathHeight(selectedGameMapName);
+                    gameAssets.setGameState(GameState.PROTECTION);
+                    gameAssets.getAlivePlayerRegistry().registerPlayers(arenaPlayers);
+                    gameAssets.getGameConfiguration().matchStats().getMatchCounters().registerPlayers(arenaPlayers);
 
-                    gameAssets.setGameConfiguration(
-                            new GameConfiguration(selectedGameMap, gameMapSpawn, deathHeight, System.currentTimeMillis())
-                    );
+                    final Location centeredGameMapSpawn = gameMapSpawn.toCenterLocation();
 
-                    onlinePlayers.forEach(player -> {
-                        player.teleport(gameMapSpawn.toCenterLocation());
+                    arenaPlayers.forEach(player -> {
+                        player.teleport(centeredGameMapSpawn);
                         player.setGameMode(GameMode.ADVENTURE);
                     });
 
@@ -113,7 +123,6 @@ public final class LobbyCountdownScheduler implements IScheduler, ICountdownOpti
                     stop();
                 }
                 default -> {
-                    return;
                 }
             }
 
@@ -127,7 +136,22 @@ public final class LobbyCountdownScheduler implements IScheduler, ICountdownOpti
 
         isRunning = false;
         BUKKIT_SCHEDULER.cancelTask(taskID);
-        logger.info("The starting countdown was cancelled.");
+
+        //The game map is only kept if the game has started.
+        if (gameAssets.getGameState() == GameState.LOBBY) {
+            arenaManager.releaseGameMap(arena);
+
+            if (selectedGameMap != null) {
+                selectedGameMap.removePluginChunkTickets(javaPlugin);
+                mapTemplateManager.disposeInstance(selectedGameMap);
+            }
+            logger.info("The starting countdown was cancelled.");
+        }
+
+        templateCloning = null;
+        selectedGameMapName = null;
+        selectedGameMap = null;
+        gameMapSpawn = null;
     }
 
     @Override
@@ -143,11 +167,95 @@ public final class LobbyCountdownScheduler implements IScheduler, ICountdownOpti
      */
     @Override
     public @NonNull String getCountdownMessage(int currentCountdown) {
-        return "The game is starting in §c" + countdown + (countdown == 1 ? " second§7." : " seconds§7.");
+        return "The game is starting in §c" + currentCountdown + (currentCountdown == 1 ? " second§7." : " seconds§7.");
     }
 
     @Override
     public void playCountdownSound(@NonNull Player player) {
         player.playSound(player.getLocation(), Sound.BLOCK_NOTE_BLOCK_BASS, 1.0f, 1.0f);
     }
+
+    /**
+     * Selects a free game map for the next game and starts to prepare it before the countdown starts, so that
+     * the game start only has to teleport the players. The template of the game map is copied asynchronously
+     * and loaded afterwards.
+     *
+     * @return True if a game map was selected, false if there isn't a free game map.
+     */
+    private boolean prepareGameMap() {
+        //Every game map can only be used by one arena at the same time.
+        final String gameMapName = arenaManager.claimGameMap(arena);
+
+        if (gameMapName == null) {
+            logger.severe("There isn't any free game map for the arena #" + arena.getArenaID() + ".");
+            return false;
+        }
+
+        final CompletableFuture<String> templateCloning = mapTemplateManager.cloneTemplateAsync(gameMapName);
+
+        selectedGameMapName = gameMapName;
+        this.templateCloning = templateCloning;
+
+        templateCloning.whenComplete((instanceWorldName, throwable) -> BUKKIT_SCHEDULER.runTask(javaPlugin, () -> {
+            //The countdown could have been cancelled while the template was copied.
+            if (this.templateCloning != templateCloning) {
+                if (instanceWorldName != null) mapTemplateManager.disposeInstance(instanceWorldName);
+                return;
+            }
+
+            this.templateCloning = null;
+            loadGameMap(gameMapName, instanceWorldName, throwable);
+        }));
+
+        broadcastManager.broadcast("The map §e" + gameMapName + "§7 was selected.");
+        return true;
+    }
+
+    /**
+     * Loads the copy of the selected game map. The chunks around the map spawn are loaded asynchronously
+     * during the countdown and kept loaded by plugin chunk tickets.
+     * <br> <br>
+     * If the template couldn't be copied, the configured game map is loaded instead and restored by the
+     * {@link de.will_smith_007.tntrun.block_decay.ArenaSnapshot} after the game.
+     *
+     * @param gameMapName       Name of the selected game map.
+     * @param instanceWorldName Name of the copied game map, null if the template couldn't be copied.
+     * @param throwable         The reason why the template couldn't be copied, null if it was copied.
+     */
+    private void loadGameMap(@NonNull String gameMapName, String instanceWorldName, Throwable throwable) {
+        final World gameMap;
+
+        if (throwable == null) {
+            gameMap = mapTemplateManager.loadInstance(instanceWorldName);
+        } else {
+            logger.log(Level.WARNING, "The template of the game map named \"" + gameMapName +
+                    "\" couldn't be copied, the game map is used directly.", throwable);
+            gameMap = mapManager.loadMap(gameMapName);
+        }
+
+        if (gameMap == null) {
+            logger.severe("The game map named \"" + gameMapName + "\" couldn't be loaded.");
+            stop();
+            return;
+        }
+
+        final Location gameMapSpawnPoint = mapManager.getMapSpawnPoint(gameMapName, gameMap);
+
+        selectedGameMap = gameMap;
+        gameMapSpawn = gameMapSpawnPoint;
+        arenaManager.registerGameMap(arena, gameMap);
+
+        final int spawnChunkX = gameMapSpawnPoint.getBlockX() >> 4;
+        final int spawnChunkZ = gameMapSpawnPoint.getBlockZ() >> 4;
+
+        for (int chunkX = spawnChunkX - WARM_UP_RADIUS; chunkX <= spawnChunkX + WARM_UP_RADIUS; chunkX++) {
+            for (int chunkZ = spawnChunkZ - WARM_UP_RADIUS; chunkZ <= spawnChunkZ + WARM_UP_RADIUS; chunkZ++) {
+                gameMap.getChunkAtAsync(chunkX, chunkZ).thenAccept(chunk -> {
+                    //The countdown could have been cancelled while the chunk was loading.
+                    if (selectedGameMap != gameMap) return;
+                    chunk.addPluginChunkTicket(javaPlugin);
+                });
+            }
+        }
+    }
 }
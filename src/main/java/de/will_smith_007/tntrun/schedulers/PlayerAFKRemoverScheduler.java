@@ -2,37 +2,38 @@ package de.will_smith_007.tntrun.schedulers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
 import de.will_smith_007.tntrun.enums.GameState;
+import de.will_smith_007.tntrun.game_config.GameConfiguration;
+import de.will_smith_007.tntrun.game_stats.MatchCounters;
 import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
 import de.will_smith_007.tntrun.utilities.GameAssets;
 import lombok.NonNull;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.World;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.util.BoundingBox;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-
 @Singleton
 public final class PlayerAFKRemoverScheduler implements IScheduler {
 
     private int taskID;
     private boolean isRunning;
     private final JavaPlugin javaPlugin;
+    private final Arena arena;
     private final GameAssets gameAssets;
+    private final BlockDecayScheduler blockDecayScheduler;
 
     @Inject
     public PlayerAFKRemoverScheduler(@NonNull JavaPlugin javaPlugin,
-                                     @NonNull GameAssets gameAssets) {
+                                     @NonNull Arena arena,
+                                     @NonNull GameAssets gameAssets,
+                                     @NonNull BlockDecayScheduler blockDecayScheduler) {
         this.javaPlugin = javaPlugin;
+        this.arena = arena;
         this.gameAssets = gameAssets;
+        this.blockDecayScheduler = blockDecayScheduler;
     }
 
     @Override
@@ -48,9 +49,13 @@ public final class PlayerAFKRemoverScheduler implements IScheduler {
                 return;
             }
 
-            final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+            final GameConfiguration gameConfiguration = gameAssets.getGameConfiguration();
+
+            if (gameConfiguration == null) return;
+
+            final MatchCounters matchCounters = gameConfiguration.matchStats().getMatchCounters();
 
-            for (Player player : onlinePlayers) {
+            for (Player player : arena.getPlayers()) {
                 final AttributeInstance speedAttributeInstance = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
 
                 if (speedAttributeInstance == null) continue;
@@ -62,6 +67,9 @@ public final class PlayerAFKRemoverScheduler implements IScheduler {
                 if (speed != 0.10d) continue;
 
                 removeBlocksUnderneath(player);
+
+                final int playerSlot = matchCounters.getSlot(player.getUniqueId());
+                if (playerSlot >= 0) matchCounters.addAFKRemoval(playerSlot);
             }
         }, 0L, 5L);
     }
@@ -80,23 +88,22 @@ public final class PlayerAFKRemoverScheduler implements IScheduler {
     }
 
     /**
-     * Removes all underneath blocks where the player stands on.
+     * Removes all underneath blocks where the player stands on. The blocks are removed together with
+     * the decayed blocks of the {@link BlockDecayScheduler} at the end of the next tick.
+     *
      * @param player Player from which the underneath blocks should be removed.
      */
     public void removeBlocksUnderneath(@NonNull Player player) {
-        final Set<Location> locations = new HashSet<>();
-        final World playerWorld = player.getWorld();
         final BoundingBox boundingBox = player.getBoundingBox().expand(0.3, 0, 0.3);
+        final int blockBelowY = (int) Math.floor(boundingBox.getMinY() - 1);
 
         for (double x = boundingBox.getMinX(); x < boundingBox.getMaxX(); x++) {
             for (double z = boundingBox.getMinZ(); z < boundingBox.getMaxZ(); z++) {
-                locations.add(new Location(playerWorld, x, boundingBox.getMinY() - 1, z));
-                locations.add(new Location(playerWorld, x, boundingBox.getMinY() - 2, z));
+                final int blockX = (int) Math.floor(x);
+                final int blockZ = (int) Math.floor(z);
+                blockDecayScheduler.queueRemoval(blockX, blockBelowY, blockZ);
+                blockDecayScheduler.queueRemoval(blockX, blockBelowY - 1, blockZ);
             }
         }
-
-        for (Location location : locations) {
-            location.getBlock().setType(Material.AIR);
-        }
     }
 }
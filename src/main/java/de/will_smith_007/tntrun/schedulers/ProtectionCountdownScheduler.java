@@ -2,13 +2,13 @@ package de.will_smith_007.tntrun.schedulers;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.arena.Arena;
 import de.will_smith_007.tntrun.enums.GameState;
-import de.will_smith_007.tntrun.enums.Message;
+import de.will_smith_007.tntrun.managers.BroadcastManager;
 import de.will_smith_007.tntrun.schedulers.interfaces.ICountdownOptions;
 import de.will_smith_007.tntrun.schedulers.interfaces.IScheduler;
 import de.will_smith_007.tntrun.utilities.GameAssets;
 import lombok.NonNull;
-import org.bukkit.Bukkit;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -21,16 +21,28 @@ public final class ProtectionCountdownScheduler implements IScheduler, ICountdow
     private int taskID, countdown;
     private boolean isRunning;
     private final JavaPlugin javaPlugin;
+    private final Arena arena;
     private final GameAssets gameAssets;
+    private final BroadcastManager broadcastManager;
     private final PlayerAFKRemoverScheduler playerAFKRemoverScheduler;
+    private final BlockDecayScheduler blockDecayScheduler;
+    private final EliminationScheduler eliminationScheduler;
 
     @Inject
     public ProtectionCountdownScheduler(@NonNull JavaPlugin javaPlugin,
+                                        @NonNull Arena arena,
                                         @NonNull GameAssets gameAssets,
-                                        @NonNull PlayerAFKRemoverScheduler playerAFKRemoverScheduler) {
+                                        @NonNull BroadcastManager broadcastManager,
+                                        @NonNull PlayerAFKRemoverScheduler playerAFKRemoverScheduler,
+                                        @NonNull BlockDecayScheduler blockDecayScheduler,
+                                        @NonNull EliminationScheduler eliminationScheduler) {
         this.javaPlugin = javaPlugin;
+        this.arena = arena;
         this.gameAssets = gameAssets;
+        this.broadcastManager = broadcastManager;
         this.playerAFKRemoverScheduler = playerAFKRemoverScheduler;
+        this.blockDecayScheduler = blockDecayScheduler;
+        this.eliminationScheduler = eliminationScheduler;
     }
 
     @Override
@@ -41,19 +53,19 @@ public final class ProtectionCountdownScheduler implements IScheduler, ICountdow
         isRunning = true;
         taskID = BUKKIT_SCHEDULER.scheduleSyncRepeatingTask(javaPlugin, () -> {
 
-            final Collection<? extends Player> onlinePlayers = Bukkit.getOnlinePlayers();
+            final Collection<Player> arenaPlayers = arena.getPlayers();
 
             if (countdown == 0) {
                 gameAssets.setGameState(GameState.INGAME);
+                blockDecayScheduler.start();
+                eliminationScheduler.start();
                 playerAFKRemoverScheduler.start();
                 stop();
                 return;
             }
 
-            onlinePlayers.forEach(player -> {
-                player.sendPlainMessage(Message.PREFIX + getCountdownMessage(countdown));
-                playCountdownSound(player);
-            });
+            broadcastManager.broadcastCountdown(this, countdown);
+            arenaPlayers.forEach(this::playCountdownSound);
 
             countdown--;
         }, 0L, 20L);
@@ -80,7 +92,7 @@ public final class ProtectionCountdownScheduler implements IScheduler, ICountdow
      */
     @Override
     public @NonNull String getCountdownMessage(int currentCountdown) {
-        return "Protection ends in §c" + countdown + (countdown == 1 ? " second§7." : " seconds§7.");
+        return "Protection ends in §c" + currentCountdown + (currentCountdown == 1 ? " second§7." : " seconds§7.");
     }
 
     @Override
@@ -0,0 +1,132 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import de.will_smith_007.tntrun.game_stats.MatchStats;
+import de.will_smith_007.tntrun.stats_journal.interfaces.IJournalEntry;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A single change of the statistics of a player, which is written to the {@link StatsJournal}.
+ * <br> <br>
+ * Every record has a fixed size of {@link #RECORD_BYTES} bytes, starts with its {@link #TYPE} and ends with
+ * a CRC32 checksum, so that a partially written record at the end of the journal is detected.
+ *
+ * @param sequence            The unique and increasing sequence number of this record on this server.
+ * @param playerUUID          The UUID of the player.
+ * @param wins                The wins which should be added.
+ * @param loses               The loses which should be added.
+ * @param longestSurvivedTime The survived milliseconds, which are only saved if they're higher than before.
+ * @param playedAt            The end of the game in milliseconds since the epoch, which decides the buckets
+ *                            of the time-windowed leaderboards.
+ * @param blocksBroken        The broken blocks which should be added.
+ * @param distanceRun         The run distance in blocks which should be added.
+ * @param airTime             The milliseconds in the air which should be added.
+ * @param afkRemovals         The AFK removals which should be added.
+ */
+public record JournalRecord(long sequence,
+                            @NonNull UUID playerUUID,
+                            int wins,
+                            int loses,
+                            long longestSurvivedTime,
+                            long playedAt,
+                            int blocksBroken,
+                            long distanceRun,
+                            long airTime,
+                            int afkRemovals) implements IJournalEntry {
+
+    public static final byte TYPE = 1;
+    //Type, sequence, UUID, wins, loses, longest survived time, the end of the game, the counters and the checksum.
+    public static final int RECORD_BYTES = Byte.BYTES + Long.BYTES * 7 + Integer.BYTES * 5;
+
+    private static final int PAYLOAD_BYTES = RECORD_BYTES - Integer.BYTES;
+
+    /**
+     * Creates a record of the changes of a player in a game.
+     *
+     * @param sequence         The sequence number of the record.
+     * @param playerStatsDelta The changes of the player in a game.
+     * @param playedAt         The end of the game in milliseconds since the epoch.
+     * @return The created record.
+     */
+    public static @NonNull JournalRecord of(long sequence, MatchStats.@NonNull PlayerStatsDelta playerStatsDelta,
+                                            long playedAt) {
+        return new JournalRecord(sequence, playerStatsDelta.getPlayerUUID(), playerStatsDelta.getWins(),
+                playerStatsDelta.getLoses(), playerStatsDelta.getLongestSurvivedTime(), playedAt,
+                playerStatsDelta.getBlocksBroken(), playerStatsDelta.getDistanceRun(), playerStatsDelta.getAirTime(),
+                playerStatsDelta.getAfkRemovals());
+    }
+
+    @Override
+    public int getEncodedBytes() {
+        return RECORD_BYTES;
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer byteBuffer) {
+        final int startPosition = byteBuffer.position();
+
+        byteBuffer.put(TYPE)
+                .putLong(sequence)
+                .putLong(playerUUID.getMostSignificantBits())
+                .putLong(playerUUID.getLeastSignificantBits())
+                .putInt(wins)
+                .putInt(loses)
+                .putLong(longestSurvivedTime)
+                .putLong(playedAt)
+                .putInt(blocksBroken)
+                .putLong(distanceRun)
+                .putLong(airTime)
+                .putInt(afkRemovals);
+
+        byteBuffer.putInt(checksum(byteBuffer, startPosition));
+    }
+
+    /**
+     * Reads a record at the current position of the buffer.
+     *
+     * @param byteBuffer The buffer from which the record should be read.
+     * @return The read record, or null if there aren't enough bytes, the type doesn't match or the checksum
+     * doesn't match. The position of the buffer is only moved if a record was read.
+     */
+    public static JournalRecord readFrom(@NonNull ByteBuffer byteBuffer) {
+        final int startPosition = byteBuffer.position();
+
+        if (byteBuffer.remaining() < RECORD_BYTES || byteBuffer.get(startPosition) != TYPE) return null;
+
+        final int expectedChecksum = byteBuffer.getInt(startPosition + PAYLOAD_BYTES);
+
+        //Moves the position behind the payload, which is the end of the checksummed bytes.
+        byteBuffer.position(startPosition + PAYLOAD_BYTES);
+        if (checksum(byteBuffer, startPosition) != expectedChecksum) {
+            byteBuffer.position(startPosition);
+            return null;
+        }
+
+        final int payloadPosition = startPosition + Byte.BYTES;
+        final JournalRecord journalRecord = new JournalRecord(
+                byteBuffer.getLong(payloadPosition),
+                new UUID(byteBuffer.getLong(payloadPosition + 8), byteBuffer.getLong(payloadPosition + 16)),
+                byteBuffer.getInt(payloadPosition + 24),
+                byteBuffer.getInt(payloadPosition + 28),
+                byteBuffer.getLong(payloadPosition + 32),
+                byteBuffer.getLong(payloadPosition + 40),
+                byteBuffer.getInt(payloadPosition + 48),
+                byteBuffer.getLong(payloadPosition + 52),
+                byteBuffer.getLong(payloadPosition + 60),
+                byteBuffer.getInt(payloadPosition + 68)
+        );
+
+        byteBuffer.position(startPosition + RECORD_BYTES);
+        return journalRecord;
+    }
+
+    //Checksum of the bytes from the start position up to the current position of the buffer.
+    static int checksum(@NonNull ByteBuffer byteBuffer, int startPosition) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(byteBuffer.duplicate().position(startPosition).limit(byteBuffer.position()));
+        return (int) crc32.getValue();
+    }
+}
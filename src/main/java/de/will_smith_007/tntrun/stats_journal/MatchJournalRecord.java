@@ -0,0 +1,191 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import de.will_smith_007.tntrun.game_stats.MatchRecord;
+import de.will_smith_007.tntrun.game_stats.PlayerElimination;
+import de.will_smith_007.tntrun.stats_journal.interfaces.IJournalEntry;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The history of a single game, which is written to the {@link StatsJournal} together with the statistics
+ * of the game.
+ * <br> <br>
+ * The size of the record depends on the map name and the amount of participants, so the record starts with
+ * its {@link #TYPE} and the size of its payload and ends with a CRC32 checksum.
+ *
+ * @param sequence   The unique and increasing sequence number of this record on this server.
+ * @param matchUUID  The unique id of the game.
+ * @param mapName    The name of the game map, which is shortened to {@link #MAX_MAP_NAME_LENGTH} characters.
+ * @param startedAt  Time milliseconds of the game start.
+ * @param endedAt    Time milliseconds of the game end.
+ * @param placements The placements of all participants.
+ */
+public record MatchJournalRecord(long sequence,
+                                 @NonNull UUID matchUUID,
+                                 @NonNull String mapName,
+                                 long startedAt,
+                                 long endedAt,
+                                 @NonNull List<Placement> placements) implements IJournalEntry {
+
+    public static final byte TYPE = 2;
+    public static final int MAX_MAP_NAME_LENGTH = 64;
+
+    //Type, size of the payload and the checksum.
+    private static final int FRAME_BYTES = Byte.BYTES + Integer.BYTES * 2;
+    //Sequence, match UUID, start, end, length of the map name and the amount of participants.
+    private static final int FIXED_PAYLOAD_BYTES = Long.BYTES * 5 + Short.BYTES + Integer.BYTES;
+    private static final int PLACEMENT_BYTES = Long.BYTES * 3 + Integer.BYTES;
+    //A corrupted size mustn't allocate a huge array.
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    /**
+     * Creates a record of the history of a game.
+     *
+     * @param sequence    The sequence number of the record.
+     * @param matchRecord The history of the game which has ended.
+     * @return The created record.
+     */
+    public static @NonNull MatchJournalRecord of(long sequence, @NonNull MatchRecord matchRecord) {
+        final String mapName = (matchRecord.mapName().length() > MAX_MAP_NAME_LENGTH ?
+                matchRecord.mapName().substring(0, MAX_MAP_NAME_LENGTH) : matchRecord.mapName());
+        final List<Placement> placements = new ArrayList<>(matchRecord.eliminations().size());
+
+        for (PlayerElimination playerElimination : matchRecord.eliminations()) {
+            placements.add(new Placement(playerElimination.playerUUID(), playerElimination.placement(),
+                    playerElimination.getSurvivedTimeMillis(matchRecord.startedAt())));
+        }
+
+        return new MatchJournalRecord(sequence, matchRecord.matchUUID(), mapName, matchRecord.startedAt(),
+                matchRecord.endedAt(), List.copyOf(placements));
+    }
+
+    /**
+     * Gets the duration of the game.
+     *
+     * @return The duration in milliseconds.
+     */
+    public long getDurationMillis() {
+        return endedAt - startedAt;
+    }
+
+    @Override
+    public int getEncodedBytes() {
+        return FRAME_BYTES + getPayloadBytes(mapName.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Override
+    public void writeTo(@NonNull ByteBuffer byteBuffer) {
+        final int startPosition = byteBuffer.position();
+        final byte[] mapNameBytes = mapName.getBytes(StandardCharsets.UTF_8);
+
+        byteBuffer.put(TYPE)
+                .putInt(getPayloadBytes(mapNameBytes.length))
+                .putLong(sequence)
+                .putLong(matchUUID.getMostSignificantBits())
+                .putLong(matchUUID.getLeastSignificantBits())
+                .putLong(startedAt)
+                .putLong(endedAt)
+                .putShort((short) mapNameBytes.length)
+                .put(mapNameBytes)
+                .putInt(placements.size());
+
+        for (Placement placement : placements) {
+            byteBuffer.putLong(placement.playerUUID().getMostSignificantBits())
+                    .putLong(placement.playerUUID().getLeastSignificantBits())
+                    .putInt(placement.placement())
+                    .putLong(placement.survivedTime());
+        }
+
+        byteBuffer.putInt(JournalRecord.checksum(byteBuffer, startPosition));
+    }
+
+    /**
+     * Reads a record at the current position of the buffer.
+     *
+     * @param byteBuffer The buffer from which the record should be read.
+     * @return The read record, or null if there aren't enough bytes, the type doesn't match or the checksum
+     * doesn't match. The position of the buffer is only moved if a record was read.
+     */
+    public static MatchJournalRecord readFrom(@NonNull ByteBuffer byteBuffer) {
+        final int startPosition = byteBuffer.position();
+
+        if (byteBuffer.remaining() < FRAME_BYTES + FIXED_PAYLOAD_BYTES || byteBuffer.get(startPosition) != TYPE) {
+            return null;
+        }
+
+        final int payloadBytes = byteBuffer.getInt(startPosition + Byte.BYTES);
+
+        if (payloadBytes < FIXED_PAYLOAD_BYTES || payloadBytes > MAX_PAYLOAD_BYTES
+                || byteBuffer.remaining() < FRAME_BYTES + payloadBytes) {
+            return null;
+        }
+
+        final int payloadPosition = startPosition + Byte.BYTES + Integer.BYTES;
+        final int checksumPosition = payloadPosition + payloadBytes;
+        final int expectedChecksum = byteBuffer.getInt(checksumPosition);
+
+        //Moves the position behind the payload, which is the end of the checksummed bytes.
+        byteBuffer.position(checksumPosition);
+        if (JournalRecord.checksum(byteBuffer, startPosition) != expectedChecksum) {
+            byteBuffer.position(startPosition);
+            return null;
+        }
+
+        final MatchJournalRecord matchJournalRecord = readPayload(byteBuffer.slice(payloadPosition, payloadBytes));
+
+        if (matchJournalRecord == null) {
+            byteBuffer.position(startPosition);
+            return null;
+        }
+
+        byteBuffer.position(checksumPosition + Integer.BYTES);
+        return matchJournalRecord;
+    }
+
+    //Returns null if the sizes inside of the payload don't match the size of the payload.
+    private static MatchJournalRecord readPayload(@NonNull ByteBuffer payloadBuffer) {
+        final long sequence = payloadBuffer.getLong();
+        final UUID matchUUID = new UUID(payloadBuffer.getLong(), payloadBuffer.getLong());
+        final long startedAt = payloadBuffer.getLong();
+        final long endedAt = payloadBuffer.getLong();
+        final int mapNameLength = Short.toUnsignedInt(payloadBuffer.getShort());
+
+        if (payloadBuffer.remaining() < mapNameLength + Integer.BYTES) return null;
+
+        final byte[] mapNameBytes = new byte[mapNameLength];
+        payloadBuffer.get(mapNameBytes);
+        final int placementCount = payloadBuffer.getInt();
+
+        if (placementCount < 0 || payloadBuffer.remaining() != placementCount * PLACEMENT_BYTES) return null;
+
+        final List<Placement> placements = new ArrayList<>(placementCount);
+        for (int index = 0; index < placementCount; index++) {
+            placements.add(new Placement(new UUID(payloadBuffer.getLong(), payloadBuffer.getLong()),
+                    payloadBuffer.getInt(), payloadBuffer.getLong()));
+        }
+
+        return new MatchJournalRecord(sequence, matchUUID, new String(mapNameBytes, StandardCharsets.UTF_8),
+                startedAt, endedAt, List.copyOf(placements));
+    }
+
+    private int getPayloadBytes(int mapNameBytes) {
+        return FIXED_PAYLOAD_BYTES + mapNameBytes + placements.size() * PLACEMENT_BYTES;
+    }
+
+    /**
+     * The placement of a participant of the game.
+     *
+     * @param playerUUID   The UUID of the player.
+     * @param placement    The final placement of the player. The winner has the placement 1.
+     * @param survivedTime The survived milliseconds of the player.
+     */
+    public record Placement(@NonNull UUID playerUUID,
+                            int placement,
+                            long survivedTime) {
+    }
+}
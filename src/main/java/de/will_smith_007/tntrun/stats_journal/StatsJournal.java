@@ -0,0 +1,354 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.game_stats.MatchRecord;
+import de.will_smith_007.tntrun.game_stats.MatchStats;
+import de.will_smith_007.tntrun.stats_journal.interfaces.IJournalEntry;
+import lombok.Getter;
+import lombok.NonNull;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link StatsJournal} is an append-only file in the plugin directory, in which all changes of the
+ * statistics are written before they're saved in the database. This way no statistics are lost if the
+ * database isn't reachable or the server stops.
+ * <br> <br>
+ * The journal starts with a header, which contains the {@link UUID} of this server and the next sequence number,
+ * followed by {@link JournalRecord}s and the {@link MatchJournalRecord}s of the games. All appends which arrive
+ * while the journal is written are written together and synced to the disk with a single fsync. The journal is
+ * truncated as soon as all records were saved in the database.
+ */
+@Singleton
+public class StatsJournal {
+
+    private static final int MAGIC_NUMBER = 0x544E544A;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES * 3;
+    //Stops the journal writer, because interrupting it would close the file channel.
+    private static final PendingAppend CLOSE_MARKER = new PendingAppend(List.of(), new CompletableFuture<>());
+
+    private final Logger logger;
+    private final File journalFile;
+    private final BlockingQueue<PendingAppend> pendingAppends = new LinkedBlockingQueue<>();
+    private final List<IJournalEntry> unreplayedRecords = new ArrayList<>();
+    private final AtomicLong nextSequence = new AtomicLong(1L);
+    private final Object journalLock = new Object();
+
+    @Getter
+    private UUID serverUUID;
+    private FileChannel journalChannel;
+    private volatile Thread journalWriter;
+
+    /**
+     * Creates the journal of the "stats.journal" file in the directory of this plugin.
+     * The file is opened by {@link #open()}.
+     *
+     * @param javaPlugin Java plugin which contains required information such as the directory path of
+     *                   this plugin or the configured {@link Logger}
+     */
+    @Inject
+    public StatsJournal(@NonNull JavaPlugin javaPlugin) {
+        this.logger = javaPlugin.getLogger();
+        this.journalFile = new File(javaPlugin.getDataFolder(), "stats.journal");
+    }
+
+    /**
+     * Opens the journal file, reads the records which weren't saved yet and starts the thread
+     * which writes the appended records.
+     *
+     * @throws IOException If the journal file couldn't be opened.
+     * @apiNote Must be called once before records are appended.
+     */
+    public void open() throws IOException {
+        synchronized (journalLock) {
+            if (journalChannel != null) return;
+
+            if (journalFile.getParentFile().mkdirs()) {
+                logger.info("Journal directory was created.");
+            }
+
+            journalChannel = FileChannel.open(journalFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            if (!readJournal()) {
+                serverUUID = UUID.randomUUID();
+                resetJournal();
+            }
+        }
+
+        journalWriter = new Thread(this::writePendingAppends, "TNTRun-Stats-Journal");
+        journalWriter.setDaemon(true);
+        journalWriter.start();
+    }
+
+    /**
+     * Appends the changes of all players of a game and the history of the game to the journal asynchronously.
+     *
+     * @param matchStats  The buffered statistics of a game.
+     * @param matchRecord The history of the game, or null if the history shouldn't be saved.
+     * @return A {@link CompletableFuture} which is completed after the records were synced to the disk.
+     */
+    public @NonNull CompletableFuture<Void> appendAsync(@NonNull MatchStats matchStats,
+                                                        @Nullable MatchRecord matchRecord) {
+        if (journalWriter == null || !journalWriter.isAlive()) {
+            return CompletableFuture.failedFuture(new IOException("The stats journal isn't open."));
+        }
+
+        final List<IJournalEntry> journalRecords = new ArrayList<>();
+        final long playedAt = System.currentTimeMillis();
+
+        for (MatchStats.PlayerStatsDelta playerStatsDelta : matchStats.getPlayerStatsDeltas()) {
+            journalRecords.add(JournalRecord.of(nextSequence.getAndIncrement(), playerStatsDelta, playedAt));
+        }
+
+        if (matchRecord != null) {
+            journalRecords.add(MatchJournalRecord.of(nextSequence.getAndIncrement(), matchRecord));
+        }
+
+        final PendingAppend pendingAppend = new PendingAppend(journalRecords, new CompletableFuture<>());
+        pendingAppends.add(pendingAppend);
+        return pendingAppend.future();
+    }
+
+    /**
+     * Gets the oldest records which weren't saved in the database yet.
+     *
+     * @param maxRecords The maximum amount of returned records.
+     * @return A copy of the oldest unsaved records in the order of their sequence.
+     */
+    public @NonNull List<IJournalEntry> getUnreplayedRecords(int maxRecords) {
+        synchronized (journalLock) {
+            return List.copyOf(unreplayedRecords.subList(0, Math.min(maxRecords, unreplayedRecords.size())));
+        }
+    }
+
+    /**
+     * Checks if there are records which weren't saved in the database yet.
+     *
+     * @return True if there are unsaved records.
+     */
+    public boolean hasUnreplayedRecords() {
+        synchronized (journalLock) {
+            return !unreplayedRecords.isEmpty();
+        }
+    }
+
+    /**
+     * Marks all records up to the specified sequence number as saved in the database. The journal is truncated
+     * if all written records were saved.
+     *
+     * @param lastSequence The sequence number of the last saved record.
+     */
+    public void acknowledge(long lastSequence) {
+        synchronized (journalLock) {
+            unreplayedRecords.removeIf(journalRecord -> journalRecord.sequence() <= lastSequence);
+
+            if (!unreplayedRecords.isEmpty() || journalChannel == null) return;
+
+            try {
+                resetJournal();
+            } catch (IOException ioException) {
+                logger.log(Level.WARNING, "The stats journal couldn't be truncated.", ioException);
+            }
+        }
+    }
+
+    /**
+     * Makes sure that new records get a higher sequence number than the specified one. This is required if
+     * the database has saved records of this server which aren't known by the journal anymore.
+     *
+     * @param sequence The sequence number which was already used.
+     */
+    public void ensureSequenceAbove(long sequence) {
+        nextSequence.accumulateAndGet(sequence + 1, Math::max);
+    }
+
+    /**
+     * Stops the thread which writes the appended records after all pending appends were written
+     * and closes the journal file.
+     */
+    public void close() {
+        if (journalWriter == null) return;
+
+        pendingAppends.add(CLOSE_MARKER);
+        try {
+            journalWriter.join();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (journalLock) {
+            try {
+                journalChannel.close();
+            } catch (IOException ioException) {
+                logger.log(Level.WARNING, "The stats journal couldn't be closed.", ioException);
+            }
+            journalChannel = null;
+        }
+    }
+
+    /**
+     * Writes all pending appends to the journal until the journal is closed. All appends which are pending
+     * at the same time are synced to the disk together.
+     */
+    private void writePendingAppends() {
+        final List<PendingAppend> groupedAppends = new ArrayList<>();
+
+        while (true) {
+            try {
+                groupedAppends.add(pendingAppends.take());
+            } catch (InterruptedException interruptedException) {
+                return;
+            }
+
+            pendingAppends.drainTo(groupedAppends);
+
+            //The appends before the close marker are still written.
+            final boolean isClosing = groupedAppends.remove(CLOSE_MARKER);
+
+            if (!groupedAppends.isEmpty()) writeGroupedAppends(groupedAppends);
+            groupedAppends.clear();
+
+            if (isClosing) return;
+        }
+    }
+
+    private void writeGroupedAppends(@NonNull List<PendingAppend> groupedAppends) {
+        int recordBytes = 0;
+        for (PendingAppend pendingAppend : groupedAppends) {
+            for (IJournalEntry journalEntry : pendingAppend.journalRecords()) {
+                recordBytes += journalEntry.getEncodedBytes();
+            }
+        }
+
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(recordBytes);
+        for (PendingAppend pendingAppend : groupedAppends) {
+            pendingAppend.journalRecords().forEach(journalRecord -> journalRecord.writeTo(byteBuffer));
+        }
+        byteBuffer.flip();
+
+        try {
+            synchronized (journalLock) {
+                journalChannel.position(journalChannel.size());
+                while (byteBuffer.hasRemaining()) {
+                    journalChannel.write(byteBuffer);
+                }
+                journalChannel.force(false);
+
+                for (PendingAppend pendingAppend : groupedAppends) {
+                    unreplayedRecords.addAll(pendingAppend.journalRecords());
+                }
+            }
+        } catch (IOException ioException) {
+            logger.log(Level.SEVERE, "The stats journal couldn't be written.", ioException);
+            groupedAppends.forEach(pendingAppend -> pendingAppend.future().completeExceptionally(ioException));
+            return;
+        }
+
+        groupedAppends.forEach(pendingAppend -> pendingAppend.future().complete(null));
+    }
+
+    /**
+     * Reads the header and all complete records of the journal. A partially written record at the end
+     * of the journal is cut off.
+     *
+     * @return False if the journal doesn't have a valid header.
+     * @throws IOException If the journal couldn't be read.
+     */
+    private boolean readJournal() throws IOException {
+        final long journalSize = journalChannel.size();
+
+        if (journalSize < HEADER_BYTES) return false;
+
+        final ByteBuffer byteBuffer = ByteBuffer.allocate((int) journalSize);
+        journalChannel.read(byteBuffer, 0L);
+        byteBuffer.flip();
+
+        if (byteBuffer.getInt() != MAGIC_NUMBER) return false;
+
+        serverUUID = new UUID(byteBuffer.getLong(), byteBuffer.getLong());
+        ensureSequenceAbove(byteBuffer.getLong() - 1);
+
+        IJournalEntry journalEntry;
+        while ((journalEntry = readEntry(byteBuffer)) != null) {
+            unreplayedRecords.add(journalEntry);
+            ensureSequenceAbove(journalEntry.sequence());
+        }
+
+        if (byteBuffer.hasRemaining()) {
+            logger.log(Level.WARNING, "Cut off {0} bytes of an incomplete record of the stats journal.",
+                    byteBuffer.remaining());
+            journalChannel.truncate(byteBuffer.position());
+            journalChannel.force(true);
+        }
+
+        if (!unreplayedRecords.isEmpty()) {
+            logger.log(Level.INFO, "{0} statistic changes of the stats journal aren''t saved yet.",
+                    unreplayedRecords.size());
+        }
+        return true;
+    }
+
+    /**
+     * Reads the entry at the current position of the buffer by the reader of its type.
+     *
+     * @param byteBuffer The buffer from which the entry should be read.
+     * @return The read entry, or null if the entry is incomplete, corrupted or of an unknown type.
+     */
+    private static IJournalEntry readEntry(@NonNull ByteBuffer byteBuffer) {
+        if (!byteBuffer.hasRemaining()) return null;
+
+        return switch (byteBuffer.get(byteBuffer.position())) {
+            case JournalRecord.TYPE -> JournalRecord.readFrom(byteBuffer);
+            case MatchJournalRecord.TYPE -> MatchJournalRecord.readFrom(byteBuffer);
+            default -> null;
+        };
+    }
+
+    /**
+     * Truncates the journal to a new header, which keeps the server UUID and the next sequence number.
+     *
+     * @throws IOException If the journal couldn't be written.
+     */
+    private void resetJournal() throws IOException {
+        final ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC_NUMBER)
+                .putLong(serverUUID.getMostSignificantBits())
+                .putLong(serverUUID.getLeastSignificantBits())
+                .putLong(nextSequence.get());
+        headerBuffer.flip();
+
+        journalChannel.truncate(0L);
+        while (headerBuffer.hasRemaining()) {
+            journalChannel.write(headerBuffer, HEADER_BYTES - headerBuffer.remaining());
+        }
+        journalChannel.force(true);
+    }
+
+    /**
+     * Records of a game which are waiting to be written.
+     *
+     * @param journalRecords The records which should be written.
+     * @param future         The future which is completed after the records were synced to the disk.
+     */
+    private record PendingAppend(@NonNull Collection<IJournalEntry> journalRecords,
+                                 @NonNull CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,378 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import de.will_smith_007.tntrun.enums.StatsWindow;
+import de.will_smith_007.tntrun.game_stats.GameStatistics;
+import de.will_smith_007.tntrun.managers.DatabaseFileManager;
+import de.will_smith_007.tntrun.mysql.MySQL;
+import de.will_smith_007.tntrun.mysql.StatsChangeLog;
+import de.will_smith_007.tntrun.stats_journal.interfaces.IJournalEntry;
+import de.will_smith_007.tntrun.utilities.UUIDConverter;
+import lombok.NonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The {@link StatsJournalReplayer} saves the records of the {@link StatsJournal} in the database in the background.
+ * <br> <br>
+ * The sequence number of the last saved record of this server is saved in the same transaction as the records.
+ * Records which were already saved are skipped, so a record is never counted twice, even if it's replayed again
+ * after a crash. If the database isn't reachable, the replay is retried with an increasing delay.
+ * <br> <br>
+ * The history of the games is saved in the same transaction, a game which was already saved is ignored by its id.
+ */
+@Singleton
+public class StatsJournalReplayer {
+
+    private static final int MAX_RECORDS_PER_REPLAY = 500;
+    private static final long MIN_RETRY_DELAY_MILLIS = 1000L;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000L;
+
+    private final MySQL statsSQL;
+    private final StatsJournal statsJournal;
+    private final StatsChangeLog statsChangeLog;
+    private final Logger logger;
+    private final ZoneId windowTimeZone;
+    private final Object replayLock = new Object();
+
+    private Consumer<Map<UUID, GameStatistics>> savedStatisticsConsumer;
+    private boolean isStarted, isReplaying, isReplayRequested;
+    private volatile boolean isStopped;
+    private long retryDelayMillis = MIN_RETRY_DELAY_MILLIS;
+
+    @Inject
+    public StatsJournalReplayer(@NonNull DatabaseFileManager databaseFileManager,
+                                @NonNull MySQL statsSQL,
+                                @NonNull StatsJournal statsJournal,
+                                @NonNull StatsChangeLog statsChangeLog,
+                                @NonNull Logger logger) {
+        this.statsSQL = statsSQL;
+        this.statsJournal = statsJournal;
+        this.statsChangeLog = statsChangeLog;
+        this.logger = logger;
+        this.windowTimeZone = databaseFileManager.getWindowTimeZone();
+    }
+
+    /**
+     * Starts to save the records of the journal in the background.
+     *
+     * @param savedStatisticsConsumer Receives the statistics of the players whose records were saved in the
+     *                                database by this replayer, as they were after the commit.
+     *                                Records which were already saved before are skipped.
+     */
+    public void start(@NonNull Consumer<Map<UUID, GameStatistics>> savedStatisticsConsumer) {
+        synchronized (replayLock) {
+            this.savedStatisticsConsumer = savedStatisticsConsumer;
+            isStarted = true;
+        }
+        requestReplay();
+    }
+
+    /**
+     * Saves the records of the journal in the background if the replayer isn't already saving them.
+     * Nothing happens if the replayer wasn't started yet.
+     */
+    public void requestReplay() {
+        synchronized (replayLock) {
+            if (!isStarted || isStopped) return;
+
+            if (isReplaying) {
+                isReplayRequested = true;
+                return;
+            }
+
+            isReplaying = true;
+        }
+
+        replayNextRecords();
+    }
+
+    /**
+     * Saves the records of the journal synchronously until all records were saved, but not longer than
+     * the specified timeout. Remaining records stay in the journal and are saved after the next start.
+     *
+     * @param timeoutMillis The maximum milliseconds to save the records.
+     * @apiNote This should be used if the plugin is disabled.
+     */
+    public void drain(long timeoutMillis) {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        while (statsJournal.hasUnreplayedRecords()) {
+            final long remainingNanos = deadlineNanos - System.nanoTime();
+
+            if (remainingNanos <= 0L) {
+                logger.warning("Unsaved statistic changes remain in the stats journal until the next start.");
+                return;
+            }
+
+            final List<IJournalEntry> journalRecords = statsJournal.getUnreplayedRecords(MAX_RECORDS_PER_REPLAY);
+
+            //A replay which runs at the same time doesn't matter, because saved records are skipped.
+            try {
+                acknowledge(journalRecords, replayAsync(journalRecords).get(remainingNanos, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException | ExecutionException exception) {
+                logger.log(Level.WARNING, "Unsaved statistic changes remain in the stats journal until the next " +
+                        "start.", exception);
+                return;
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops to save the records of the journal in the background. A running replay isn't continued and
+     * failed replays aren't retried anymore, so remaining records are saved after the next start.
+     *
+     * @apiNote This should be used if the plugin is disabled, after {@link #drain(long)} and before the database
+     * connection is closed.
+     */
+    public void stop() {
+        synchronized (replayLock) {
+            isStopped = true;
+        }
+    }
+
+    private void replayNextRecords() {
+        if (isStopped) {
+            synchronized (replayLock) {
+                isReplaying = false;
+                isReplayRequested = false;
+            }
+            return;
+        }
+
+        final List<IJournalEntry> journalRecords = statsJournal.getUnreplayedRecords(MAX_RECORDS_PER_REPLAY);
+
+        if (journalRecords.isEmpty()) {
+            synchronized (replayLock) {
+                if (!isReplayRequested) {
+                    isReplaying = false;
+                    return;
+                }
+                isReplayRequested = false;
+            }
+
+            replayNextRecords();
+            return;
+        }
+
+        replayAsync(journalRecords).whenComplete((savedStatistics, throwable) -> {
+            //A replay which fails because the database was closed by the shutdown isn't retried.
+            if (throwable != null && !isStopped) {
+                final long retryDelay = retryDelayMillis;
+                retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+
+                final Object[] objects = {journalRecords.size(), retryDelay};
+                logger.log(Level.WARNING, "{0} statistic changes couldn''t be saved, retrying in {1} ms.", objects);
+
+                CompletableFuture.runAsync(this::replayNextRecords,
+                        CompletableFuture.delayedExecutor(retryDelay, TimeUnit.MILLISECONDS));
+                return;
+            }
+
+            if (throwable == null) {
+                retryDelayMillis = MIN_RETRY_DELAY_MILLIS;
+                acknowledge(journalRecords, savedStatistics);
+            }
+            replayNextRecords();
+        });
+    }
+
+    private void acknowledge(@NonNull List<IJournalEntry> journalRecords,
+                             @NonNull Map<UUID, GameStatistics> savedStatistics) {
+        statsJournal.acknowledge(journalRecords.get(journalRecords.size() - 1).sequence());
+
+        if (savedStatistics.isEmpty() || savedStatisticsConsumer == null) return;
+        savedStatisticsConsumer.accept(savedStatistics);
+    }
+
+    /**
+     * Saves the specified records in a single transaction, records which were already saved are skipped.
+     *
+     * @param journalRecords The records in the order of their sequence.
+     * @return A {@link CompletableFuture} which contains the statistics of the players whose records were saved
+     * by this transaction, as they were after the commit.
+     */
+    private @NonNull CompletableFuture<Map<UUID, GameStatistics>> replayAsync(
+            @NonNull List<IJournalEntry> journalRecords) {
+        final List<JournalRecord> savedRecords = new ArrayList<>();
+        final List<MatchJournalRecord> savedMatches = new ArrayList<>();
+        final Map<UUID, GameStatistics> savedStatistics = new HashMap<>();
+
+        return statsSQL.transactionAsync(connection -> {
+            savedRecords.clear();
+            savedMatches.clear();
+            savedStatistics.clear();
+
+            final byte[] serverUUIDBytes = UUIDConverter.toBytes(statsJournal.getServerUUID());
+            final long lastSequence = lockLastSequence(connection, serverUUIDBytes);
+            statsJournal.ensureSequenceAbove(lastSequence);
+
+            for (IJournalEntry journalEntry : journalRecords) {
+                if (journalEntry.sequence() <= lastSequence) continue;
+
+                if (journalEntry instanceof final JournalRecord journalRecord) {
+                    savedRecords.add(journalRecord);
+                } else if (journalEntry instanceof final MatchJournalRecord matchJournalRecord) {
+                    savedMatches.add(matchJournalRecord);
+                }
+            }
+
+            if (savedRecords.isEmpty() && savedMatches.isEmpty()) return;
+
+            if (!savedRecords.isEmpty()) saveRecords(connection, savedRecords, savedStatistics);
+            if (!savedMatches.isEmpty()) saveMatches(connection, savedMatches);
+
+            try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                    "UPDATE tntrun_journal SET lastSequence= ? WHERE serverUUID= ?")) {
+                preparedStatement.setLong(1, journalRecords.get(journalRecords.size() - 1).sequence());
+                preparedStatement.setBytes(2, serverUUIDBytes);
+                preparedStatement.executeUpdate();
+            }
+        }).thenApply(unused -> savedStatistics);
+    }
+
+    /**
+     * Adds the specified records to the statistics and the rollups of the time-windowed leaderboards.
+     *
+     * @param savedRecords    The records which weren't saved yet.
+     * @param savedStatistics Receives the statistics of the players of the records, as they are after the commit.
+     */
+    private void saveRecords(@NonNull Connection connection, @NonNull List<JournalRecord> savedRecords,
+                             @NonNull Map<UUID, GameStatistics> savedStatistics) throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO tntrun(uuid, wins, loses, longestSurvivedTime, lastPlayed, blocksBroken, " +
+                        "distanceRun, airTime, afkRemovals) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE wins= wins + VALUES(wins), loses= loses + VALUES(loses), " +
+                        "longestSurvivedTime= GREATEST(longestSurvivedTime, VALUES(longestSurvivedTime)), " +
+                        "lastPlayed= GREATEST(lastPlayed, VALUES(lastPlayed)), " +
+                        "blocksBroken= blocksBroken + VALUES(blocksBroken), " +
+                        "distanceRun= distanceRun + VALUES(distanceRun), airTime= airTime + VALUES(airTime), " +
+                        "afkRemovals= afkRemovals + VALUES(afkRemovals);")) {
+            for (JournalRecord journalRecord : savedRecords) {
+                preparedStatement.setBytes(1, UUIDConverter.toBytes(journalRecord.playerUUID()));
+                preparedStatement.setInt(2, journalRecord.wins());
+                preparedStatement.setInt(3, journalRecord.loses());
+                preparedStatement.setLong(4, journalRecord.longestSurvivedTime());
+                preparedStatement.setLong(5, journalRecord.playedAt());
+                preparedStatement.setInt(6, journalRecord.blocksBroken());
+                preparedStatement.setLong(7, journalRecord.distanceRun());
+                preparedStatement.setLong(8, journalRecord.airTime());
+                preparedStatement.setInt(9, journalRecord.afkRemovals());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+
+        //The rollups of the time-windowed leaderboards are updated in the same transaction.
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT INTO tntrun_window(windowType, bucket, uuid, wins, loses, longestSurvivedTime) " +
+                        "VALUES (?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE wins= wins + VALUES(wins), loses= loses + VALUES(loses), " +
+                        "longestSurvivedTime= GREATEST(longestSurvivedTime, VALUES(longestSurvivedTime));")) {
+            for (JournalRecord journalRecord : savedRecords) {
+                final byte[] playerUUIDBytes = UUIDConverter.toBytes(journalRecord.playerUUID());
+
+                for (StatsWindow statsWindow : StatsWindow.values()) {
+                    preparedStatement.setInt(1, statsWindow.getWindowType());
+                    preparedStatement.setInt(2, statsWindow.getBucket(journalRecord.playedAt(), windowTimeZone));
+                    preparedStatement.setBytes(3, playerUUIDBytes);
+                    preparedStatement.setInt(4, journalRecord.wins());
+                    preparedStatement.setInt(5, journalRecord.loses());
+                    preparedStatement.setLong(6, journalRecord.longestSurvivedTime());
+                    preparedStatement.addBatch();
+                }
+            }
+            preparedStatement.executeBatch();
+        }
+
+        //Other servers refresh the changed players by the change log.
+        final List<UUID> changedPlayers = new ArrayList<>(savedRecords.size());
+        savedRecords.forEach(journalRecord -> changedPlayers.add(journalRecord.playerUUID()));
+        statsChangeLog.append(connection, changedPlayers);
+
+        //The changed rows are locked by this transaction, so they contain exactly the values after the commit.
+        savedStatistics.putAll(statsChangeLog.getSavedStatistics(connection, changedPlayers));
+    }
+
+    /**
+     * Saves the history of the specified games. Games which were already saved are ignored by their id.
+     *
+     * @param savedMatches The records of the games which weren't saved yet.
+     */
+    private void saveMatches(@NonNull Connection connection, @NonNull List<MatchJournalRecord> savedMatches)
+            throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT IGNORE INTO tntrun_match(matchId, mapName, startedAt, endedAt, durationMillis, " +
+                        "participants) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (MatchJournalRecord matchJournalRecord : savedMatches) {
+                preparedStatement.setBytes(1, UUIDConverter.toBytes(matchJournalRecord.matchUUID()));
+                preparedStatement.setString(2, matchJournalRecord.mapName());
+                preparedStatement.setLong(3, matchJournalRecord.startedAt());
+                preparedStatement.setLong(4, matchJournalRecord.endedAt());
+                preparedStatement.setLong(5, matchJournalRecord.getDurationMillis());
+                preparedStatement.setInt(6, matchJournalRecord.placements().size());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT IGNORE INTO tntrun_match_player(matchId, uuid, placement, survivedTime, mapName, " +
+                        "endedAt) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (MatchJournalRecord matchJournalRecord : savedMatches) {
+                final byte[] matchIdBytes = UUIDConverter.toBytes(matchJournalRecord.matchUUID());
+
+                for (MatchJournalRecord.Placement placement : matchJournalRecord.placements()) {
+                    preparedStatement.setBytes(1, matchIdBytes);
+                    preparedStatement.setBytes(2, UUIDConverter.toBytes(placement.playerUUID()));
+                    preparedStatement.setInt(3, placement.placement());
+                    preparedStatement.setLong(4, placement.survivedTime());
+                    preparedStatement.setString(5, matchJournalRecord.mapName());
+                    preparedStatement.setLong(6, matchJournalRecord.endedAt());
+                    preparedStatement.addBatch();
+                }
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last saved record of this server and locks it until the end
+     * of the transaction, so that the same records can't be saved by two transactions.
+     */
+    private long lockLastSequence(@NonNull Connection connection, byte @NonNull [] serverUUIDBytes)
+            throws SQLException {
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "INSERT IGNORE INTO tntrun_journal(serverUUID, lastSequence) VALUES (?, 0)")) {
+            preparedStatement.setBytes(1, serverUUIDBytes);
+            preparedStatement.executeUpdate();
+        }
+
+        try (final PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT lastSequence FROM tntrun_journal WHERE serverUUID= ? FOR UPDATE")) {
+            preparedStatement.setBytes(1, serverUUIDBytes);
+            final ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getLong("lastSequence") : 0L;
+        }
+    }
+}
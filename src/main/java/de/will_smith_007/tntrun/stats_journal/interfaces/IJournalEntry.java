@@ -0,0 +1,35 @@
+package de.will_smith_007.tntrun.stats_journal.interfaces;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface must be inherited by every entry of the {@link de.will_smith_007.tntrun.stats_journal.StatsJournal}.
+ * <br> <br>
+ * Every entry starts with the byte of its type and ends with a CRC32 checksum, so that the entries of different
+ * types can be read in the order in which they were written and a partially written entry is detected.
+ */
+public interface IJournalEntry {
+
+    /**
+     * Gets the sequence number of this entry, which is unique and increasing on this server.
+     *
+     * @return The sequence number of this entry.
+     */
+    long sequence();
+
+    /**
+     * Gets the amount of bytes which are written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @return The size of this entry in bytes, including the type and the checksum.
+     */
+    int getEncodedBytes();
+
+    /**
+     * Writes this entry with its type and its checksum at the current position of the buffer.
+     *
+     * @param byteBuffer The buffer which must have at least {@link #getEncodedBytes()} remaining bytes.
+     */
+    void writeTo(@NonNull ByteBuffer byteBuffer);
+}
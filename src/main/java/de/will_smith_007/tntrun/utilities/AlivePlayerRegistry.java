@@ -0,0 +1,166 @@
+package de.will_smith_007.tntrun.utilities;
+
+import de.will_smith_007.tntrun.game_stats.PlayerElimination;
+import lombok.NonNull;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Holds all players which are still alive in the current game by their {@link UUID} and logs the
+ * order in which the players were eliminated.
+ * <br> <br>
+ * Membership checks and eliminations are constant time operations and no {@link Player} objects are held,
+ * so that players who left the server can be garbage collected.
+ *
+ * @apiNote This registry isn't thread safe and should only be used on the main thread.
+ */
+public class AlivePlayerRegistry {
+
+    private final Map<UUID, String> participantNames = new LinkedHashMap<>();
+    private final Set<UUID> alivePlayers = new LinkedHashSet<>();
+    private final List<PlayerElimination> eliminations = new ArrayList<>();
+    private final Map<UUID, PlayerElimination> eliminationsByPlayer = new HashMap<>();
+
+    /**
+     * Registers the specified players as alive participants of a new game.
+     * All participants and eliminations of the previous game are removed.
+     *
+     * @param players The players who participate in the game.
+     */
+    public void registerPlayers(@NonNull Collection<? extends Player> players) {
+        clear();
+        for (Player player : players) {
+            final UUID playerUUID = player.getUniqueId();
+            participantNames.put(playerUUID, player.getName());
+            alivePlayers.add(playerUUID);
+        }
+    }
+
+    /**
+     * Checks if the player with the specified {@link UUID} is still alive in the game.
+     *
+     * @param playerUUID The UUID of the player which should be checked.
+     * @return True if the player is alive.
+     */
+    public boolean isAlive(@NonNull UUID playerUUID) {
+        return alivePlayers.contains(playerUUID);
+    }
+
+    /**
+     * Gets the amount of players which are still alive.
+     *
+     * @return The amount of alive players.
+     */
+    public int getAliveCount() {
+        return alivePlayers.size();
+    }
+
+    /**
+     * Gets the amount of players which have participated in the game.
+     *
+     * @return The amount of participants including the eliminated players.
+     */
+    public int getParticipantCount() {
+        return participantNames.size();
+    }
+
+    /**
+     * Gets the UUIDs of all alive players in the order in which they were registered.
+     *
+     * @return An unmodifiable view of the alive player UUIDs.
+     */
+    public @NonNull Set<UUID> getAlivePlayerUUIDs() {
+        return Collections.unmodifiableSet(alivePlayers);
+    }
+
+    /**
+     * Gets the first alive player in registration order, which is the winner if only one player is alive.
+     *
+     * @return The UUID of the first alive player. Returns null if there isn't any alive player.
+     */
+    public UUID getFirstAlivePlayerUUID() {
+        final Iterator<UUID> iterator = alivePlayers.iterator();
+        return (iterator.hasNext() ? iterator.next() : null);
+    }
+
+    /**
+     * Gets the name of a participant of the game.
+     *
+     * @param playerUUID The UUID of the participant.
+     * @return The name of the participant. Returns null if the player didn't participate in the game.
+     */
+    public String getParticipantName(@NonNull UUID playerUUID) {
+        return participantNames.get(playerUUID);
+    }
+
+    /**
+     * Eliminates the specified player and adds them to the elimination log. The placement of the player
+     * is the amount of players which were alive before this elimination.
+     *
+     * @param playerUUID            The UUID of the player which should be eliminated.
+     * @param eliminationTimeMillis Time milliseconds of the elimination.
+     * @return The logged elimination. Returns null if the player wasn't alive.
+     */
+    public PlayerElimination eliminate(@NonNull UUID playerUUID, long eliminationTimeMillis) {
+        final int placement = alivePlayers.size();
+
+        if (!alivePlayers.remove(playerUUID)) return null;
+
+        return logElimination(playerUUID, placement, eliminationTimeMillis);
+    }
+
+    /**
+     * Logs the last alive player as the winner with the placement 1. The winner stays alive.
+     *
+     * @param endTimeMillis Time milliseconds of the game end.
+     * @return The logged entry of the winner. Returns null if there isn't exactly one alive player
+     * or the winner was already logged.
+     */
+    public PlayerElimination recordWinner(long endTimeMillis) {
+        if (alivePlayers.size() != 1) return null;
+
+        final UUID winnerUUID = getFirstAlivePlayerUUID();
+
+        if (eliminationsByPlayer.containsKey(winnerUUID)) return null;
+
+        return logElimination(winnerUUID, 1, endTimeMillis);
+    }
+
+    /**
+     * Gets the elimination log in the order of the eliminations, the last placed player comes first.
+     *
+     * @return An unmodifiable view of the elimination log.
+     */
+    public @NonNull List<PlayerElimination> getEliminations() {
+        return Collections.unmodifiableList(eliminations);
+    }
+
+    /**
+     * Gets the logged elimination of the specified player.
+     *
+     * @param playerUUID The UUID of the player.
+     * @return The logged elimination. Returns null if the player wasn't eliminated.
+     */
+    public PlayerElimination getElimination(@NonNull UUID playerUUID) {
+        return eliminationsByPlayer.get(playerUUID);
+    }
+
+    /**
+     * Removes all participants and the elimination log.
+     */
+    public void clear() {
+        participantNames.clear();
+        alivePlayers.clear();
+        eliminations.clear();
+        eliminationsByPlayer.clear();
+    }
+
+    private @NonNull PlayerElimination logElimination(@NonNull UUID playerUUID, int placement, long timeMillis) {
+        final PlayerElimination playerElimination =
+                new PlayerElimination(playerUUID, participantNames.get(playerUUID), placement, timeMillis);
+        eliminations.add(playerElimination);
+        eliminationsByPlayer.put(playerUUID, playerElimination);
+        return playerElimination;
+    }
+}
@@ -0,0 +1,96 @@
+package de.will_smith_007.tntrun.utilities;
+
+import com.google.inject.Singleton;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap memory which is allocated by the main thread while handling an event.
+ * <br> <br>
+ * The profiler is disabled by default and only reads the allocation counter of the current thread if it was
+ * enabled, so that the disabled profiler doesn't add any costs to the profiled code.
+ *
+ * @apiNote Requires a JVM which supports thread allocation measurement such as HotSpot.
+ */
+@Singleton
+public class AllocationProfiler {
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    @Getter
+    private final boolean supported;
+    @Getter
+    private volatile boolean enabled;
+    private long samples, allocationFreeSamples, allocatedBytes, maxAllocatedBytes;
+
+    public AllocationProfiler() {
+        final ThreadMXBean managementThreadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (managementThreadMXBean instanceof final com.sun.management.ThreadMXBean sunThreadMXBean
+                && sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+            sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+            this.threadMXBean = sunThreadMXBean;
+            this.supported = true;
+        } else {
+            this.threadMXBean = null;
+            this.supported = false;
+        }
+    }
+
+    /**
+     * Enables or disables the profiler. Enabling the profiler resets the previously collected samples.
+     *
+     * @param enabled True if the profiler should collect samples.
+     * @return True if the new state was applied, false if thread allocation measurement isn't supported.
+     */
+    public synchronized boolean setEnabled(boolean enabled) {
+        if (!supported) return false;
+
+        if (enabled) {
+            samples = 0;
+            allocationFreeSamples = 0;
+            allocatedBytes = 0;
+            maxAllocatedBytes = 0;
+        }
+
+        this.enabled = enabled;
+        return true;
+    }
+
+    /**
+     * Gets the amount of bytes the current thread has allocated so far.
+     *
+     * @return The allocated bytes which should be passed to {@link #record(long)} after the profiled code.
+     */
+    public long getCurrentThreadAllocatedBytes() {
+        return threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records a sample with the allocated bytes since the specified start value.
+     *
+     * @param startAllocatedBytes The value of {@link #getCurrentThreadAllocatedBytes()} before the profiled code.
+     */
+    public synchronized void record(long startAllocatedBytes) {
+        final long sampleBytes = threadMXBean.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+
+        samples++;
+        allocatedBytes += sampleBytes;
+        if (sampleBytes == 0) allocationFreeSamples++;
+        if (sampleBytes > maxAllocatedBytes) maxAllocatedBytes = sampleBytes;
+    }
+
+    /**
+     * Gets a summary of the collected samples.
+     *
+     * @return The summary which contains the amount of samples and the allocated bytes per sample.
+     */
+    public synchronized @NonNull String getSummary() {
+        if (samples == 0) return "No samples were recorded.";
+
+        return String.format("%d samples, %d without allocations, %.2f bytes on average, %d bytes at most",
+                samples, allocationFreeSamples, (double) allocatedBytes / samples, maxAllocatedBytes);
+    }
+}
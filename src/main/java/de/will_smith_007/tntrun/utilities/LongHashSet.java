@@ -0,0 +1,166 @@
+package de.will_smith_007.tntrun.utilities;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set for primitive long values.
+ * <br> <br>
+ * Used instead of a {@link java.util.HashSet} on hot paths, because it neither boxes the values nor allocates
+ * an entry object for each added value.
+ *
+ * @apiNote This set isn't thread safe.
+ */
+public final class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private boolean containsZero;
+    private int mask, size, resizeThreshold;
+
+    /**
+     * Creates a new set which can hold the specified amount of values without resizing.
+     *
+     * @param expectedSize Expected amount of values in this set.
+     */
+    public LongHashSet(int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds the specified value to this set.
+     *
+     * @param key The value which should be added.
+     * @return True if the value wasn't already in this set.
+     */
+    public boolean add(long key) {
+        if (key == 0L) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0L) {
+            if (current == key) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        if (++size >= resizeThreshold) rehash(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Checks if the specified value is in this set.
+     *
+     * @param key The value which should be checked.
+     * @return True if this set contains the value.
+     */
+    public boolean contains(long key) {
+        if (key == 0L) return containsZero;
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0L) {
+            if (current == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the specified value from this set.
+     *
+     * @param key The value which should be removed.
+     * @return True if the value was in this set.
+     */
+    public boolean remove(long key) {
+        if (key == 0L) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0L) {
+            if (current == key) {
+                shiftKeys(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values from this set but keeps the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Closes the gap of a removed value by moving following values of the same probe sequence back.
+     *
+     * @param position Slot of the removed value.
+     */
+    private void shiftKeys(int position) {
+        int last, slot;
+        long current;
+        while (true) {
+            position = ((last = position) + 1) & mask;
+            while (true) {
+                if ((current = keys[position]) == 0L) {
+                    keys[last] = 0L;
+                    return;
+                }
+                slot = mix(current) & mask;
+                if (last <= position ? (last >= slot || slot > position) : (last >= slot && slot > position)) break;
+                position = (position + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        final long[] oldKeys = keys;
+        allocate(newCapacity);
+
+        for (long key : oldKeys) {
+            if (key == 0L) continue;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0L) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
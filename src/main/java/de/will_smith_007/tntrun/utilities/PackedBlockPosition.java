@@ -0,0 +1,44 @@
+package de.will_smith_007.tntrun.utilities;
+
+/**
+ * Packs block coordinates into a single long value, so that block positions can be stored in primitive
+ * collections instead of {@link org.bukkit.block.Block} or {@link org.bukkit.Location} objects.
+ * <br> <br>
+ * The layout is the same as the vanilla block position: 26 bits for x, 26 bits for z and 12 bits for y.
+ */
+public final class PackedBlockPosition {
+
+    private static final int HORIZONTAL_BITS = 26;
+    private static final int VERTICAL_BITS = 12;
+    private static final long HORIZONTAL_MASK = (1L << HORIZONTAL_BITS) - 1L;
+    private static final long VERTICAL_MASK = (1L << VERTICAL_BITS) - 1L;
+    private static final int X_SHIFT = HORIZONTAL_BITS + VERTICAL_BITS;
+    private static final int Z_SHIFT = VERTICAL_BITS;
+
+    private PackedBlockPosition() {
+    }
+
+    /**
+     * Packs the specified block coordinates into a long value.
+     *
+     * @param x Block x coordinate.
+     * @param y Block y coordinate.
+     * @param z Block z coordinate.
+     * @return The packed block position.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & HORIZONTAL_MASK) << X_SHIFT) | ((z & HORIZONTAL_MASK) << Z_SHIFT) | (y & VERTICAL_MASK);
+    }
+
+    public static int unpackX(long packedPosition) {
+        return (int) (packedPosition >> X_SHIFT);
+    }
+
+    public static int unpackY(long packedPosition) {
+        return (int) (packedPosition << (Long.SIZE - VERTICAL_BITS) >> (Long.SIZE - VERTICAL_BITS));
+    }
+
+    public static int unpackZ(long packedPosition) {
+        return (int) (packedPosition << (Long.SIZE - X_SHIFT) >> (Long.SIZE - HORIZONTAL_BITS));
+    }
+}
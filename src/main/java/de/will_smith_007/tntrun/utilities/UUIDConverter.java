@@ -0,0 +1,47 @@
+package de.will_smith_007.tntrun.utilities;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts {@link UUID}s into their compact binary form of 16 bytes and back, which is used to store
+ * player UUIDs in the database.
+ */
+public final class UUIDConverter {
+
+    public static final int UUID_BYTES = 16;
+
+    private UUIDConverter() {
+    }
+
+    /**
+     * Converts the specified UUID into 16 bytes.
+     *
+     * @param uuid The UUID which should be converted.
+     * @return The 16 bytes of the UUID, the most significant bits first.
+     */
+    public static byte[] toBytes(@NonNull UUID uuid) {
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts 16 bytes back into a UUID.
+     *
+     * @param uuidBytes The 16 bytes of the UUID, the most significant bits first.
+     * @return The converted UUID.
+     * @throws IllegalArgumentException If the byte array doesn't have a length of 16 bytes.
+     */
+    public static @NonNull UUID fromBytes(byte @NonNull [] uuidBytes) {
+        if (uuidBytes.length != UUID_BYTES) {
+            throw new IllegalArgumentException("A binary UUID must have " + UUID_BYTES + " bytes.");
+        }
+
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(uuidBytes);
+        return new UUID(byteBuffer.getLong(), byteBuffer.getLong());
+    }
+}
@@ -0,0 +1,100 @@
+package de.will_smith_007.tntrun.game_stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WinRankIndexTest {
+
+    private final WinRankIndex winRankIndex = new WinRankIndex();
+
+    @Test
+    void getRankRanksPlayersWithMoreWinsFirst() {
+        final UUID firstPlayer = UUID.randomUUID(), secondPlayer = UUID.randomUUID(), thirdPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(secondPlayer, 5);
+        winRankIndex.setWins(firstPlayer, 12);
+        winRankIndex.setWins(thirdPlayer, 0);
+
+        assertEquals(1, winRankIndex.getRank(firstPlayer));
+        assertEquals(2, winRankIndex.getRank(secondPlayer));
+        assertEquals(3, winRankIndex.getRank(thirdPlayer));
+        assertEquals(3, winRankIndex.size());
+    }
+
+    @Test
+    void getRankSharesTheRankOfPlayersWithTheSameWins() {
+        final UUID firstPlayer = UUID.randomUUID(), tiedPlayer = UUID.randomUUID(), lastPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(firstPlayer, 3);
+        winRankIndex.setWins(tiedPlayer, 3);
+        winRankIndex.setWins(lastPlayer, 1);
+
+        assertEquals(1, winRankIndex.getRank(firstPlayer));
+        assertEquals(1, winRankIndex.getRank(tiedPlayer));
+        assertEquals(3, winRankIndex.getRank(lastPlayer));
+    }
+
+    @Test
+    void setWinsReplacesThePreviousWins() {
+        final UUID firstPlayer = UUID.randomUUID(), secondPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(firstPlayer, 4);
+        winRankIndex.setWins(secondPlayer, 2);
+        winRankIndex.setWins(secondPlayer, 7);
+
+        assertEquals(1, winRankIndex.getRank(secondPlayer));
+        assertEquals(2, winRankIndex.getRank(firstPlayer));
+        assertEquals(2, winRankIndex.size());
+    }
+
+    @Test
+    void removeRemovesThePlayerFromTheRanks() {
+        final UUID firstPlayer = UUID.randomUUID(), secondPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(firstPlayer, 9);
+        winRankIndex.setWins(secondPlayer, 2);
+        winRankIndex.remove(firstPlayer);
+
+        assertEquals(-1, winRankIndex.getRank(firstPlayer));
+        assertEquals(1, winRankIndex.getRank(secondPlayer));
+        assertEquals(1, winRankIndex.size());
+    }
+
+    @Test
+    void getRankReturnsMinusOneForAnAbsentPlayer() {
+        winRankIndex.setWins(UUID.randomUUID(), 1);
+
+        assertEquals(-1, winRankIndex.getRank(UUID.randomUUID()));
+    }
+
+    @Test
+    void setWinsGrowsTheIndexForManyWins() {
+        final UUID topPlayer = UUID.randomUUID(), middlePlayer = UUID.randomUUID(), lowPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(lowPlayer, 63);
+        winRankIndex.setWins(middlePlayer, 64);
+        winRankIndex.setWins(topPlayer, 5000);
+
+        assertEquals(1, winRankIndex.getRank(topPlayer));
+        assertEquals(2, winRankIndex.getRank(middlePlayer));
+        assertEquals(3, winRankIndex.getRank(lowPlayer));
+
+        winRankIndex.setWins(lowPlayer, 5000);
+        assertEquals(1, winRankIndex.getRank(lowPlayer));
+        assertEquals(3, winRankIndex.getRank(middlePlayer));
+    }
+
+    @Test
+    void setWinsClampsNegativeWins() {
+        final UUID negativePlayer = UUID.randomUUID(), zeroPlayer = UUID.randomUUID();
+
+        winRankIndex.setWins(negativePlayer, -3);
+        winRankIndex.setWins(zeroPlayer, 0);
+
+        assertEquals(1, winRankIndex.getRank(negativePlayer));
+        assertEquals(1, winRankIndex.getRank(zeroPlayer));
+    }
+}
@@ -0,0 +1,88 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JournalRecordTest {
+
+    private static final JournalRecord JOURNAL_RECORD = new JournalRecord(42L, UUID.randomUUID(), 1, 0,
+            93_500L, 1_700_000_000_000L, 318, 1204L, 8_750L, 2);
+
+    @Test
+    void readFromReturnsTheWrittenRecords() {
+        final JournalRecord secondRecord = new JournalRecord(43L, UUID.randomUUID(), 0, 1,
+                12_000L, 1_700_000_060_000L, 25, 97L, 400L, 0);
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(JournalRecord.RECORD_BYTES * 2);
+
+        JOURNAL_RECORD.writeTo(byteBuffer);
+        secondRecord.writeTo(byteBuffer);
+        assertEquals(JournalRecord.RECORD_BYTES * 2, byteBuffer.position());
+
+        byteBuffer.flip();
+        assertEquals(JOURNAL_RECORD, JournalRecord.readFrom(byteBuffer));
+        assertEquals(secondRecord, JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.remaining());
+    }
+
+    @Test
+    void readFromRejectsAChangedByte() {
+        final ByteBuffer byteBuffer = writtenRecord();
+        //Changes a byte of the wins, which follow the type, the sequence and the UUID.
+        byteBuffer.put(25, (byte) (byteBuffer.get(25) ^ 1));
+
+        assertNull(JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsAChangedChecksum() {
+        final ByteBuffer byteBuffer = writtenRecord();
+        final int lastIndex = JournalRecord.RECORD_BYTES - 1;
+        byteBuffer.put(lastIndex, (byte) (byteBuffer.get(lastIndex) ^ 1));
+
+        assertNull(JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsATruncatedRecord() {
+        final ByteBuffer byteBuffer = writtenRecord().limit(JournalRecord.RECORD_BYTES - 1);
+
+        assertNull(JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsATornTail() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(JournalRecord.RECORD_BYTES * 2);
+        JOURNAL_RECORD.writeTo(byteBuffer);
+        //The second record was only written partially, the rest of the file is still zeroed.
+        final ByteBuffer tornRecord = writtenRecord().limit(JournalRecord.RECORD_BYTES / 2);
+        byteBuffer.put(tornRecord);
+        byteBuffer.clear();
+
+        assertEquals(JOURNAL_RECORD, JournalRecord.readFrom(byteBuffer));
+        assertNull(JournalRecord.readFrom(byteBuffer));
+        assertEquals(JournalRecord.RECORD_BYTES, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsAnotherType() {
+        final ByteBuffer byteBuffer = writtenRecord();
+        byteBuffer.put(0, MatchJournalRecord.TYPE);
+
+        assertNull(JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    private static ByteBuffer writtenRecord() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(JournalRecord.RECORD_BYTES);
+        JOURNAL_RECORD.writeTo(byteBuffer);
+        return byteBuffer.flip();
+    }
+}
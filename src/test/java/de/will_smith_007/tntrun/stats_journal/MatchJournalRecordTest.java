@@ -0,0 +1,70 @@
+package de.will_smith_007.tntrun.stats_journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MatchJournalRecordTest {
+
+    private static final MatchJournalRecord MATCH_JOURNAL_RECORD = new MatchJournalRecord(42L, UUID.randomUUID(),
+            "Wüste", 1_700_000_000_000L, 1_700_000_093_500L, List.of(
+            new MatchJournalRecord.Placement(UUID.randomUUID(), 1, 93_500L),
+            new MatchJournalRecord.Placement(UUID.randomUUID(), 2, 61_250L)));
+
+    @Test
+    void readFromReturnsTheWrittenRecords() {
+        final JournalRecord journalRecord = new JournalRecord(43L, UUID.randomUUID(), 1, 0,
+                93_500L, 1_700_000_093_500L, 318, 1204L, 8_750L, 0);
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(MATCH_JOURNAL_RECORD.getEncodedBytes()
+                + journalRecord.getEncodedBytes());
+
+        MATCH_JOURNAL_RECORD.writeTo(byteBuffer);
+        journalRecord.writeTo(byteBuffer);
+        assertEquals(byteBuffer.capacity(), byteBuffer.position());
+
+        byteBuffer.flip();
+        assertEquals(MATCH_JOURNAL_RECORD, MatchJournalRecord.readFrom(byteBuffer));
+        assertNull(MatchJournalRecord.readFrom(byteBuffer));
+        assertEquals(journalRecord, JournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.remaining());
+    }
+
+    @Test
+    void readFromRejectsAChangedByte() {
+        final ByteBuffer byteBuffer = writtenRecord();
+        //Changes a byte of the map name.
+        final int mapNameIndex = Byte.BYTES + Integer.BYTES + Long.BYTES * 5 + Short.BYTES;
+        byteBuffer.put(mapNameIndex, (byte) (byteBuffer.get(mapNameIndex) ^ 1));
+
+        assertNull(MatchJournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsAChangedSize() {
+        final ByteBuffer byteBuffer = writtenRecord();
+        byteBuffer.putInt(Byte.BYTES, Integer.MAX_VALUE);
+
+        assertNull(MatchJournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    @Test
+    void readFromRejectsATruncatedRecord() {
+        final ByteBuffer byteBuffer = writtenRecord().limit(MATCH_JOURNAL_RECORD.getEncodedBytes() - 1);
+
+        assertNull(MatchJournalRecord.readFrom(byteBuffer));
+        assertEquals(0, byteBuffer.position());
+    }
+
+    private static ByteBuffer writtenRecord() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(MATCH_JOURNAL_RECORD.getEncodedBytes());
+        MATCH_JOURNAL_RECORD.writeTo(byteBuffer);
+        return byteBuffer.flip();
+    }
+}